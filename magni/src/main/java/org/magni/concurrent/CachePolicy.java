@@ -0,0 +1,147 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.time.Duration;
+
+/**
+ * <p>
+ * Determines the size limit, the expiration and the retry behaviour 
+ * of a {@link LazyCache}.</p>
+ * 
+ * <p>
+ * Instances are immutable: the {@code with...} methods return a new 
+ * policy.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#keyed(java.util.function.Function, CachePolicy)
+ */
+public final class CachePolicy {
+
+	/**
+	 * The maximum size of unbounded caches.
+	 */
+	static final int UNBOUNDED = -1;
+
+	private final int maximumSize;
+	private final long expireAfterWriteNanos;
+	private final RetryPolicy retryPolicy;
+
+	private CachePolicy(int maximumSize, long expireAfterWriteNanos, RetryPolicy retryPolicy) {
+		this.maximumSize = maximumSize;
+		this.expireAfterWriteNanos = expireAfterWriteNanos;
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Creates a policy, which neither limits the number of entries, 
+	 * nor expires them. Failed loads are attempted again on the next 
+	 * access of the key.
+	 * 
+	 * @return an unbounded cache policy
+	 */
+	public static CachePolicy unbounded() {
+		return new CachePolicy(UNBOUNDED, 0, null);
+	}
+
+	/**
+	 * <p>
+	 * Creates a policy, which limits the number of entries. Once the limit 
+	 * is exceeded, entries are evicted based on both the recency and the 
+	 * frequency of their use: a new entry only replaces an established one, 
+	 * if its key has been requested more frequently. (This is the 
+	 * <i>Window TinyLFU</i> policy.)</p>
+	 * 
+	 * @param maximumSize the maximum number of entries
+	 * @return a size limited cache policy
+	 * 
+	 * @throws IllegalArgumentException if maximumSize is not positive
+	 */
+	public static CachePolicy maximumSize(int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+		}
+		return new CachePolicy(maximumSize, 0, null);
+	}
+
+	/**
+	 * Returns a copy of this policy, which expires the entries once the 
+	 * specified duration has elapsed since they were loaded: they are 
+	 * loaded again on the next access. Durations too long to be represented 
+	 * in nanoseconds never expire the entries.
+	 * 
+	 * @param timeToLive the duration, for which the loaded values are valid
+	 * @return the new policy
+	 * 
+	 * @throws NullPointerException if timeToLive is {@code null}
+	 * @throws IllegalArgumentException if timeToLive is not positive
+	 */
+	public CachePolicy withExpireAfterWrite(Duration timeToLive) {
+		if (timeToLive.isNegative() || timeToLive.isZero()) {
+			throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+		}
+		return new CachePolicy(maximumSize, 
+				Lazy.Initializer.toNanosSaturated(timeToLive), retryPolicy);
+	}
+
+	/**
+	 * Returns a copy of this policy, which caches load failures and retries 
+	 * the load of the key according to the {@link RetryPolicy}, just like 
+	 * {@link Lazy#initializer(java.util.concurrent.Callable, RetryPolicy)}.
+	 * 
+	 * @param retryPolicy the policy to retry failed loads with
+	 * @return the new policy
+	 * 
+	 * @throws NullPointerException if retryPolicy is {@code null}
+	 */
+	public CachePolicy withRetryPolicy(RetryPolicy retryPolicy) {
+		if (retryPolicy == null) {
+			throw new NullPointerException("retryPolicy must not be null");
+		}
+		return new CachePolicy(maximumSize, expireAfterWriteNanos, retryPolicy);
+	}
+
+	/**
+	 * @return the maximum number of entries, or {@link #UNBOUNDED}
+	 */
+	int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the time to live of the entries in nanoseconds, 
+	 * 		zero if they do not expire
+	 */
+	long getExpireAfterWriteNanos() {
+		return expireAfterWriteNanos;
+	}
+
+	/**
+	 * @return the policy to retry failed loads with, {@code null} if failed 
+	 * 		loads are attempted again on the next access
+	 */
+	RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	@Override
+	public String toString() {
+		return "CachePolicy [maximumSize=" + maximumSize 
+				+ ", expireAfterWriteNanos=" + expireAfterWriteNanos
+				+ ", retryPolicy=" + retryPolicy + "]";
+	}
+}
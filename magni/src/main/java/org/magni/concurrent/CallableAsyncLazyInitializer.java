@@ -0,0 +1,59 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Lazy.AsyncInitializer} running a {@code Callable} on an 
+ * {@code Executor} to initialize its value.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class CallableAsyncLazyInitializer<T> extends Lazy.AsyncInitializer<T> {
+
+	private final Callable<T> initializer;
+	private final Executor executor;
+
+	CallableAsyncLazyInitializer(Callable<T> initializer, Executor executor) {
+		if(initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+		if(executor == null) {
+			throw new NullPointerException("executor must not be null");
+		}
+		this.initializer = initializer;
+		this.executor = executor;
+	}
+
+	@Override
+	protected void startInitialization(final CompletableFuture<T> result) {
+		executor.execute(new Runnable() {
+
+			public void run() {
+				try {
+					result.complete(initializer.call());
+				} catch (Throwable t) {
+					result.completeExceptionally(t);
+				}
+			}
+		});
+	}
+
+}
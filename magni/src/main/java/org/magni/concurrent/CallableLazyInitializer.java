@@ -19,13 +19,15 @@ import java.util.concurrent.Callable;
 
 class CallableLazyInitializer<T> extends Lazy.Initializer<T> {
 
-	private final Callable<T> initializer;
+	/**
+	 * The {@code Callable} to initialize the value with; released once 
+	 * the value is initialized, so that anything it refers to can be 
+	 * garbage collected.
+	 */
+	private final InitializerReference<Callable<T>> initializer;
 
 	CallableLazyInitializer(Callable<T> initializer) {
-		if(initializer == null) {
-			throw new NullPointerException("initializer must not be null");
-		}
-		this.initializer = initializer;
+		this.initializer = new InitializerReference<Callable<T>>(initializer);
 	}
 
 	/*
@@ -36,6 +38,14 @@ class CallableLazyInitializer<T> extends Lazy.Initializer<T> {
 	 */
 	@Override
 	protected T initializeValue() {
+		return call(initializer.get());
+	}
+
+	/**
+	 * Invokes the {@code Callable}, wrapping checked exceptions 
+	 * into {@link LazyInitializerException}.
+	 */
+	static <T> T call(Callable<T> initializer) {
 		try {
 			return initializer.call();
 		} catch (RuntimeException e) {
@@ -47,4 +57,9 @@ class CallableLazyInitializer<T> extends Lazy.Initializer<T> {
 		}
 	}
 
+	@Override
+	protected void initializationCompleted() {
+		initializer.release();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Lazy.ReclaimableInitializer} using a {@code Callable} to 
+ * initialize its value.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class CallableReclaimableInitializer<T> extends Lazy.ReclaimableInitializer<T> {
+
+	/**
+	 * The {@code Callable} to initialize the value with; kept, since the 
+	 * value might have to be initialized again.
+	 */
+	private final Callable<T> initializer;
+
+	CallableReclaimableInitializer(Callable<T> initializer, Lazy.ValueReference valueReference) {
+		super(valueReference);
+		if(initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+		this.initializer = initializer;
+	}
+
+	@Override
+	protected T initializeValue() {
+		return CallableLazyInitializer.call(initializer);
+	}
+}
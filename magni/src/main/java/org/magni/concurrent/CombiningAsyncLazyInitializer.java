@@ -0,0 +1,69 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * {@link Lazy.AsyncInitializer} combining the values of two other 
+ * {@link Lazy.AsyncInitializer}s, which are initialized concurrently.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class CombiningAsyncLazyInitializer<A, B, T> extends Lazy.AsyncInitializer<T> {
+
+	private final Lazy.AsyncInitializer<? extends A> first;
+	private final Lazy.AsyncInitializer<? extends B> second;
+	private final BiFunction<? super A, ? super B, ? extends T> combiner;
+
+	CombiningAsyncLazyInitializer(Lazy.AsyncInitializer<? extends A> first, 
+			Lazy.AsyncInitializer<? extends B> second, 
+			BiFunction<? super A, ? super B, ? extends T> combiner) {
+		if(first == null) {
+			throw new NullPointerException("first must not be null");
+		}
+		if(second == null) {
+			throw new NullPointerException("second must not be null");
+		}
+		if(combiner == null) {
+			throw new NullPointerException("combiner must not be null");
+		}
+		this.first = first;
+		this.second = second;
+		this.combiner = combiner;
+	}
+
+	@Override
+	protected void startInitialization(final CompletableFuture<T> result) {
+		// both are started before waiting for either of them
+		CompletableFuture<? extends A> firstFuture = first.get();
+		CompletableFuture<? extends B> secondFuture = second.get();
+
+		firstFuture.thenCombine(secondFuture, combiner).whenComplete(new BiConsumer<T, Throwable>() {
+
+			public void accept(T value, Throwable failure) {
+				if (failure != null) {
+					result.completeExceptionally(LazyGraph.unwrap(failure));
+				} else {
+					result.complete(value);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Interface implemented by the proxy classes generated by this package.</p>
+ * 
+ * <p>
+ * The methods of a generated proxy class call the corresponding method of 
+ * the object returned by the {@link ProxyTargetSource} of the proxy directly 
+ * (without reflection), hence a proxied invocation costs little more than a 
+ * regular virtual call, once it has been compiled by the JIT.</p>
+ * 
+ * <p>
+ * <b>This interface is not intended to be used by application code.</b></p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+public interface DelegatingProxy {
+
+	/**
+	 * Returns the {@link ProxyTargetSource} of this proxy.
+	 * 
+	 * @return the {@link ProxyTargetSource} of this proxy
+	 */
+	ProxyTargetSource getProxyTargetSource();
+
+	/**
+	 * Sets the {@link ProxyTargetSource} of this proxy.
+	 * 
+	 * @param targetSource the {@link ProxyTargetSource} to use
+	 */
+	void setProxyTargetSource(ProxyTargetSource targetSource);
+}
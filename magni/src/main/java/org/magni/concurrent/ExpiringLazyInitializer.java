@@ -0,0 +1,62 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link CallableLazyInitializer}, the value of which expires after a 
+ * fixed time to live, and is initialized again on the next access.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class ExpiringLazyInitializer<T> extends CallableLazyInitializer<T> {
+
+	private final long timeToLiveNanos;
+
+	ExpiringLazyInitializer(Callable<T> initializer, long timeToLiveNanos) {
+		super(initializer);
+		this.timeToLiveNanos = timeToLiveNanos;
+	}
+
+	@Override
+	Object newValueState(T value) {
+		return new ExpiringValue(value, System.nanoTime() + timeToLiveNanos);
+	}
+
+	@Override
+	protected void initializationCompleted() {
+		// the Callable is kept: the value is initialized again once it expires
+	}
+
+	static final class ExpiringValue extends Lazy.Initializer.ValueState {
+
+		private final Object value;
+		private final long expirationNanoTime;
+
+		ExpiringValue(Object value, long expirationNanoTime) {
+			this.value = value;
+			this.expirationNanoTime = expirationNanoTime;
+		}
+
+		@Override
+		Object getValue() {
+			return System.nanoTime() - expirationNanoTime < 0 ? 
+					value : Lazy.Initializer.STALE_VALUE;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link CallableLazyInitializer}, which caches the failures of 
+ * initialization attempts as determined by a {@link RetryPolicy}. 
+ * (Kept as a separate class, so that the other initializers do not 
+ * pay for the field.)
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class FailureCachingLazyInitializer<T> extends CallableLazyInitializer<T> {
+
+	private final RetryPolicy retryPolicy;
+
+	FailureCachingLazyInitializer(Callable<T> initializer, RetryPolicy retryPolicy) {
+		super(initializer);
+		if(retryPolicy == null) {
+			throw new NullPointerException("retryPolicy must not be null");
+		}
+		this.retryPolicy = retryPolicy;
+	}
+
+	@Override
+	protected long getFailureCachingPeriodNanos(Throwable failure, int failedAttempts) {
+		return retryPolicy.getDelayNanos(failedAttempts);
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Estimates the recent access frequency of keys in a compact space: a 
+ * count-min sketch of four bit counters, sixteen of which are packed into 
+ * a {@code long}. Each key is counted in four counters; its frequency is 
+ * the smallest of them, which overestimates only on hash collisions.</p>
+ * 
+ * <p>
+ * Once the number of recorded accesses reaches ten times the capacity, 
+ * all counters are halved, so that the history of keys, which are not 
+ * used anymore, fades away.</p>
+ * 
+ * <p>
+ * Not thread safe: accessed with the lock of the owning cache held.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+final class FrequencySketch {
+
+	private static final int MAXIMUM_FREQUENCY = 15;
+
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	private static final int[] SEEDS = { 
+		0x97cb3127, 0xab8d1f9f, 0xc3a5c85c, 0x8ebc6af0 
+	};
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 * Creates a new sketch.
+	 * 
+	 * @param capacity the expected number of distinct keys, positive
+	 */
+	FrequencySketch(int capacity) {
+		int tableSize = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 30)) - 1) << 1;
+		this.table = new long[tableSize];
+		this.tableMask = tableSize - 1;
+		this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the estimated number of times the key has been recorded, 
+	 * at most fifteen.
+	 * 
+	 * @param key the key to return the frequency of
+	 * @return the estimated frequency
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+
+		int frequency = MAXIMUM_FREQUENCY;
+		for (int i = 0; i < SEEDS.length; i++) {
+			frequency = Math.min(frequency, counter(hash, i));
+		}
+		return frequency;
+	}
+
+	/**
+	 * Records an access of the key.
+	 * 
+	 * @param key the key to record
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+
+		boolean incremented = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			int index = indexOf(hash, i);
+			int shift = shiftOf(hash, i);
+
+			if (((table[index] >>> shift) & MAXIMUM_FREQUENCY) != MAXIMUM_FREQUENCY) {
+				table[index] += 1L << shift;
+				incremented = true;
+			}
+		}
+
+		if (incremented && ++size == sampleSize) {
+			reset();
+		}
+	}
+
+	private void reset() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size >>>= 1;
+	}
+
+	private int counter(int hash, int i) {
+		return (int) ((table[indexOf(hash, i)] >>> shiftOf(hash, i)) & MAXIMUM_FREQUENCY);
+	}
+
+	private int indexOf(int hash, int i) {
+		int h = (hash + SEEDS[i]) * SEEDS[i];
+		h ^= h >>> 16;
+		return h & tableMask;
+	}
+
+	private static int shiftOf(int hash, int i) {
+		// each function uses a different counter of the sixteen in the long
+		return (((hash >>> (i << 3)) & 3) + (i << 2)) << 2;
+	}
+
+	private static int spread(int hashCode) {
+		int h = hashCode * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+}
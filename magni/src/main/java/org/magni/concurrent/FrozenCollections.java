@@ -0,0 +1,337 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * <p>
+ * Compact, immutable copies of collections, which are not modified after 
+ * they are loaded.</p>
+ * 
+ * <p>
+ * The elements (or the keys and the values) are stored in arrays, in the 
+ * iteration order of the source collection. Lookups use an open addressing 
+ * hash index of {@code int}s, or a binary search, if the source is sorted: 
+ * no per-entry node objects are kept.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+final class FrozenCollections {
+
+	private FrozenCollections() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Returns an unmodifiable {@code RandomAccess} copy of the list, 
+	 * backed by an array of the exact size.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> List<E> freeze(List<E> list) {
+		return Collections.unmodifiableList((List<E>) Arrays.asList(list.toArray()));
+	}
+
+	/**
+	 * Returns a compact, immutable copy of the set. The equality of the 
+	 * source has to be consistent with {@code equals}, or with the 
+	 * comparator of a {@code SortedSet}.
+	 */
+	static <E> Set<E> freeze(Set<E> set) {
+		Object[] elements = set.toArray();
+		return new FrozenSet<E>(Index.create(elements, set));
+	}
+
+	/**
+	 * Returns a compact, immutable copy of the map. The equality of the 
+	 * source has to be consistent with {@code equals}, or with the 
+	 * comparator of a {@code SortedMap}.
+	 */
+	static <K, V> Map<K, V> freeze(Map<K, V> map) {
+		int size = map.size();
+		Object[] keys = new Object[size];
+		Object[] values = new Object[size];
+
+		int i = 0;
+		for (Map.Entry<K, V> entry : map.entrySet()) {
+			keys[i] = entry.getKey();
+			values[i] = entry.getValue();
+			i++;
+		}
+		if (i != size) {
+			throw new IllegalStateException("Map modified during freezing");
+		}
+
+		return new FrozenMap<K, V>(Index.create(keys, map), values);
+	}
+
+	private static <E> E checkedElementAt(Object[] array, int index) {
+		if (index >= array.length) {
+			throw new NoSuchElementException();
+		}
+		@SuppressWarnings("unchecked")
+		E element = (E) array[index];
+		return element;
+	}
+
+	/**
+	 * Locates the index of a key in the array of keys.
+	 */
+	private static abstract class Index {
+
+		final Object[] keys;
+
+		Index(Object[] keys) {
+			this.keys = keys;
+		}
+
+		static Index create(Object[] keys, Collection<?> source) {
+			if (source instanceof SortedSet) {
+				return new SortedIndex(keys, ((SortedSet<?>) source).comparator());
+			}
+			return new HashIndex(keys);
+		}
+
+		static Index create(Object[] keys, Map<?, ?> source) {
+			if (source instanceof SortedMap) {
+				return new SortedIndex(keys, ((SortedMap<?, ?>) source).comparator());
+			}
+			return new HashIndex(keys);
+		}
+
+		/**
+		 * @return the index of the key, or {@code -1}
+		 */
+		abstract int indexOf(Object key);
+	}
+
+	/**
+	 * Open addressing with linear probing, at most half full: each slot 
+	 * holds the index of a key plus one, zero marks an empty slot.
+	 */
+	private static final class HashIndex extends Index {
+
+		private final int[] table;
+
+		/**
+		 * {@code 32 - log2(table.length)}: the slot is taken from the high 
+		 * bits of the product, which depend on every bit of the hash code.
+		 */
+		private final int shift;
+
+		HashIndex(Object[] keys) {
+			super(keys);
+
+			int capacity = Integer.highestOneBit(Math.max(2, keys.length) * 2 - 1) << 1;
+			table = new int[capacity];
+			shift = 32 - Integer.numberOfTrailingZeros(capacity);
+
+			for (int i = 0; i < keys.length; i++) {
+				int slot = slotOf(keys[i]);
+				while (table[slot] != 0) {
+					if (equal(keys[table[slot] - 1], keys[i])) {
+						throw new IllegalArgumentException("Duplicate key: " + keys[i]);
+					}
+					slot = (slot + 1) & (table.length - 1);
+				}
+				table[slot] = i + 1;
+			}
+		}
+
+		@Override
+		int indexOf(Object key) {
+			int slot = slotOf(key);
+			while (true) {
+				int entry = table[slot];
+				if (entry == 0) {
+					return -1;
+				}
+				if (equal(keys[entry - 1], key)) {
+					return entry - 1;
+				}
+				slot = (slot + 1) & (table.length - 1);
+			}
+		}
+
+		private int slotOf(Object key) {
+			int h = key == null ? 0 : key.hashCode();
+			return (h * 0x9e3779b9) >>> shift;
+		}
+
+		private static boolean equal(Object a, Object b) {
+			return a == b || (a != null && a.equals(b));
+		}
+	}
+
+	/**
+	 * Binary search in the keys, which are in the order of the comparator 
+	 * (the natural ordering, if it is {@code null}).
+	 */
+	private static final class SortedIndex extends Index {
+
+		private final Comparator<Object> comparator;
+
+		@SuppressWarnings("unchecked")
+		SortedIndex(Object[] keys, Comparator<?> comparator) {
+			super(keys);
+			this.comparator = (Comparator<Object>) comparator;
+		}
+
+		@Override
+		int indexOf(Object key) {
+			try {
+				int index = comparator != null ? 
+						Arrays.binarySearch(keys, key, comparator) : Arrays.binarySearch(keys, key);
+				return index >= 0 ? index : -1;
+			} catch (ClassCastException e) {
+				// the key cannot be compared to the keys: it is not contained
+				return -1;
+			} catch (NullPointerException e) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Iterates over an array, in order.
+	 */
+	private static abstract class ArrayIterator<E> implements Iterator<E> {
+
+		private final int length;
+		private int next;
+
+		ArrayIterator(int length) {
+			this.length = length;
+		}
+
+		public boolean hasNext() {
+			return next < length;
+		}
+
+		public E next() {
+			if (next >= length) {
+				throw new NoSuchElementException();
+			}
+			return elementAt(next++);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		abstract E elementAt(int index);
+	}
+
+	private static final class FrozenSet<E> extends AbstractSet<E> {
+
+		private final Index index;
+
+		FrozenSet(Index index) {
+			this.index = index;
+		}
+
+		@Override
+		public int size() {
+			return index.keys.length;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return index.indexOf(o) >= 0;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ArrayIterator<E>(index.keys.length) {
+
+				@Override
+				E elementAt(int i) {
+					return checkedElementAt(index.keys, i);
+				}
+			};
+		}
+
+		@Override
+		public Object[] toArray() {
+			return index.keys.clone();
+		}
+	}
+
+	private static final class FrozenMap<K, V> extends AbstractMap<K, V> {
+
+		private final Index index;
+		private final Object[] values;
+
+		FrozenMap(Index index, Object[] values) {
+			this.index = index;
+			this.values = values;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return index.indexOf(key) >= 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(Object key) {
+			int i = index.indexOf(key);
+			return i >= 0 ? (V) values[i] : null;
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet() {
+			return new AbstractSet<Map.Entry<K, V>>() {
+
+				@Override
+				public int size() {
+					return values.length;
+				}
+
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new ArrayIterator<Map.Entry<K, V>>(values.length) {
+
+						@Override
+						Map.Entry<K, V> elementAt(int i) {
+							K key = checkedElementAt(index.keys, i);
+							V value = checkedElementAt(values, i);
+							return new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+						}
+					};
+				}
+			};
+		}
+	}
+}
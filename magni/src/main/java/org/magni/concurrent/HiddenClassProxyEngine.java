@@ -0,0 +1,59 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * <p>
+ * {@link ProxyEngine} defining the generated proxy classes as hidden
+ * classes (Java 15 and later) in the package of the target class.</p>
+ *
+ * <p>
+ * The proxy classes are the same as the ones of
+ * {@link JavassistProxyEngine}, but defining them does not require
+ * access to the internals of {@code java.lang}. Classes, which are loaded
+ * by the bootstrap {@code ClassLoader}, or which are in packages not open
+ * to this library, cannot be proxied by this engine.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class HiddenClassProxyEngine implements ProxyEngine {
+
+	private final ProxyClassCache proxyClassCache = new ProxyClassCache(true);
+
+	public boolean canProxy(Class<?> targetClass) {
+		return !targetClass.isPrimitive() && !targetClass.isArray() &&
+				!Modifier.isFinal(targetClass.getModifiers()) &&
+				HiddenClasses.canDefineHiddenClassFor(targetClass) &&
+				ProxyClassGenerator.canDefineInTargetPackage(targetClass);
+	}
+
+	public <T> T newProxyInstance(Class<T> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception {
+
+		@SuppressWarnings("unchecked")
+		Class<T> proxyClass = (Class<T>) proxyClassCache.getProxyClass(targetClass, methodFilter);
+
+		return ProxyInstantiator.newInstance(proxyClass);
+	}
+
+	@Override
+	public String toString() {
+		return "hidden class proxy engine";
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * <p>
+ * Defines hidden classes (Java 15 and later) via reflection, so that the
+ * library can still be used on earlier Java versions.</p>
+ *
+ * <p>
+ * Hidden classes are defined with the {@code STRONG} option: just like
+ * ordinary classes, they remain reachable for as long as their defining
+ * {@code ClassLoader} is reachable.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class HiddenClasses {
+
+	/**
+	 * {@code MethodHandles.privateLookupIn(Class, Lookup)} or
+	 * {@code null} if not available.
+	 */
+	private static final Method PRIVATE_LOOKUP_IN;
+
+	/**
+	 * {@code Lookup.defineHiddenClass(byte[], boolean, ClassOption...)} or
+	 * {@code null} if not available.
+	 */
+	private static final Method DEFINE_HIDDEN_CLASS;
+
+	/**
+	 * {@code ClassOption[] { STRONG }} or {@code null} if not available.
+	 */
+	private static final Object CLASS_OPTIONS;
+
+	static {
+		Method privateLookupIn = null;
+		Method defineHiddenClass = null;
+		Object classOptions = null;
+		try {
+			privateLookupIn = MethodHandles.class.getMethod("privateLookupIn",
+					Class.class, MethodHandles.Lookup.class);
+
+			Class<?> classOptionClass = Class.forName(
+					"java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			classOptions = Array.newInstance(classOptionClass, 1);
+			Array.set(classOptions, 0, classOptionClass.getField("STRONG").get(null));
+
+			defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+					byte[].class, boolean.class, classOptions.getClass());
+
+		} catch (Exception e) {
+			privateLookupIn = null;
+			defineHiddenClass = null;
+			classOptions = null;
+		}
+
+		PRIVATE_LOOKUP_IN = privateLookupIn;
+		DEFINE_HIDDEN_CLASS = defineHiddenClass;
+		CLASS_OPTIONS = classOptions;
+	}
+
+	private HiddenClasses() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Returns {@code true} if the JVM supports hidden classes.
+	 *
+	 * @return {@code true} if the JVM supports hidden classes,
+	 * 		{@code false} otherwise
+	 */
+	static boolean isSupported() {
+		return DEFINE_HIDDEN_CLASS != null;
+	}
+
+	/**
+	 * Returns {@code true} if hidden classes can be defined in the runtime
+	 * package of the given host class.
+	 *
+	 * @param hostClass the class, in the package of which the hidden
+	 * 		class would be defined
+	 * @return {@code true} if a hidden class can be defined,
+	 * 		{@code false} otherwise
+	 */
+	static boolean canDefineHiddenClassFor(Class<?> hostClass) {
+		if (!isSupported() || hostClass.getClassLoader() == null) {
+			return false;
+		}
+
+		try {
+			privateLookupIn(hostClass);
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Defines a hidden class in the runtime package of the host class.
+	 *
+	 * @param hostClass the class, in the package of which the hidden
+	 * 		class is defined
+	 * @param classBytes the class file of the hidden class: it must
+	 * 		be in the same package as the host class
+	 * @return the defined hidden class
+	 *
+	 * @throws Exception in case the class cannot be defined
+	 */
+	static Class<?> defineHiddenClass(Class<?> hostClass, byte[] classBytes) throws Exception {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException("Hidden classes are not supported");
+		}
+
+		Object lookup = privateLookupIn(hostClass);
+
+		Object hiddenClassLookup = invoke(DEFINE_HIDDEN_CLASS, lookup,
+				classBytes, Boolean.TRUE, CLASS_OPTIONS);
+
+		return ((MethodHandles.Lookup) hiddenClassLookup).lookupClass();
+	}
+
+	private static Object privateLookupIn(Class<?> hostClass) throws Exception {
+		return invoke(PRIVATE_LOOKUP_IN, null, hostClass, MethodHandles.lookup());
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) throws Exception {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>
+ * Marks an initialization in progress: the thread performing the
+ * initialization owns the latch, while other threads wait for it to be
+ * released.</p>
+ *
+ * <p>
+ * Waiting threads are parked instead of being blocked on a monitor: on
+ * JVMs with virtual threads, neither the initializing thread nor the
+ * waiting ones pin their carrier threads.</p>
+ *
+ * <p>
+ * The latch also implements the protocol shared by the lazies keeping 
+ * their state in a single {@code volatile} field: the latch is installed 
+ * as the state with a compare-and-set, the state established by the 
+ * initialization is published before the latch is released, and waiting 
+ * for its own latch is rejected as a recursive initialization.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class InitializationLatch extends Lazy.Initializer.InternalState {
+
+	private final Thread owner = Thread.currentThread();
+
+	private final CountDownLatch released = new CountDownLatch(1);
+
+	private InitializationLatch() {
+		// created by install
+	}
+
+	/**
+	 * Installs a new latch, owned by the current thread, as the state of 
+	 * the holder, if its state is the expected one.
+	 *
+	 * @param stateUpdater the updater of the state field of the holder
+	 * @param holder the lazy to initialize
+	 * @param expectedState the state observed by the current thread
+	 * @return the installed latch, or {@code null} if the state has changed
+	 */
+	static <H> InitializationLatch install(AtomicReferenceFieldUpdater<H, Object> stateUpdater, 
+			H holder, Object expectedState) {
+		InitializationLatch latch = new InitializationLatch();
+		return stateUpdater.compareAndSet(holder, expectedState, latch) ? latch : null;
+	}
+
+	/**
+	 * Publishes the state established by the initialization as the state 
+	 * of the holder, then releases the waiting threads. Invoked by the 
+	 * owner, once, whether the initialization has succeeded or not.
+	 *
+	 * @param stateUpdater the updater of the state field of the holder
+	 * @param holder the lazy initialized
+	 * @param newState the state to publish
+	 */
+	<H> void complete(AtomicReferenceFieldUpdater<H, Object> stateUpdater, 
+			H holder, Object newState) {
+		stateUpdater.set(holder, newState);
+		release();
+	}
+
+	/**
+	 * Waits for the initialization marked by this latch to complete.
+	 *
+	 * @param timed {@code true} if waiting is limited by the deadline
+	 * @param deadlineNanoTime the {@code System.nanoTime()} to 
+	 * 		stop waiting at, if timed
+	 * @return {@code true} if the latch has been released, 
+	 * 		{@code false} if the deadline has passed
+	 *
+	 * @throws IllegalStateException if the current thread owns the latch: 
+	 * 		the initialization has been attempted recursively
+	 */
+	boolean awaitCompletion(boolean timed, long deadlineNanoTime) {
+		if (isOwnedByCurrentThread()) {
+			throw new IllegalStateException(
+					"Recursive lazy initialization attempted");
+		}
+		if (!timed) {
+			awaitUninterruptibly();
+			return true;
+		}
+		long remainingNanos = deadlineNanoTime - System.nanoTime();
+		return remainingNanos > 0 && awaitUninterruptibly(remainingNanos);
+	}
+
+	/**
+	 * Returns {@code true} if the latch has been created by the current thread.
+	 *
+	 * @return {@code true} if the current thread performs the initialization,
+	 * 		{@code false} otherwise
+	 */
+	boolean isOwnedByCurrentThread() {
+		return owner == Thread.currentThread();
+	}
+
+	/**
+	 * Releases the waiting threads.
+	 */
+	void release() {
+		released.countDown();
+	}
+
+	/**
+	 * Waits until the latch is released. Just like waiting for a monitor,
+	 * waiting is not interruptible: if the thread is interrupted while
+	 * waiting, its interrupt status is restored once the latch is released.
+	 */
+	void awaitUninterruptibly() {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				released.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits until the latch is released, or the timeout elapses. Not
+	 * interruptible, just like {@link #awaitUninterruptibly()}.
+	 *
+	 * @param timeoutNanos the maximum time to wait in nanoseconds
+	 * @return {@code true} if the latch has been released,
+	 * 		{@code false} if the timeout has elapsed
+	 */
+	boolean awaitUninterruptibly(long timeoutNanos) {
+		long deadline = System.nanoTime() + timeoutNanos;
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return released.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Holds the function initializing a lazy value, until the value has 
+ * been published.</p>
+ * 
+ * <p>
+ * A lazy references its holder with a {@code final} field: the function 
+ * is visible to any thread that sees the lazy, even if the lazy itself is 
+ * published without synchronization. Once the value has been published, 
+ * the function is released with a {@code volatile} write, so that anything 
+ * it refers to can be garbage collected.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+final class InitializerReference<F> {
+
+	private volatile F initializer;
+
+	InitializerReference(F initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+		this.initializer = initializer;
+	}
+
+	/**
+	 * Returns the function.
+	 * 
+	 * @return the function
+	 * 
+	 * @throws IllegalStateException if the function has been released
+	 */
+	F get() {
+		F currentInitializer = initializer;
+		if (currentInitializer == null) {
+			throw new IllegalStateException("The initializer has been released");
+		}
+		return currentInitializer;
+	}
+
+	/**
+	 * Releases the function. Invoked once the value has been published: 
+	 * the function is not used anymore.
+	 */
+	void release() {
+		initializer = null;
+	}
+}
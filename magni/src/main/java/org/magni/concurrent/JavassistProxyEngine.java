@@ -0,0 +1,75 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+
+/**
+ * <p>
+ * {@link ProxyEngine} generating proxy classes with Javassist and defining
+ * them via their {@code ClassLoader}.</p>
+ *
+ * <p>
+ * Works on any JVM for any non-final class or interface, but on Java 9 and
+ * later, it requires {@code java.lang} to be opened to Javassist: otherwise
+ * it cannot define classes, and it does not accept any target class.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class JavassistProxyEngine implements ProxyEngine {
+
+	/**
+	 * Whether {@code ClassLoader.defineClass}, which is used by Javassist
+	 * to define the proxy classes, is accessible.
+	 */
+	private static final boolean CAN_DEFINE_CLASSES = canDefineClasses();
+
+	private final ProxyClassCache proxyClassCache = new ProxyClassCache(false);
+
+	public boolean canProxy(Class<?> targetClass) {
+		return CAN_DEFINE_CLASSES && !targetClass.isPrimitive() && !targetClass.isArray() &&
+				!Modifier.isFinal(targetClass.getModifiers());
+	}
+
+	public <T> T newProxyInstance(Class<T> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception {
+
+		@SuppressWarnings("unchecked")
+		Class<T> proxyClass = (Class<T>) proxyClassCache.getProxyClass(targetClass, methodFilter);
+
+		return ProxyInstantiator.newInstance(proxyClass);
+	}
+
+	private static boolean canDefineClasses() {
+		try {
+			Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass",
+					String.class, byte[].class, int.class, int.class, ProtectionDomain.class);
+			defineClass.setAccessible(true);
+			return true;
+		} catch (Exception e) {
+			// InaccessibleObjectException (Java 9 and later) is a RuntimeException
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Javassist proxy engine";
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * <p>
+ * {@link ProxyEngine} creating {@link java.lang.reflect.Proxy} instances:
+ * it can only proxy interfaces, and each invocation is forwarded to the
+ * target reflectively, but it neither requires bytecode generation nor
+ * access to JDK internals.</p>
+ *
+ * <p>
+ * Methods rejected by the {@link ProxyMethodFilter} are not forwarded:
+ * {@code equals}, {@code hashCode} and {@code toString} are then
+ * implemented based on the identity of the proxy, while invoking any
+ * other such method throws {@link UnsupportedOperationException}.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class JdkProxyEngine implements ProxyEngine {
+
+	public boolean canProxy(Class<?> targetClass) {
+		return targetClass.isInterface() && getProxyClassLoader(targetClass) != null;
+	}
+
+	public <T> T newProxyInstance(Class<T> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception {
+
+		ClassLoader classLoader = getProxyClassLoader(targetClass);
+		if (!targetClass.isInterface() || classLoader == null) {
+			throw new IllegalArgumentException("Cannot proxy " + targetClass);
+		}
+
+		Object proxy = Proxy.newProxyInstance(classLoader,
+				new Class<?>[] { targetClass, DelegatingProxy.class },
+				new ForwardingInvocationHandler(methodFilter));
+
+		return targetClass.cast(proxy);
+	}
+
+	/**
+	 * Returns a {@code ClassLoader}, which can see both the target interface
+	 * and {@link DelegatingProxy}, or {@code null} if there is none.
+	 */
+	private static ClassLoader getProxyClassLoader(Class<?> targetClass) {
+		ClassLoader targetClassLoader = targetClass.getClassLoader();
+		if (isVisible(DelegatingProxy.class, targetClassLoader)) {
+			return targetClassLoader;
+		}
+
+		ClassLoader ownClassLoader = JdkProxyEngine.class.getClassLoader();
+		if (isVisible(targetClass, ownClassLoader)) {
+			return ownClassLoader;
+		}
+
+		return null;
+	}
+
+	private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+		try {
+			return Class.forName(type.getName(), false, classLoader) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "JDK dynamic proxy engine";
+	}
+
+	/**
+	 * Implements {@link DelegatingProxy} for the proxy instance and
+	 * forwards any other invocation to the target.
+	 */
+	private static final class ForwardingInvocationHandler implements InvocationHandler {
+
+		private final ProxyMethodFilter methodFilter;
+
+		private ProxyTargetSource targetSource;
+
+		ForwardingInvocationHandler(ProxyMethodFilter methodFilter) {
+			this.methodFilter = methodFilter;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			if (method.getDeclaringClass() == DelegatingProxy.class) {
+				if (args == null) {
+					return targetSource;
+				}
+				targetSource = (ProxyTargetSource) args[0];
+				return null;
+			}
+
+			if (methodFilter != null && !methodFilter.isHandled(method)) {
+				return invokeOnProxy(proxy, method, args);
+			}
+
+			try {
+				return method.invoke(targetSource.getTarget(), args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		private static Object invokeOnProxy(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			int parameterCount = method.getParameterTypes().length;
+
+			if (name.equals("equals") && parameterCount == 1) {
+				return proxy == args[0];
+			} else if (name.equals("hashCode") && parameterCount == 0) {
+				return System.identityHashCode(proxy);
+			} else if (name.equals("toString") && parameterCount == 0) {
+				return proxy.getClass().getName() + "@" +
+						Integer.toHexString(System.identityHashCode(proxy));
+			}
+
+			throw new UnsupportedOperationException(method + " is not proxied");
+		}
+	}
+}
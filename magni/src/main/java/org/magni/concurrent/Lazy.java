@@ -15,13 +15,36 @@
  */
 package org.magni.concurrent;
 
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 
 /**
  * @author Peter G. Horvath
@@ -30,84 +53,1088 @@ import java.util.concurrent.Callable;
 public class Lazy {
 	
 	/**
+	 * <p>
 	 * A variable container that defers initialization until the first time
-	 * {@link #get()} is invoked.
+	 * {@link #get()} is invoked.</p>
+	 * 
+	 * <p>
+	 * No monitor is held during the initialization: the initializing thread 
+	 * is selected with a compare-and-set, while concurrent callers are parked 
+	 * until it completes. Hence a slow initialization does not pin the carrier 
+	 * threads of virtual threads.</p>
+	 * 
+	 */
+	public static abstract class Initializer<T> implements LazyValue<T> {
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Initializer, Object> STATE_UPDATER = 
+				AtomicReferenceFieldUpdater.newUpdater(Initializer.class, Object.class, "state");
+
+		/**
+		 * Sentinel state of an initialized {@code null} value.
+		 */
+		private static final InternalState NULL_VALUE = new InternalState() { };
+
+		/**
+		 * Returned by {@link #initializeOrAwait(boolean, long)} if the 
+		 * deadline has passed.
+		 */
+		private static final Object TIMED_OUT = new Object();
+
+		/**
+		 * Returned by {@link #currentValue()} if the value is not initialized.
+		 */
+		private static final Object NO_VALUE = new Object();
+
+		/**
+		 * {@code null} if the value is not initialized, the 
+		 * {@link InitializationLatch} while the initialization is in progress, 
+		 * a {@link CachedFailure} while the failure of the last initialization 
+		 * attempt is cached, the value (or {@link #NULL_VALUE}, or a 
+		 * {@link ValueState} wrapping it) once it is initialized. A single field 
+		 * is used, so that no initialization related state is retained once the 
+		 * value is published.
+		 */
+		private volatile Object state;
+
+		/**
+		 * <p>
+		 * Returns the value contained in this LazyInitializer.
+		 * </p>
+		 * <p>
+		 * Initialization is performed on the first invocation of the method, the
+		 * value established in {@link #initializeValue()} and is stored 
+		 * internally; all subsequent invocations return the same value without
+		 * {@link #initializeValue()} being called again. This applies to 
+		 * {@code null} values too.
+		 * </p>
+		 * <p>
+		 * Threads invoking this method while another thread is initializing the 
+		 * value wait for the initialization to complete. If it fails, one of them 
+		 * attempts to initialize the value again, unless the failure is cached 
+		 * (see {@link #getFailureCachingPeriodNanos(Throwable, int)}): in that case, 
+		 * the failure is rethrown until the caching period elapses.
+		 * </p>
+		 * 
+		 * @see {@link #initializeValue()}
+		 * 
+		 * @return the value contained in this LazyInitializer.
+		 * 
+		 * @throws IllegalStateException if invoked from {@link #initializeValue()}
+		 */
+		@SuppressWarnings("unchecked")
+		public final T get() {
+			
+			Object currentState = state;
+			if (currentState == null || currentState instanceof InternalState) {
+				return (T) initializeOrAwait(false, 0);
+			}
+			return (T) currentState;
+		}
+
+		/**
+		 * <p>
+		 * Returns the value contained in this LazyInitializer, waiting at most 
+		 * the specified time for an initialization performed by another thread.
+		 * </p>
+		 * <p>
+		 * If the timeout elapses, the initialization in progress is not 
+		 * interrupted: it keeps running, and the value it establishes is 
+		 * returned by subsequent invocations. If no initialization is in 
+		 * progress, the calling thread performs it, just like {@link #get()}: 
+		 * the timeout only bounds the time spent waiting for other threads.
+		 * </p>
+		 * 
+		 * @param timeout the maximum time to wait
+		 * @param unit the {@code TimeUnit} of the timeout
+		 * @return the value contained in this LazyInitializer.
+		 * 
+		 * @throws TimeoutException if the initialization performed by 
+		 * 		another thread has not completed in time
+		 * @throws NullPointerException if unit is {@code null}
+		 * @throws IllegalStateException if invoked from {@link #initializeValue()}
+		 */
+		@SuppressWarnings("unchecked")
+		public final T get(long timeout, TimeUnit unit) throws TimeoutException {
+
+			Object currentState = state;
+			if (currentState == null || currentState instanceof InternalState) {
+				// a non-positive timeout does not wait: it must not be added to the 
+				// current time either, as a large negative one would overflow
+				long timeoutNanos = Math.max(0, unit.toNanos(timeout));
+
+				Object value = initializeOrAwait(true, System.nanoTime() + timeoutNanos);
+				if (value == TIMED_OUT) {
+					throw new TimeoutException(
+							"Lazy initialization has not completed in " + timeout + " " + unit);
+				}
+				return (T) value;
+			}
+			return (T) currentState;
+		}
+
+		/**
+		 * Returns the value contained in this LazyInitializer, or the fallback 
+		 * value, if an initialization performed by another thread has not 
+		 * completed within the specified time. (See {@link #get(long, TimeUnit)}.)
+		 * 
+		 * @param fallback the value to return if the timeout elapses
+		 * @param maxWait the maximum time to wait
+		 * @return the value contained in this LazyInitializer, or fallback
+		 * 
+		 * @throws NullPointerException if maxWait is {@code null}
+		 * @throws IllegalStateException if invoked from {@link #initializeValue()}
+		 */
+		public final T getOrDefault(T fallback, Duration maxWait) {
+			try {
+				return get(toNanosSaturated(maxWait), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return fallback;
+			}
+		}
+
+		static long toNanosSaturated(Duration duration) {
+			try {
+				return duration.toNanos();
+			} catch (ArithmeticException e) {
+				return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+			}
+		}
+
+		/**
+		 * Returns {@code true} if the value has been initialized, and has 
+		 * not become stale since. Does not initialize the value.
+		 * 
+		 * @return {@code true} if the value is initialized, {@code false} otherwise
+		 */
+		public final boolean isInitialized() {
+			return currentValue() != NO_VALUE;
+		}
+
+		/**
+		 * Returns the value if it has been initialized, {@code null} otherwise. 
+		 * Does not initialize the value.
+		 * 
+		 * @return the value, or {@code null} if it is not initialized
+		 */
+		@SuppressWarnings("unchecked")
+		public final T getIfInitialized() {
+			Object value = currentValue();
+			return value != NO_VALUE ? (T) value : null;
+		}
+
+		/**
+		 * Returns the size of the value, if it is an initialized 
+		 * {@code Collection} or {@code Map}. Does not initialize the value.
+		 * 
+		 * @return the size of the value, {@code -1} if unknown
+		 */
+		public int getSizeHint() {
+			return sizeOf(currentValue());
+		}
+
+		/**
+		 * Returns {@code true} if the value has been initialized, but it 
+		 * has become stale since. Does not initialize the value.
+		 */
+		final boolean isStale() {
+			Object currentState = state;
+
+			return currentState instanceof ValueState && 
+					((ValueState) currentState).getValue() == STALE_VALUE;
+		}
+
+		/**
+		 * Returns the current value, or {@link #NO_VALUE}.
+		 */
+		private Object currentValue() {
+			Object currentState = state;
+
+			if (currentState == NULL_VALUE) {
+				return null;
+			}
+			if (currentState instanceof ValueState) {
+				Object value = ((ValueState) currentState).getValue();
+				return value != STALE_VALUE ? value : NO_VALUE;
+			}
+			if (currentState == null || currentState instanceof InternalState) {
+				return NO_VALUE;
+			}
+			return currentState;
+		}
+
+		/**
+		 * Initializes the value, or waits for another thread initializing it.
+		 * 
+		 * @param timed {@code true} if waiting is limited by the deadline
+		 * @param deadlineNanoTime the {@code System.nanoTime()} to 
+		 * 		stop waiting at, if timed
+		 * @return the value, or {@link #TIMED_OUT}
+		 */
+		private Object initializeOrAwait(boolean timed, long deadlineNanoTime) {
+			while (true) {
+				Object currentState = state;
+
+				if (currentState == null || (currentState instanceof CachedFailure && 
+						((CachedFailure) currentState).isExpired())) {
+
+					int failedAttempts = currentState == null ? 0 : 
+						((CachedFailure) currentState).failedAttempts;
+
+					InitializationLatch newLatch = 
+							InitializationLatch.install(STATE_UPDATER, this, currentState);
+					if (newLatch != null) {
+						return initialize(newLatch, failedAttempts);
+					}
+				} else if (currentState instanceof ValueState) {
+					Object value = ((ValueState) currentState).accessValue();
+					if (value != STALE_VALUE) {
+						return value;
+					}
+
+					InitializationLatch newLatch = 
+							InitializationLatch.install(STATE_UPDATER, this, currentState);
+					if (newLatch != null) {
+						return initialize(newLatch, 0);
+					}
+				} else if (currentState instanceof CachedFailure) {
+					throw ((CachedFailure) currentState).rethrow();
+				} else if (currentState instanceof InitializationLatch) {
+					if (!((InitializationLatch) currentState).awaitCompletion(timed, deadlineNanoTime)) {
+						return TIMED_OUT;
+					}
+				} else if (currentState == NULL_VALUE) {
+					return null;
+				} else {
+					return currentState;
+				}
+			}
+		}
+
+		private T initialize(InitializationLatch latch, int previouslyFailedAttempts) {
+			T newValue = null;
+			boolean initialized = false;
+			try {
+				newValue = initializeValue();
+				initialized = true;
+			} catch (RuntimeException e) {
+				initializationFailed(latch, e, previouslyFailedAttempts + 1);
+				throw e;
+			} catch (Error e) {
+				initializationFailed(latch, e, previouslyFailedAttempts + 1);
+				throw e;
+			} finally {
+				if (!initialized && state == latch) {
+					// undeclared checked exception: never leave the latch behind
+					latch.complete(STATE_UPDATER, this, null);
+				}
+			}
+
+			latch.complete(STATE_UPDATER, this, newValueState(newValue));
+
+			initializationCompleted();
+			return newValue;
+		}
+
+		private void initializationFailed(InitializationLatch latch, Throwable failure, 
+				int failedAttempts) {
+			Object newState = null;
+			try {
+				long failureCachingPeriodNanos = getFailureCachingPeriodNanos(failure, failedAttempts);
+				if (failureCachingPeriodNanos > 0) {
+					newState = new CachedFailure(failure, failedAttempts, failureCachingPeriodNanos);
+				}
+			} finally {
+				// if the failure is not cached, the state is reset:
+				// the initialization is attempted again on the next access
+				latch.complete(STATE_UPDATER, this, newState);
+			}
+		}
+
+		/**
+		 * <p>
+		 * Returns the period, for which the failure of an initialization 
+		 * attempt is cached: until it elapses, {@link #get()} rethrows 
+		 * the failure instead of attempting the initialization again.
+		 * </p>
+		 * <p>
+		 * The number of consecutive failed attempts is only tracked while the 
+		 * failures are cached: it is reset once the initialization succeeds, 
+		 * or a failure is not cached.
+		 * </p>
+		 * <p>
+		 * The default implementation returns zero: failures are not cached.
+		 * Implementations must not throw any exception.
+		 * </p>
+		 * 
+		 * @param failure the {@code Throwable} thrown by {@link #initializeValue()}
+		 * @param failedAttempts the number of consecutive failed attempts, 
+		 * 		including this one
+		 * @return the period to cache the failure for in nanoseconds, zero if 
+		 * 		the failure should not be cached, {@code Long.MAX_VALUE} if it 
+		 * 		should be cached forever
+		 */
+		protected long getFailureCachingPeriodNanos(Throwable failure, int failedAttempts) {
+			return 0;
+		}
+
+		/**
+		 * Returns the state to publish for a newly initialized value: the value 
+		 * itself by default. Subclasses can wrap the value into a 
+		 * {@link ValueState}, which can become stale.
+		 * 
+		 * @param value the newly initialized value, might be {@code null}
+		 * @return the state to publish
+		 */
+		Object newValueState(T value) {
+			return value != null ? value : NULL_VALUE;
+		}
+
+		/**
+		 * Atomically replaces the state, if it is the expected one.
+		 * 
+		 * @param expectedState the expected current state
+		 * @param newState the new state
+		 * @return {@code true} if the state has been replaced, 
+		 * 		{@code false} otherwise
+		 */
+		final boolean compareAndSetState(Object expectedState, Object newState) {
+			return STATE_UPDATER.compareAndSet(this, expectedState, newState);
+		}
+
+		/**
+		 * <p>
+		 * Invoked once the value has been initialized and published, by the 
+		 * thread that performed the initialization.
+		 * </p>
+		 * <p>
+		 * Subclasses can override this method to release the resources, which 
+		 * are only required for the initialization: {@link #initializeValue()} 
+		 * is not invoked anymore. The default implementation does nothing.
+		 * </p>
+		 */
+		protected void initializationCompleted() {
+			// no resources to release by default
+		}
+
+		/**
+		 * <p>
+		 * Returns the initialized value for this LazyInitializer.
+		 * </p>
+		 * <p>
+		 * This method will be invoked the first time a the variable is accessed
+		 * with the {@link #get} method. <b>Normally, this method is invoked at most
+		 * once</b>, but in case it throws an exception, it will be called again on
+		 * subsequent invocations of {@link #get}. (In other words, all
+		 * {@code Throwable} thrown from this method will be considered as
+		 * recoverable, thus lazy-initialization will be attempted again the next
+		 * time {@link #get()} is called)
+		 * </p>
+		 * 
+		 * @return the initialized value for this LazyInitializer.
+		 */
+		protected abstract T initializeValue();
+
+		/**
+		 * Base class of the internal states, which are not values.
+		 */
+		static abstract class InternalState {
+			// marker class
+		}
+
+		/**
+		 * Returned by {@link ValueState#getValue()} if the value has 
+		 * to be initialized again.
+		 */
+		static final Object STALE_VALUE = new Object();
+
+		/**
+		 * A published value, which can become stale: for example expire, 
+		 * or be garbage collected.
+		 */
+		static abstract class ValueState extends InternalState {
+
+			/**
+			 * Returns the value, or {@link #STALE_VALUE} if it 
+			 * has to be initialized again.
+			 * 
+			 * @return the value (might be {@code null}) or {@link #STALE_VALUE}
+			 */
+			abstract Object getValue();
+
+			/**
+			 * Returns the value to a caller of {@code get()}, just like 
+			 * {@link #getValue()}: only this method may act upon the access 
+			 * (the introspection methods call {@link #getValue()}).
+			 * 
+			 * @return the value (might be {@code null}) or {@link #STALE_VALUE}
+			 */
+			Object accessValue() {
+				return getValue();
+			}
+		}
+
+		/**
+		 * The failure of the last initialization attempt, which is 
+		 * rethrown until it expires.
+		 */
+		private static final class CachedFailure extends InternalState {
+
+			private final Throwable failure;
+			private final int failedAttempts;
+			private final boolean permanent;
+			private final long expirationNanoTime;
+
+			CachedFailure(Throwable failure, int failedAttempts, long cachingPeriodNanos) {
+				this.failure = failure;
+				this.failedAttempts = failedAttempts;
+				this.permanent = cachingPeriodNanos == Long.MAX_VALUE;
+				this.expirationNanoTime = System.nanoTime() + cachingPeriodNanos;
+			}
+
+			boolean isExpired() {
+				return !permanent && System.nanoTime() - expirationNanoTime >= 0;
+			}
+
+			RuntimeException rethrow() {
+				if (failure instanceof Error) {
+					throw (Error) failure;
+				}
+				if (failure instanceof RuntimeException) {
+					throw (RuntimeException) failure;
+				}
+				throw new LazyInitializerException(
+						"Lazy initializer threw exception", failure);
+			}
+		}
+
+	}
+
+	/**
+	 * The kind of reference a {@link ReclaimableInitializer} keeps its value with.
+	 */
+	public enum ValueReference {
+
+		/**
+		 * The value is cleared at the discretion of the garbage collector, 
+		 * in response to memory demand.
+		 */
+		SOFT,
+
+		/**
+		 * The value is cleared as soon as it is not strongly reachable anymore.
+		 */
+		WEAK
+	}
+
+	/**
+	 * <p>
+	 * A {@link Initializer}, which keeps its value through a soft or weak 
+	 * reference: once the garbage collector has cleared the value, it is 
+	 * initialized again on the next access, through the same single-flight 
+	 * path as the first initialization.</p>
+	 * 
+	 * <p>
+	 * Suitable for large values, which can be rebuilt. The number of 
+	 * initializations is counted, so that the heap size can be balanced 
+	 * against the cost of rebuilding the value. ({@code null} values are 
+	 * kept strongly.)</p>
+	 * 
+	 */
+	public static abstract class ReclaimableInitializer<T> extends Initializer<T> {
+
+		private final ValueReference valueReference;
+
+		/**
+		 * Written by the initializing thread only.
+		 */
+		private volatile long initializationCount;
+
+		/**
+		 * Creates a new ReclaimableInitializer.
+		 * 
+		 * @param valueReference the kind of reference to keep the value with
+		 * 
+		 * @throws NullPointerException if valueReference is {@code null}
+		 */
+		protected ReclaimableInitializer(ValueReference valueReference) {
+			if (valueReference == null) {
+				throw new NullPointerException("valueReference must not be null");
+			}
+			this.valueReference = valueReference;
+		}
+
+		/**
+		 * Returns the number of times the value has been initialized successfully.
+		 * 
+		 * @return the number of initializations
+		 */
+		public final long getInitializationCount() {
+			return initializationCount;
+		}
+
+		/**
+		 * Returns the number of times the value had to be initialized again, 
+		 * because the garbage collector has cleared it.
+		 * 
+		 * @return the number of initializations after the first one
+		 */
+		public final long getRecomputationCount() {
+			return Math.max(0, initializationCount - 1);
+		}
+
+		@Override
+		final Object newValueState(T value) {
+			initializationCount++; // single writer: the initializing thread
+
+			if (value == null) {
+				return super.newValueState(value);
+			}
+
+			Reference<Object> reference = valueReference == ValueReference.SOFT ? 
+					new SoftReference<Object>(value) : new WeakReference<Object>(value);
+
+			return new ReferencedValue(reference);
+		}
+
+		private static final class ReferencedValue extends ValueState {
+
+			private final Reference<Object> reference;
+
+			ReferencedValue(Reference<Object> reference) {
+				this.reference = reference;
+			}
+
+			@Override
+			Object getValue() {
+				Object value = reference.get();
+				return value != null ? value : STALE_VALUE;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * A variable container that initializes its value asynchronously, the 
+	 * first time {@link #get()} is invoked.</p>
+	 * 
+	 * <p>
+	 * Each caller receives its own {@code CompletableFuture}, which depends 
+	 * on a single, private one completed once the initialization finishes: 
+	 * completing, obtruding or cancelling the future returned to one caller 
+	 * does not affect the others. If the initialization fails, the failed 
+	 * future is discarded and the initialization is started again on the 
+	 * next access.</p>
+	 * 
+	 */
+	public static abstract class AsyncInitializer<T> implements LazyValue<T> {
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<AsyncInitializer, CompletableFuture> FUTURE_UPDATER = 
+				AtomicReferenceFieldUpdater.newUpdater(AsyncInitializer.class, CompletableFuture.class, "future");
+
+		private volatile CompletableFuture<T> future;
+
+		/**
+		 * <p>
+		 * Returns the future of the value contained in this AsyncInitializer, 
+		 * starting the initialization if it has not been started yet, or if 
+		 * the previous attempt has failed.</p>
+		 * 
+		 * <p>
+		 * This method never blocks. Each invocation returns a new future, 
+		 * which is completed when the initialization completes: it can be 
+		 * completed or cancelled by the caller without affecting the 
+		 * initialization, or the futures of other callers.</p>
+		 * 
+		 * @return the future of the value contained in this AsyncInitializer
+		 */
+		public final CompletableFuture<T> get() {
+			return initializationFuture().thenApply(Function.<T>identity());
+		}
+
+		/**
+		 * Returns the future completed by the initialization, starting it, 
+		 * if it has not been started yet, or if the previous attempt has failed.
+		 */
+		private CompletableFuture<T> initializationFuture() {
+			while (true) {
+				CompletableFuture<T> currentFuture = future;
+				if (currentFuture != null && !currentFuture.isCompletedExceptionally()) {
+					return currentFuture;
+				}
+
+				CompletableFuture<T> newFuture = new CompletableFuture<T>();
+				if (FUTURE_UPDATER.compareAndSet(this, currentFuture, newFuture)) {
+					try {
+						startInitialization(newFuture);
+					} catch (RuntimeException e) {
+						newFuture.completeExceptionally(e);
+					}
+					return newFuture;
+				}
+			}
+		}
+
+		/**
+		 * Returns the value contained in this AsyncInitializer if it has 
+		 * already been initialized, otherwise returns the specified value and 
+		 * starts the initialization, unless it is already in progress. This 
+		 * method never blocks.
+		 * 
+		 * @param valueIfAbsent the value to return if the value has not 
+		 * 		been initialized yet
+		 * @return the value contained in this AsyncInitializer or 
+		 * 		{@code valueIfAbsent}
+		 */
+		public final T getNow(T valueIfAbsent) {
+			CompletableFuture<T> currentFuture = initializationFuture();
+
+			if (currentFuture.isDone() && !currentFuture.isCompletedExceptionally()) {
+				return currentFuture.getNow(valueIfAbsent);
+			}
+			return valueIfAbsent;
+		}
+
+		/**
+		 * Returns {@code true} if the value has been initialized successfully. 
+		 * This method does not start the initialization.
+		 * 
+		 * @return {@code true} if the value has been initialized, 
+		 * 		{@code false} otherwise
+		 */
+		public final boolean isDone() {
+			CompletableFuture<T> currentFuture = future;
+
+			return currentFuture != null && currentFuture.isDone() && 
+					!currentFuture.isCompletedExceptionally();
+		}
+
+		/**
+		 * Same as {@link #isDone()}.
+		 * 
+		 * @return {@code true} if the value has been initialized, 
+		 * 		{@code false} otherwise
+		 */
+		public final boolean isInitialized() {
+			return isDone();
+		}
+
+		/**
+		 * Returns the value if it has been initialized successfully, 
+		 * {@code null} otherwise. This method does not start the initialization.
+		 * 
+		 * @return the value, or {@code null} if it is not initialized
+		 */
+		public final T getIfInitialized() {
+			CompletableFuture<T> currentFuture = future;
+
+			return currentFuture != null && currentFuture.isDone() && 
+					!currentFuture.isCompletedExceptionally() ? currentFuture.join() : null;
+		}
+
+		/**
+		 * Returns the size of the value, if it is an initialized 
+		 * {@code Collection} or {@code Map}. This method does not start 
+		 * the initialization.
+		 * 
+		 * @return the size of the value, {@code -1} if unknown
+		 */
+		public int getSizeHint() {
+			return sizeOf(getIfInitialized());
+		}
+
+		/**
+		 * <p>
+		 * Starts the asynchronous initialization of the value, which has 
+		 * to complete the supplied future.</p>
+		 * 
+		 * <p>
+		 * This method is invoked at most once at a time: it is only invoked 
+		 * again after the future supplied previously has been completed 
+		 * exceptionally. It should not block the caller.</p>
+		 * 
+		 * @param result the future to complete with the initialized value 
+		 * 		(or the failure) 
+		 */
+		protected abstract void startInitialization(CompletableFuture<T> result);
+	}
+	
+	/**
+	 * Private constructor to prevent instantiation: static utility class 
+	 */
+	private Lazy() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static <T> Lazy.Initializer<T> initializer(Callable<T> initializer) {
+		return new CallableLazyInitializer<T>(initializer);
+	}
+
+	/**
+	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
+	 * to initialize its value, and caches the failure of an initialization 
+	 * attempt for the specified period: until it elapses, callers receive the 
+	 * failure without the {@code Callable} being invoked again.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param failureCachingPeriod the period to cache failures for, 
+	 * 		zero to disable failure caching
+	 * @param unit the {@code TimeUnit} of the failure caching period
+	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer or unit is {@code null}
+	 * @throws IllegalArgumentException if the failure caching period is negative
+	 */
+	public static <T> Lazy.Initializer<T> initializer(Callable<T> initializer, 
+			long failureCachingPeriod, TimeUnit unit) {
+		return initializer(initializer, RetryPolicy.fixedDelay(failureCachingPeriod, unit));
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
+	 * to initialize its value, and retries failed initialization attempts 
+	 * according to the specified {@link RetryPolicy}.</p>
+	 * 
+	 * <p>
+	 * After a failed attempt, the failure is cached for the delay determined 
+	 * by the policy: until it elapses, callers receive the failure immediately, 
+	 * without the {@code Callable} being invoked. Afterwards, a single caller 
+	 * attempts the initialization again, while concurrent callers wait for 
+	 * its outcome. Once the maximum number of attempts is reached, the last 
+	 * failure is cached forever.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param retryPolicy the policy to retry failed attempts with
+	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer or retryPolicy is {@code null}
+	 */
+	public static <T> Lazy.Initializer<T> initializer(Callable<T> initializer, 
+			RetryPolicy retryPolicy) {
+		return new FailureCachingLazyInitializer<T>(initializer, retryPolicy);
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
+	 * to initialize its value, and initializes it again, once the specified 
+	 * time to live has elapsed since the value has been initialized.</p>
+	 * 
+	 * <p>
+	 * Callers accessing the expired value wait for the new value, just like 
+	 * for the first initialization.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param timeToLive the duration, for which the value is valid
+	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer or timeToLive is {@code null}
+	 * @throws IllegalArgumentException if timeToLive is not positive
+	 */
+	public static <T> Lazy.Initializer<T> expiring(Callable<T> initializer, 
+			Duration timeToLive) {
+		return new ExpiringLazyInitializer<T>(initializer, toPositiveNanos(timeToLive));
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
+	 * to initialize its value, and refreshes the value in the background on 
+	 * the {@code Executor}, once the refresh interval has elapsed since 
+	 * the value has been initialized.</p>
+	 * 
+	 * <p>
+	 * Only the first initialization blocks the callers: afterwards, callers 
+	 * receive the current value without blocking, while a single refresh is 
+	 * in progress. If the refresh fails, the current value is kept, and 
+	 * the refresh is attempted again once the refresh interval elapses.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param refreshInterval the duration after which the value is refreshed
+	 * @param executor the {@code Executor} to refresh the value on
+	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException if refreshInterval is not positive
+	 */
+	public static <T> Lazy.Initializer<T> refreshing(Callable<T> initializer, 
+			Duration refreshInterval, Executor executor) {
+		return new RefreshingLazyInitializer<T>(initializer, 
+				toPositiveNanos(refreshInterval), executor);
+	}
+
+	/**
+	 * Creates a {@link ReclaimableInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value, and keeps the value through 
+	 * a soft reference.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @return a {@link ReclaimableInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static <T> Lazy.ReclaimableInitializer<T> softInitializer(Callable<T> initializer) {
+		return reclaimableInitializer(initializer, ValueReference.SOFT);
+	}
+
+	/**
+	 * Creates a {@link ReclaimableInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value, and keeps the value through 
+	 * the specified kind of reference.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param valueReference the kind of reference to keep the value with
+	 * @return a {@link ReclaimableInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer or valueReference is {@code null}
+	 */
+	public static <T> Lazy.ReclaimableInitializer<T> reclaimableInitializer(
+			Callable<T> initializer, ValueReference valueReference) {
+		return new CallableReclaimableInitializer<T>(initializer, valueReference);
+	}
+
+	/**
+	 * Creates an unbounded {@link LazyCache}, which loads the value of each 
+	 * key with the supplied {@code Function}, the first time the key is 
+	 * requested.
+	 * 
+	 * @param loader the {@code Function} to load the value of a key with
+	 * @return a {@link LazyCache} that uses the supplied {@code Function} 
+	 * to load the values
+	 * 
+	 * @throws NullPointerException if loader is {@code null}
+	 */
+	public static <K, V> LazyCache<K, V> keyed(Function<? super K, ? extends V> loader) {
+		return keyed(loader, CachePolicy.unbounded());
+	}
+
+	/**
+	 * Creates a {@link LazyCache}, which loads the value of each key with 
+	 * the supplied {@code Function}, the first time the key is requested, 
+	 * and limits, expires and retries the entries according to the 
+	 * {@link CachePolicy}.
+	 * 
+	 * @param loader the {@code Function} to load the value of a key with
+	 * @param cachePolicy the policy of the cache
+	 * @return a {@link LazyCache} that uses the supplied {@code Function} 
+	 * to load the values
+	 * 
+	 * @throws NullPointerException if loader or cachePolicy is {@code null}
+	 */
+	public static <K, V> LazyCache<K, V> keyed(Function<? super K, ? extends V> loader, 
+			CachePolicy cachePolicy) {
+		return new LazyCache<K, V>(loader, cachePolicy);
+	}
+
+	/**
+	 * Creates a {@link LazyInt} that uses the supplied {@code IntSupplier}
+	 * to initialize its {@code int} value, without boxing it.
+	 * 
+	 * @param initializer the {@code IntSupplier} to initialize the value from  
+	 * @return a {@link LazyInt} that uses the supplied {@code IntSupplier}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static LazyInt lazyInt(IntSupplier initializer) {
+		return new LazyInt(initializer);
+	}
+
+	/**
+	 * Creates a {@link LazyLong} that uses the supplied {@code LongSupplier}
+	 * to initialize its {@code long} value, without boxing it.
+	 * 
+	 * @param initializer the {@code LongSupplier} to initialize the value from  
+	 * @return a {@link LazyLong} that uses the supplied {@code LongSupplier}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static LazyLong lazyLong(LongSupplier initializer) {
+		return new LazyLong(initializer);
+	}
+
+	/**
+	 * Creates a {@link LazyDouble} that uses the supplied {@code DoubleSupplier}
+	 * to initialize its {@code double} value, without boxing it.
+	 * 
+	 * @param initializer the {@code DoubleSupplier} to initialize the value from  
+	 * @return a {@link LazyDouble} that uses the supplied {@code DoubleSupplier}
+	 * to initialize its value.
 	 * 
+	 * @throws NullPointerException if initializer is {@code null}
 	 */
-	public static abstract class Initializer<T> {
+	public static LazyDouble lazyDouble(DoubleSupplier initializer) {
+		return new LazyDouble(initializer);
+	}
 
-		private final Object lockObject = new Object();
+	/**
+	 * Creates a {@link LazyBoolean} that uses the supplied {@code BooleanSupplier}
+	 * to initialize its {@code boolean} value, without boxing it.
+	 * 
+	 * @param initializer the {@code BooleanSupplier} to initialize the value from  
+	 * @return a {@link LazyBoolean} that uses the supplied {@code BooleanSupplier}
+	 * to initialize its value.
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static LazyBoolean lazyBoolean(BooleanSupplier initializer) {
+		return new LazyBoolean(initializer);
+	}
 
-		private volatile T value;
+	/**
+	 * Creates a holder of lazily created, per-thread instances of an object 
+	 * that is not thread-safe: each thread creates its own instance with 
+	 * the {@code Callable} on its first access.
+	 * 
+	 * @param initializer the {@code Callable} creating the instances
+	 * @return a holder of per-thread instances
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * 
+	 * @see #pooled(Callable, int)
+	 */
+	public static <T> LazyPerThread<T> perThread(Callable<T> initializer) {
+		return new LazyPerThread<T>(initializer);
+	}
 
-		/**
-		 * <p>
-		 * Returns the value contained in this LazyInitializer.
-		 * </p>
-		 * <p>
-		 * Initialization is performed on the first invocation of the method, the
-		 * value established in {@link #initializeValue()} and is stored 
-		 * internally; all subsequent invocations return the same value without
-		 * {@link #initializeValue()} being called again.
-		 * </p>
-		 * 
-		 * @see {@link #initializeValue()}
-		 * 
-		 * @return the value contained in this LazyInitializer.
-		 */
-		public final T get() {
-			
-	        T valueToReturn = value;
-	        if (valueToReturn == null) {
-	            synchronized(lockObject) {
-	                valueToReturn = value;
-	                if (valueToReturn == null) {
-	                	value = valueToReturn = initializeValue();
-	                }
-	            }
-	        }
-	        return valueToReturn;
+	/**
+	 * Creates a striped pool of lazily created instances of an object that 
+	 * is not thread-safe: at most one instance is created per stripe, on the 
+	 * first borrow from the stripe, and instances are borrowed and returned 
+	 * without locking.
+	 * 
+	 * @param initializer the {@code Callable} creating the instances
+	 * @param stripes the number of stripes, which bounds the number of 
+	 * 		instances; the number of available processors is a sensible choice
+	 * @return a striped pool of instances
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws IllegalArgumentException if stripes is not positive
+	 */
+	public static <T> LazyPool<T> pooled(Callable<T> initializer, int stripes) {
+		return new LazyPool<T>(initializer, stripes);
+	}
+
+	private static long toPositiveNanos(Duration duration) {
+		if (duration.isNegative() || duration.isZero()) {
+			throw new IllegalArgumentException("duration must be positive: " + duration);
 		}
+		return duration.toNanos();
+	}
 
-		/**
-		 * <p>
-		 * Returns the initialized value for this LazyInitializer.
-		 * </p>
-		 * <p>
-		 * This method will be invoked the first time a the variable is accessed
-		 * with the {@link #get} method. <b>Normally, this method is invoked at most
-		 * once</b>, but in case it throws an exception, it will be called again on
-		 * subsequent invocations of {@link #get}. (In other words, all
-		 * {@code Throwable} thrown from this method will be considered as
-		 * recoverable, thus lazy-initialization will be attempted again the next
-		 * time {@link #get()} is called)
-		 * </p>
-		 * 
-		 * @return the initialized value for this LazyInitializer.
-		 */
-		protected abstract T initializeValue();
+	/**
+	 * Creates a {@link Lazy.AsyncInitializer} that initializes its value by 
+	 * running the supplied {@code Callable} on the {@code Executor}, 
+	 * the first time the value is accessed.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param executor the {@code Executor} to run the initializer on
+	 * @return a {@link Lazy.AsyncInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value
+	 * 
+	 * @throws NullPointerException if initializer or executor is {@code null}
+	 */
+	public static <T> Lazy.AsyncInitializer<T> asyncInitializer(Callable<T> initializer, 
+			Executor executor) {
+		return new CallableAsyncLazyInitializer<T>(initializer, executor);
+	}
 
+	/**
+	 * Creates a {@link Lazy.AsyncInitializer} just like 
+	 * {@link #asyncInitializer(Callable, Executor)}, but starts the 
+	 * initialization immediately.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the value from  
+	 * @param executor the {@code Executor} to run the initializer on
+	 * @return a {@link Lazy.AsyncInitializer} that uses the supplied 
+	 * {@code Callable} to initialize its value
+	 * 
+	 * @throws NullPointerException if initializer or executor is {@code null}
+	 */
+	public static <T> Lazy.AsyncInitializer<T> eagerAsyncInitializer(Callable<T> initializer, 
+			Executor executor) {
+		Lazy.AsyncInitializer<T> asyncInitializer = asyncInitializer(initializer, executor);
+		asyncInitializer.get();
+		return asyncInitializer;
 	}
-	
+
 	/**
-	 * Private constructor to prevent instantiation: static utility class 
+	 * <p>
+	 * Creates a {@link Lazy.AsyncInitializer}, the value of which is 
+	 * computed from the values of two other {@link Lazy.AsyncInitializer}s.</p>
+	 * 
+	 * <p>
+	 * Requesting the value starts the initialization of both of them at once, 
+	 * hence they are initialized concurrently; the combiner is invoked by the 
+	 * thread completing the latter one. If either of them fails, the combined 
+	 * initialization fails too, and is attempted again on the next request. 
+	 * For more complex dependencies, see {@link LazyGraph}.</p>
+	 * 
+	 * @param first the first {@link Lazy.AsyncInitializer} to combine
+	 * @param second the second {@link Lazy.AsyncInitializer} to combine
+	 * @param combiner the {@code BiFunction} computing the value 
+	 * 		from the values of the two
+	 * @return a {@link Lazy.AsyncInitializer} combining the two values
+	 * 
+	 * @throws NullPointerException if any of the arguments is {@code null}
 	 */
-	private Lazy() {
-		// static utility class - no instances allowed
+	public static <A, B, T> Lazy.AsyncInitializer<T> combine(
+			Lazy.AsyncInitializer<? extends A> first, Lazy.AsyncInitializer<? extends B> second, 
+			BiFunction<? super A, ? super B, ? extends T> combiner) {
+		return new CombiningAsyncLazyInitializer<A, B, T>(first, second, combiner);
 	}
 
 	/**
-	 * Creates a {@link LazyInitializer} that uses the supplied {@code Callable}
-	 * to initialize its value.
+	 * Creates a {@link Lazy.AsyncInitializer}, the value of which is 
+	 * computed from the values of two {@link Lazy.Initializer}s, which are 
+	 * initialized concurrently on the {@code Executor}.
 	 * 
-	 * @param initializer the {@code Callable} to initialize the value from  
-	 * @return a {@link Lazy.Initializer} that uses the supplied {@code Callable}
-	 * to initialize its value.
+	 * @param first the first {@link Lazy.Initializer} to combine
+	 * @param second the second {@link Lazy.Initializer} to combine
+	 * @param combiner the {@code BiFunction} computing the value 
+	 * 		from the values of the two
+	 * @param executor the {@code Executor} to initialize the two on
+	 * @return a {@link Lazy.AsyncInitializer} combining the two values
 	 * 
-	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws NullPointerException if any of the arguments is {@code null}
 	 */
-	public static <T> Lazy.Initializer<T> initializer(Callable<T> initializer) {
-		return new CallableLazyInitializer<T>(initializer);
+	public static <A, B, T> Lazy.AsyncInitializer<T> combine(
+			Lazy.Initializer<? extends A> first, Lazy.Initializer<? extends B> second, 
+			BiFunction<? super A, ? super B, ? extends T> combiner, Executor executor) {
+		return combine(asyncInitializer(asCallable(first), executor), 
+				asyncInitializer(asCallable(second), executor), combiner);
+	}
+
+	private static <T> Callable<T> asCallable(final Lazy.Initializer<T> initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		return new Callable<T>() {
+
+			public T call() throws Exception {
+				return initializer.get();
+			}
+		};
 	}
 	
 	/**
@@ -126,6 +1153,13 @@ public class Lazy {
 	 * thus cause the target object to be 
 	 * initialized).</p>
 	 * 
+	 * <p>
+	 * Where the JVM allows it, the proxy object is created without 
+	 * invoking any constructor of the target class: hence the constructor 
+	 * of the target class is only invoked by the {@code Callable}, and 
+	 * the target class is not required to have an accessible no-argument 
+	 * constructor.</p>
+	 * 
 	 * @param targetClass the class to proxy
 	 * @param initializerCallable the {@code Callable} that initializes the underlying object 
 	 * 
@@ -162,20 +1196,44 @@ public class Lazy {
 			throws ProxyCreationFailedException {
 	
 		try {
+			return lazyInitializerProxy(targetClass, methodFilter, 
+					initializerCallable, ProxyEngines.forTarget(targetClass, methodFilter));
 	
-			javassist.util.proxy.ProxyFactory factory = new javassist.util.proxy.ProxyFactory();
-			factory.setSuperclass(targetClass);
-	
-			if (methodFilter != null) {
-				factory.setFilter(new JavassistMethodFilterAdapter(methodFilter));
-			}
+		} catch (IllegalArgumentException e) {
+			throw new ProxyCreationFailedException(
+					"Failed to create the proxy object", e);
+		}
+	}
+
+	/**
+	 * Creates a proxy object for the specified 
+	 * {@code Class} with the given {@link ProxyEngine}, 
+	 * which lazy-initializes the target object using the 
+	 * supplied {@code Callable} on the first method
+	 * invocation performed on the proxy. 
+	 * 
+	 * @param targetClass the class to proxy
+	 * @param methodFilter a filter which decides whether a method should be handled by the proxy or not
+	 * @param initializerCallable the {@code Callable} that initializes the underlying object 
+	 * @param proxyEngine the engine to create the proxy object with
+	 * 
+	 * @return a proxy object that which lazy-initializes the target on the 
+	 * 	first method invocation using the supplied {@code Callable}
+	 * 
+	 * @throws ProxyCreationFailedException in case the proxy object could not be created
+	 * 
+	 * @see ProxyEngines
+	 */
+	public static <T> T lazyInitializerProxy(Class<T> targetClass,
+			ProxyMethodFilter methodFilter, Callable<T> initializerCallable, 
+			ProxyEngine proxyEngine) throws ProxyCreationFailedException {
 	
-			@SuppressWarnings("unchecked")
-			Class<T> proxyObjectClass = factory.createClass();
-			T proxyObj = proxyObjectClass.newInstance();
+		try {
+			T proxyObj = proxyEngine.newProxyInstance(targetClass, methodFilter);
 	
-			LazyInitializerProxy<T> lp = new LazyInitializerProxy<T>(initializerCallable);
-			((javassist.util.proxy.ProxyObject) proxyObj).setHandler(lp);
+			DelegatingProxy delegatingProxy = (DelegatingProxy) proxyObj;
+			delegatingProxy.setProxyTargetSource(
+					new LazyInitializerProxy<T>(initializerCallable, delegatingProxy));
 	
 			return proxyObj;
 	
@@ -185,6 +1243,61 @@ public class Lazy {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Returns the object a lazy initializer proxy forwards its method 
+	 * invocations to, initializing it first, if it has not been initialized 
+	 * yet.</p>
+	 * 
+	 * <p>
+	 * Performance critical code can resolve the target once and call it 
+	 * directly, instead of passing each invocation through the proxy.</p>
+	 * 
+	 * @param proxy a proxy created by one of the 
+	 * 		{@code lazyInitializerProxy} methods
+	 * @return the initialized target of the proxy
+	 * 
+	 * @throws NullPointerException if proxy is {@code null}
+	 * @throws IllegalArgumentException if proxy is not a lazy initializer proxy
+	 * @throws LazyInitializerException in case the initialization of the 
+	 * 		target fails
+	 * 
+	 * @see #isLazyProxy(Object)
+	 */
+	public static <T> T unwrap(T proxy) {
+		if (proxy == null) {
+			throw new NullPointerException("proxy must not be null");
+		}
+		if (!isLazyProxy(proxy)) {
+			throw new IllegalArgumentException("Not a lazy proxy: " + proxy.getClass().getName());
+		}
+
+		@SuppressWarnings("unchecked")
+		T target = (T) ((DelegatingProxy) proxy).getProxyTargetSource().getTarget();
+
+		return target;
+	}
+
+	/**
+	 * Returns whether the object is a proxy created by one of the 
+	 * {@code lazyInitializerProxy} methods. Does not initialize the 
+	 * target of the proxy.
+	 * 
+	 * @param object the object to check, might be {@code null}
+	 * @return {@code true} if the object is a lazy initializer proxy, 
+	 * 		{@code false} otherwise
+	 */
+	public static boolean isLazyProxy(Object object) {
+		if (!(object instanceof DelegatingProxy)) {
+			return false;
+		}
+
+		ProxyTargetSource targetSource = ((DelegatingProxy) object).getProxyTargetSource();
+
+		return targetSource instanceof LazyInitializerProxy || 
+				targetSource instanceof LazyInitializerProxy.Initialized;
+	}
+
 	public static <E> List<E> list(Callable<List<E>> initializer) {
 
 		return new LazyList<E>(initializer);
@@ -196,16 +1309,260 @@ public class Lazy {
 		return new RandomAccessLazyList<E>(initializer);
 	}
 
+	/**
+	 * Creates a lazily initialized {@code List}, reporting the size hint through 
+	 * {@link LazyValue#getSizeHint()} until it is initialized.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the list from  
+	 * @param sizeHint the estimated size of the list
+	 * @return a lazily initialized {@code List}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws IllegalArgumentException if sizeHint is negative
+	 */
+	public static <E> List<E> list(Callable<List<E>> initializer, int sizeHint) {
+		return new LazyList<E>(initializer, requireSizeHint(sizeHint));
+	}
+
+	/**
+	 * Creates a lazily initialized {@code RandomAccess} {@code List}, reporting 
+	 * the size hint through {@link LazyValue#getSizeHint()} until it is 
+	 * initialized.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the list from  
+	 * @param sizeHint the estimated size of the list
+	 * @return a lazily initialized {@code List}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws IllegalArgumentException if sizeHint is negative
+	 */
+	public static <E> List<E> listWithRandomAccessSupport(
+			Callable<List<E>> initializer, int sizeHint) {
+		return new RandomAccessLazyList<E>(initializer, requireSizeHint(sizeHint));
+	}
+
+	/**
+	 * Creates a {@link #pagedList(IntFunction, int, LongSupplier, int)} 
+	 * keeping at most {@value #DEFAULT_MAX_RESIDENT_PAGES} pages.
+	 * 
+	 * @param pageLoader the {@code IntFunction} loading the page with the 
+	 * 		specified (zero based) page index
+	 * @param pageSize the number of elements on a page
+	 * @param sizeSupplier the {@code LongSupplier} of the size of the list
+	 * @return an unmodifiable, lazily paged {@code List}
+	 * 
+	 * @throws NullPointerException if pageLoader or sizeSupplier is {@code null}
+	 * @throws IllegalArgumentException if pageSize is not positive
+	 */
+	public static <E> List<E> pagedList(IntFunction<List<E>> pageLoader, int pageSize, 
+			LongSupplier sizeSupplier) {
+		return pagedList(pageLoader, pageSize, sizeSupplier, DEFAULT_MAX_RESIDENT_PAGES);
+	}
+
+	/**
+	 * <p>
+	 * Creates an unmodifiable {@code RandomAccess} list, which loads its 
+	 * elements page by page: accessing an index only loads the page 
+	 * containing it, while its size is determined by the size supplier.</p>
+	 * 
+	 * <p>
+	 * Concurrent accesses of a page share a single load; at most 
+	 * {@code maxResidentPages} pages are kept in memory, the least recently 
+	 * used ones are discarded, and loaded again when accessed. Each page 
+	 * except the last one has to contain exactly {@code pageSize} 
+	 * elements.</p>
+	 * 
+	 * @param pageLoader the {@code IntFunction} loading the page with the 
+	 * 		specified (zero based) page index
+	 * @param pageSize the number of elements on a page
+	 * @param sizeSupplier the {@code LongSupplier} of the size of the list
+	 * @param maxResidentPages the maximum number of pages kept in memory
+	 * @return an unmodifiable, lazily paged {@code List}
+	 * 
+	 * @throws NullPointerException if pageLoader or sizeSupplier is {@code null}
+	 * @throws IllegalArgumentException if pageSize or maxResidentPages 
+	 * 		is not positive
+	 */
+	public static <E> List<E> pagedList(IntFunction<List<E>> pageLoader, int pageSize, 
+			LongSupplier sizeSupplier, int maxResidentPages) {
+		return new PagedLazyList<E>(pageLoader, pageSize, sizeSupplier, maxResidentPages);
+	}
+
+	/**
+	 * <p>
+	 * Creates an unmodifiable list, which pulls its elements from the 
+	 * {@code Iterator} returned by the supplied {@code Callable}, only as far 
+	 * as the list is iterated or indexed, and keeps the elements pulled 
+	 * so far. The {@code Callable} is invoked on the first access.</p>
+	 * 
+	 * <p>
+	 * Concurrent readers always see a consistent prefix of the source. 
+	 * {@code size()} and the operations relying on it pull all elements. 
+	 * Once the source is exhausted, it is closed, if it is 
+	 * {@code AutoCloseable}.</p>
+	 * 
+	 * @param sourceInitializer the {@code Callable} to obtain the source from
+	 * @return an unmodifiable, incrementally materialized {@code List}
+	 * 
+	 * @throws NullPointerException if sourceInitializer is {@code null}
+	 */
+	public static <E> List<E> streamingList(
+			Callable<? extends Iterator<? extends E>> sourceInitializer) {
+		return new StreamingLazyList<E>(sourceInitializer);
+	}
+
 	public static <K, V> Map<K, V> map(Callable<Map<K, V>> initializer) {
 
 		return new LazyMap<K, V>(initializer);
 	}
 
+	/**
+	 * Creates a lazily initialized {@code Map}, reporting the size hint through 
+	 * {@link LazyValue#getSizeHint()} until it is initialized.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the map from  
+	 * @param sizeHint the estimated size of the map
+	 * @return a lazily initialized {@code Map}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws IllegalArgumentException if sizeHint is negative
+	 */
+	public static <K, V> Map<K, V> map(Callable<Map<K, V>> initializer, int sizeHint) {
+		return new LazyMap<K, V>(initializer, requireSizeHint(sizeHint));
+	}
+
 	public static <E> Set<E> set(Callable<Set<E>> initializer) {
 
 		return new LazySet<E>(initializer);
 	}
 
+	/**
+	 * Creates a lazily initialized {@code Set}, reporting the size hint through 
+	 * {@link LazyValue#getSizeHint()} until it is initialized.
+	 * 
+	 * @param initializer the {@code Callable} to initialize the set from  
+	 * @param sizeHint the estimated size of the set
+	 * @return a lazily initialized {@code Set}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 * @throws IllegalArgumentException if sizeHint is negative
+	 */
+	public static <E> Set<E> set(Callable<Set<E>> initializer, int sizeHint) {
+		return new LazySet<E>(initializer, requireSizeHint(sizeHint));
+	}
+
+	/**
+	 * <p>
+	 * Creates a lazily initialized, immutable {@code List}: once the 
+	 * initializer returns, the list is copied to an array of the exact size 
+	 * and the list returned by the initializer is dropped.</p>
+	 * 
+	 * <p>
+	 * Intended for read-mostly data loaded once: the copy does not retain 
+	 * the spare capacity or the nodes of the original list.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the list from  
+	 * @return a lazily initialized, unmodifiable {@code List}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static <E> List<E> frozenList(final Callable<? extends List<E>> initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		return new RandomAccessLazyList<E>(new Callable<List<E>>() {
+
+			public List<E> call() throws Exception {
+				return FrozenCollections.freeze(initializer.call());
+			}
+		});
+	}
+
+	/**
+	 * <p>
+	 * Creates a lazily initialized, immutable {@code Set}: once the 
+	 * initializer returns, the elements are copied to a compact array, 
+	 * indexed by an open addressing hash table (or searched with binary 
+	 * search, if the set returned is a {@code SortedSet}), and the set 
+	 * returned by the initializer is dropped.</p>
+	 * 
+	 * <p>
+	 * The iteration order of the set returned by the initializer is kept. 
+	 * Its notion of equality has to be consistent with {@code equals}, 
+	 * or with its comparator, in case of a {@code SortedSet}.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the set from  
+	 * @return a lazily initialized, unmodifiable {@code Set}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static <E> Set<E> frozenSet(final Callable<? extends Set<E>> initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		return new LazySet<E>(new Callable<Set<E>>() {
+
+			public Set<E> call() throws Exception {
+				return FrozenCollections.freeze(initializer.call());
+			}
+		});
+	}
+
+	/**
+	 * <p>
+	 * Creates a lazily initialized, immutable {@code Map}: once the 
+	 * initializer returns, the keys and the values are copied to compact 
+	 * arrays, the keys indexed by an open addressing hash table (or searched 
+	 * with binary search, if the map returned is a {@code SortedMap}), and 
+	 * the map returned by the initializer is dropped.</p>
+	 * 
+	 * <p>
+	 * The iteration order of the map returned by the initializer is kept. 
+	 * Its notion of key equality has to be consistent with {@code equals}, 
+	 * or with its comparator, in case of a {@code SortedMap}.</p>
+	 * 
+	 * @param initializer the {@code Callable} to initialize the map from  
+	 * @return a lazily initialized, unmodifiable {@code Map}
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public static <K, V> Map<K, V> frozenMap(
+			final Callable<? extends Map<K, V>> initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		return new LazyMap<K, V>(new Callable<Map<K, V>>() {
+
+			public Map<K, V> call() throws Exception {
+				return FrozenCollections.freeze(initializer.call());
+			}
+		});
+	}
+
+	/**
+	 * Returns the size of a {@code Collection} or {@code Map}, 
+	 * {@code -1} for any other value.
+	 */
+	static int sizeOf(Object value) {
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).size();
+		}
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).size();
+		}
+		return LazyCollectionInitializer.UNKNOWN_SIZE;
+	}
+
+	private static int requireSizeHint(int sizeHint) {
+		if (sizeHint < 0) {
+			throw new IllegalArgumentException("sizeHint must not be negative: " + sizeHint);
+		}
+		return sizeHint;
+	}
+
 	public static <K, V> SortedMap<K, V> sortedMap(
 			Callable<SortedMap<K, V>> initializer) {
 		return new LazySortedMap<K, V>(initializer);
@@ -214,7 +1571,34 @@ public class Lazy {
 	public static <E> SortedSet<E> sortedSet(Callable<SortedSet<E>> initializer) {
 		return new LazySortedSet<E>(initializer);
 	}
+
+	public static <K, V> ConcurrentMap<K, V> concurrentMap(
+			Callable<ConcurrentMap<K, V>> initializer) {
+		return new LazyConcurrentMap<K, V>(initializer);
+	}
+
+	public static <K, V> NavigableMap<K, V> navigableMap(
+			Callable<NavigableMap<K, V>> initializer) {
+		return new LazyNavigableMap<K, V>(initializer);
+	}
+
+	public static <E> NavigableSet<E> navigableSet(Callable<NavigableSet<E>> initializer) {
+		return new LazyNavigableSet<E>(initializer);
+	}
+
+	public static <E> Queue<E> queue(Callable<Queue<E>> initializer) {
+		return new LazyQueue<E>(initializer);
+	}
+
+	public static <E> Deque<E> deque(Callable<Deque<E>> initializer) {
+		return new LazyDeque<E>(initializer);
+	}
 	
+	/**
+	 * The number of pages kept by {@link #pagedList(IntFunction, int, LongSupplier)}.
+	 */
+	public static final int DEFAULT_MAX_RESIDENT_PAGES = 16;
+
 	static final ProxyMethodFilter IGNORE_FINALIZE_PROXYMETHODFILTER = 
 			new ProxyMethodFilter() {
 	
@@ -0,0 +1,74 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>
+ * A lazily initialized {@code boolean} value: the value is computed by the 
+ * supplied {@code BooleanSupplier} on the first invocation of {@link #getAsBoolean()}, 
+ * and is stored in a {@code boolean} field, without boxing.</p>
+ * 
+ * <p>
+ * The value is initialized at most once, by a single thread, while 
+ * concurrent callers wait for it; if the {@code BooleanSupplier} throws an 
+ * exception, the initialization is attempted again on the next access.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#lazyBoolean(BooleanSupplier)
+ */
+public final class LazyBoolean extends PrimitiveLazyInitializer<Boolean, BooleanSupplier>
+		implements BooleanSupplier {
+
+	/**
+	 * Written before the state is published, read after it is observed.
+	 */
+	private boolean value;
+
+	LazyBoolean(BooleanSupplier initializer) {
+		super(initializer);
+	}
+
+	/**
+	 * Returns the value, initializing it first, if it has not been 
+	 * initialized yet.
+	 * 
+	 * @return the value
+	 * 
+	 * @throws IllegalStateException if invoked from the {@code BooleanSupplier}
+	 */
+	public boolean getAsBoolean() {
+		ensureInitialized();
+		return value;
+	}
+
+	/**
+	 * Returns the boxed value if it has been initialized, {@code null} 
+	 * otherwise. Does not initialize the value.
+	 * 
+	 * @return the boxed value, or {@code null} if it is not initialized
+	 */
+	public Boolean getIfInitialized() {
+		return isInitialized() ? Boolean.valueOf(value) : null;
+	}
+
+	@Override
+	void initializeValue(BooleanSupplier initializer) {
+		value = initializer.getAsBoolean();
+	}
+}
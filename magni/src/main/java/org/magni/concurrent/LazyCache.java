@@ -0,0 +1,475 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A concurrent cache, which loads the value of each key lazily, the first 
+ * time the key is requested.</p>
+ * 
+ * <p>
+ * Each key is backed by its own {@link Lazy.Initializer}: concurrent 
+ * requests for the same key share a single load, while different keys are 
+ * loaded in parallel. Unlike {@code ConcurrentHashMap.computeIfAbsent}, 
+ * no lock of the underlying map is held while a value is loaded. If a load 
+ * fails, the exception is propagated to the waiting callers, and the load 
+ * is attempted again on the next request, unless a {@link RetryPolicy} 
+ * is configured.</p>
+ * 
+ * <p>
+ * Expired entries are removed when they are requested, and by a sweep of 
+ * a few entries on each insertion of a new key: entries of keys, which 
+ * are never requested again, are not retained indefinitely. 
+ * {@link #cleanUp()} removes all expired entries at once.</p>
+ * 
+ * <p>
+ * Size limited caches update the recency and the frequency of the keys on 
+ * a best effort basis: a request does not wait for the lock of the eviction 
+ * policy, if another thread holds it.</p>
+ * 
+ * <p>
+ * As a {@link LazyValue}, the cache counts as initialized once the value 
+ * of any of its keys is loaded (and has not expired since).</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#keyed(Function)
+ * @see Lazy#keyed(Function, CachePolicy)
+ */
+public final class LazyCache<K, V> implements LazyValue<Map<K, V>> {
+
+	/**
+	 * The number of entries checked for expiration on each insertion: more 
+	 * than one, so that the sweep keeps up with a growing cache.
+	 */
+	private static final int SWEEP_BATCH_SIZE = 4;
+
+	private final ConcurrentMap<K, Entry<K, V>> entries = 
+			new ConcurrentHashMap<K, Entry<K, V>>();
+
+	private final Function<? super K, ? extends V> loader;
+	private final long expireAfterWriteNanos;
+	private final RetryPolicy retryPolicy;
+
+	/**
+	 * {@code null} if the cache is unbounded.
+	 */
+	private final WindowTinyLfuPolicy<Entry<K, V>> evictionPolicy;
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	/**
+	 * Guarded by {@link #sweepLock}; resumed by each sweep.
+	 */
+	private Iterator<Entry<K, V>> sweepIterator;
+	private final ReentrantLock sweepLock = new ReentrantLock();
+
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+	private final LongAdder totalLoadTimeNanos = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	LazyCache(Function<? super K, ? extends V> loader, CachePolicy cachePolicy) {
+		if (loader == null) {
+			throw new NullPointerException("loader must not be null");
+		}
+		this.loader = loader;
+		this.expireAfterWriteNanos = cachePolicy.getExpireAfterWriteNanos();
+		this.retryPolicy = cachePolicy.getRetryPolicy();
+		this.evictionPolicy = cachePolicy.getMaximumSize() == CachePolicy.UNBOUNDED ? null : 
+			new WindowTinyLfuPolicy<Entry<K, V>>(cachePolicy.getMaximumSize());
+	}
+
+	/**
+	 * Returns the value of the key, loading it first, if it has not 
+	 * been loaded yet, or it has expired.
+	 * 
+	 * @param key the key to return the value of
+	 * @return the value of the key, might be {@code null}
+	 * 
+	 * @throws NullPointerException if key is {@code null}
+	 * @throws IllegalStateException if invoked from the loader, for the key 
+	 * 		being loaded
+	 */
+	public V get(K key) {
+		requestCount.increment();
+
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null) {
+			Entry<K, V> newEntry = new Entry<K, V>(key, this);
+
+			entry = entries.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				entry = newEntry;
+				afterInsertion(newEntry);
+			} else {
+				afterAccess(entry);
+			}
+		} else {
+			afterAccess(entry);
+		}
+		return entry.get();
+	}
+
+	/**
+	 * Removes the key from the cache: the value is loaded again on the next 
+	 * request. Callers already waiting for a load of the key in progress 
+	 * still receive its outcome.
+	 * 
+	 * @param key the key to remove
+	 * 
+	 * @throws NullPointerException if key is {@code null}
+	 */
+	public void invalidate(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry != null) {
+			remove(entry);
+		}
+	}
+
+	/**
+	 * Removes all keys from the cache.
+	 */
+	public void invalidateAll() {
+		for (Entry<K, V> entry : entries.values()) {
+			remove(entry);
+		}
+	}
+
+	/**
+	 * Removes all expired entries from the cache.
+	 */
+	public void cleanUp() {
+		if (expireAfterWriteNanos != 0) {
+			for (Entry<K, V> entry : entries.values()) {
+				if (entry.isStale()) {
+					remove(entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of keys in the cache, including the ones 
+	 * being loaded (and the expired ones not removed yet).
+	 * 
+	 * @return the number of keys in the cache
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns {@code true} if the value of any key is loaded, and has not 
+	 * expired. Does not load any value.
+	 * 
+	 * @return {@code true} if any value is loaded, {@code false} otherwise
+	 */
+	public boolean isInitialized() {
+		for (Entry<K, V> entry : entries.values()) {
+			if (entry.isInitialized()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns an unmodifiable snapshot of the loaded, not expired values 
+	 * by their keys, {@code null} if there is none. Does not load any value: 
+	 * the keys being loaded are omitted.
+	 * 
+	 * @return the loaded values by their keys, or {@code null} 
+	 * 		if no value is loaded
+	 */
+	public Map<K, V> getIfInitialized() {
+		Map<K, V> values = new HashMap<K, V>();
+		for (Entry<K, V> entry : entries.values()) {
+			if (entry.isInitialized()) {
+				values.put(entry.key, entry.getIfInitialized());
+			}
+		}
+		return values.isEmpty() ? null : Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Returns the number of keys in the cache, just like {@link #size()}.
+	 * 
+	 * @return the number of keys in the cache
+	 */
+	public int getSizeHint() {
+		return size();
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of the cache.
+	 * 
+	 * @return the statistics of the cache
+	 */
+	public Stats getStats() {
+		long loadSuccesses = loadSuccessCount.sum();
+		long loadFailures = loadFailureCount.sum();
+		long loads = loadSuccesses + loadFailures;
+
+		return new Stats(Math.max(0, requestCount.sum() - loads), loads, 
+				loadSuccesses, loadFailures, totalLoadTimeNanos.sum(), evictionCount.sum());
+	}
+
+	private void afterInsertion(Entry<K, V> entry) {
+		if (evictionPolicy != null) {
+			Entry<K, V> victim = null;
+
+			evictionLock.lock();
+			try {
+				// an entry invalidated meanwhile must not be tracked: remove(Entry) 
+				// only removes it from the policy after removing it from the map
+				if (entries.get(entry.key) == entry) {
+					victim = evictionPolicy.recordInsertion(entry);
+				}
+			} finally {
+				evictionLock.unlock();
+			}
+
+			if (victim != null && entries.remove(victim.key, victim)) {
+				evictionCount.increment();
+			}
+		}
+
+		if (expireAfterWriteNanos != 0) {
+			sweepExpiredEntries();
+		}
+	}
+
+	/**
+	 * Checks the next few entries for expiration, unless another 
+	 * thread is sweeping.
+	 */
+	private void sweepExpiredEntries() {
+		if (sweepLock.tryLock()) {
+			try {
+				for (int i = 0; i < SWEEP_BATCH_SIZE; i++) {
+					if (sweepIterator == null || !sweepIterator.hasNext()) {
+						sweepIterator = entries.values().iterator();
+						if (!sweepIterator.hasNext()) {
+							return;
+						}
+					}
+
+					Entry<K, V> entry = sweepIterator.next();
+					if (entry.isStale()) {
+						remove(entry);
+					}
+				}
+			} finally {
+				sweepLock.unlock();
+			}
+		}
+	}
+
+	private void afterAccess(Entry<K, V> entry) {
+		if (evictionPolicy != null && evictionLock.tryLock()) {
+			try {
+				evictionPolicy.recordAccess(entry);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	private void remove(Entry<K, V> entry) {
+		if (entries.remove(entry.key, entry) && evictionPolicy != null) {
+			evictionLock.lock();
+			try {
+				evictionPolicy.remove(entry);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LazyCache [size=" + size() + ", stats=" + getStats() + "]";
+	}
+
+	/**
+	 * The lazily loaded value of a key: the policy and the statistics 
+	 * are referenced through the cache, to keep the entries small.
+	 */
+	private static final class Entry<K, V> extends Lazy.Initializer<V> 
+			implements WindowTinyLfuPolicy.Node {
+
+		private final K key;
+		private final LazyCache<K, V> cache;
+
+		Entry(K key, LazyCache<K, V> cache) {
+			this.key = key;
+			this.cache = cache;
+		}
+
+		public Object getKey() {
+			return key;
+		}
+
+		@Override
+		protected V initializeValue() {
+			long startNanoTime = System.nanoTime();
+			boolean loaded = false;
+			try {
+				V value = cache.loader.apply(key);
+				loaded = true;
+				return value;
+			} finally {
+				cache.totalLoadTimeNanos.add(System.nanoTime() - startNanoTime);
+				(loaded ? cache.loadSuccessCount : cache.loadFailureCount).increment();
+
+				if (!loaded && cache.retryPolicy == null) {
+					// nothing to remember about the key: removed before the waiting 
+					// callers are released, so that later requests use a new entry
+					cache.remove(this);
+				}
+			}
+		}
+
+		@Override
+		Object newValueState(V value) {
+			if (cache.expireAfterWriteNanos == 0) {
+				return super.newValueState(value);
+			}
+			return new ExpiringLazyInitializer.ExpiringValue(value, 
+					System.nanoTime() + cache.expireAfterWriteNanos);
+		}
+
+		@Override
+		protected long getFailureCachingPeriodNanos(Throwable failure, int failedAttempts) {
+			RetryPolicy retryPolicy = cache.retryPolicy;
+			if (retryPolicy == null) {
+				// the entry has been removed: its waiting callers receive the 
+				// failure, instead of loading again next to the new entry
+				return Long.MAX_VALUE;
+			}
+			return retryPolicy.getDelayNanos(failedAttempts);
+		}
+	}
+
+	/**
+	 * <p>
+	 * An immutable snapshot of the statistics of a {@link LazyCache}.</p>
+	 * 
+	 * <p>
+	 * A request is a miss, if it has loaded the value; otherwise (including 
+	 * requests, which waited for the load of another thread) it is a hit.</p>
+	 */
+	public static final class Stats {
+
+		private final long hitCount;
+		private final long missCount;
+		private final long loadSuccessCount;
+		private final long loadFailureCount;
+		private final long totalLoadTimeNanos;
+		private final long evictionCount;
+
+		Stats(long hitCount, long missCount, long loadSuccessCount, 
+				long loadFailureCount, long totalLoadTimeNanos, long evictionCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.loadSuccessCount = loadSuccessCount;
+			this.loadFailureCount = loadFailureCount;
+			this.totalLoadTimeNanos = totalLoadTimeNanos;
+			this.evictionCount = evictionCount;
+		}
+
+		/**
+		 * @return the number of requests, which returned a loaded value
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * @return the number of requests, which loaded the value
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * @return the ratio of hits to all requests, 
+		 * 		{@code 1.0} if there were no requests
+		 */
+		public double getHitRate() {
+			long requestCount = hitCount + missCount;
+			return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+		}
+
+		/**
+		 * @return the number of loads, which returned a value
+		 */
+		public long getLoadSuccessCount() {
+			return loadSuccessCount;
+		}
+
+		/**
+		 * @return the number of loads, which threw an exception
+		 */
+		public long getLoadFailureCount() {
+			return loadFailureCount;
+		}
+
+		/**
+		 * @return the time spent loading values in nanoseconds, 
+		 * 		including failed loads
+		 */
+		public long getTotalLoadTimeNanos() {
+			return totalLoadTimeNanos;
+		}
+
+		/**
+		 * @return the average time spent on a load in nanoseconds, 
+		 * 		zero if there were no loads
+		 */
+		public double getAverageLoadPenaltyNanos() {
+			long loadCount = loadSuccessCount + loadFailureCount;
+			return loadCount == 0 ? 0 : (double) totalLoadTimeNanos / loadCount;
+		}
+
+		/**
+		 * @return the number of entries evicted due to the size limit
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats [hitCount=" + hitCount + ", missCount=" + missCount
+					+ ", loadSuccessCount=" + loadSuccessCount 
+					+ ", loadFailureCount=" + loadFailureCount
+					+ ", totalLoadTimeNanos=" + totalLoadTimeNanos 
+					+ ", evictionCount=" + evictionCount + "]";
+		}
+	}
+}
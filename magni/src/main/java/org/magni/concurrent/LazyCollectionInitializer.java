@@ -0,0 +1,64 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Base class of the lazily initialized collections and maps: keeps the size 
+ * hint supplied on creation, and does not initialize the delegate 
+ * in {@link #toString()}.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+abstract class LazyCollectionInitializer<C> extends CallableLazyInitializer<C> {
+
+	/**
+	 * Returned by {@link #getSizeHint()} if the size is not known.
+	 */
+	static final int UNKNOWN_SIZE = -1;
+
+	private final int sizeHint;
+
+	LazyCollectionInitializer(Callable<C> initializer) {
+		this(initializer, UNKNOWN_SIZE);
+	}
+
+	LazyCollectionInitializer(Callable<C> initializer, int sizeHint) {
+		super(initializer);
+		if (sizeHint < UNKNOWN_SIZE) {
+			throw new IllegalArgumentException("Invalid size hint: " + sizeHint);
+		}
+		this.sizeHint = sizeHint;
+	}
+
+	@Override
+	public int getSizeHint() {
+		return isInitialized() ? super.getSizeHint() : sizeHint;
+	}
+
+	@Override
+	public String toString() {
+		C value = getIfInitialized();
+		if (value != null) {
+			return value.toString();
+		}
+
+		return getClass().getSimpleName() + " (not initialized" 
+				+ (sizeHint != UNKNOWN_SIZE ? ", size hint: " + sizeHint : "") + ")";
+	}
+}
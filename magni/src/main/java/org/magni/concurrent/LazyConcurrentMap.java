@@ -0,0 +1,139 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A lazily initialized {@code ConcurrentMap}: the atomic operations of
+ * {@code ConcurrentMap} are forwarded to the delegate, hence they remain atomic.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class LazyConcurrentMap<K, V> extends LazyCollectionInitializer<ConcurrentMap<K, V>> implements ConcurrentMap<K, V> {
+
+	LazyConcurrentMap(Callable<ConcurrentMap<K, V>> initializer) {
+		super(initializer);
+	}
+
+	public int size() {
+		return get().size();
+	}
+
+	public boolean isEmpty() {
+		return get().isEmpty();
+	}
+
+	public boolean containsKey(Object key) {
+		return get().containsKey(key);
+	}
+
+	public boolean containsValue(Object value) {
+		return get().containsValue(value);
+	}
+
+	public V get(Object key) {
+		return get().get(key);
+	}
+
+	public V put(K key, V value) {
+		return get().put(key, value);
+	}
+
+	public V remove(Object key) {
+		return get().remove(key);
+	}
+
+	public void putAll(Map<? extends K, ? extends V> m) {
+		get().putAll(m);
+	}
+
+	public void clear() {
+		get().clear();
+	}
+
+	public Set<K> keySet() {
+		return get().keySet();
+	}
+
+	public Collection<V> values() {
+		return get().values();
+	}
+
+	public Set<Map.Entry<K, V>> entrySet() {
+		return get().entrySet();
+	}
+
+	public boolean equals(Object o) {
+		return get().equals(o);
+	}
+
+	public int hashCode() {
+		return get().hashCode();
+	}
+
+	public V getOrDefault(Object key, V defaultValue) {
+		return get().getOrDefault(key, defaultValue);
+	}
+
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		get().forEach(action);
+	}
+
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		get().replaceAll(function);
+	}
+
+	public V putIfAbsent(K key, V value) {
+		return get().putIfAbsent(key, value);
+	}
+
+	public boolean remove(Object key, Object value) {
+		return get().remove(key, value);
+	}
+
+	public boolean replace(K key, V oldValue, V newValue) {
+		return get().replace(key, oldValue, newValue);
+	}
+
+	public V replace(K key, V value) {
+		return get().replace(key, value);
+	}
+
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		return get().computeIfAbsent(key, mappingFunction);
+	}
+
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return get().computeIfPresent(key, remappingFunction);
+	}
+
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return get().compute(key, remappingFunction);
+	}
+
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return get().merge(key, value, remappingFunction);
+	}
+}
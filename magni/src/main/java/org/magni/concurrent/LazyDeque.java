@@ -0,0 +1,203 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A lazily initialized {@code Deque}.
+ * 
+ * <p>
+ * Just like the {@code Deque} implementations of the JDK, it keeps the 
+ * identity based {@code equals} and {@code hashCode} of {@code Object}: 
+ * they are not forwarded to the underlying {@code Deque}.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class LazyDeque<E> extends LazyCollectionInitializer<Deque<E>> implements Deque<E> {
+
+	LazyDeque(Callable<Deque<E>> initializer) {
+		super(initializer);
+	}
+
+	public int size() {
+		return get().size();
+	}
+
+	public boolean isEmpty() {
+		return get().isEmpty();
+	}
+
+	public boolean contains(Object o) {
+		return get().contains(o);
+	}
+
+	public Iterator<E> iterator() {
+		return get().iterator();
+	}
+
+	public Object[] toArray() {
+		return get().toArray();
+	}
+
+	public <A> A[] toArray(A[] a) {
+		return get().toArray(a);
+	}
+
+	public boolean add(E e) {
+		return get().add(e);
+	}
+
+	public boolean remove(Object o) {
+		return get().remove(o);
+	}
+
+	public boolean containsAll(Collection<?> c) {
+		return get().containsAll(c);
+	}
+
+	public boolean addAll(Collection<? extends E> c) {
+		return get().addAll(c);
+	}
+
+	public boolean removeAll(Collection<?> c) {
+		return get().removeAll(c);
+	}
+
+	public boolean retainAll(Collection<?> c) {
+		return get().retainAll(c);
+	}
+
+	public void clear() {
+		get().clear();
+	}
+
+	public void forEach(Consumer<? super E> action) {
+		get().forEach(action);
+	}
+
+	public boolean removeIf(Predicate<? super E> filter) {
+		return get().removeIf(filter);
+	}
+
+	public Spliterator<E> spliterator() {
+		return get().spliterator();
+	}
+
+	public Stream<E> stream() {
+		return get().stream();
+	}
+
+	public Stream<E> parallelStream() {
+		return get().parallelStream();
+	}
+
+	public boolean offer(E e) {
+		return get().offer(e);
+	}
+
+	public E remove() {
+		return get().remove();
+	}
+
+	public E poll() {
+		return get().poll();
+	}
+
+	public E element() {
+		return get().element();
+	}
+
+	public E peek() {
+		return get().peek();
+	}
+
+	public void addFirst(E e) {
+		get().addFirst(e);
+	}
+
+	public void addLast(E e) {
+		get().addLast(e);
+	}
+
+	public boolean offerFirst(E e) {
+		return get().offerFirst(e);
+	}
+
+	public boolean offerLast(E e) {
+		return get().offerLast(e);
+	}
+
+	public E removeFirst() {
+		return get().removeFirst();
+	}
+
+	public E removeLast() {
+		return get().removeLast();
+	}
+
+	public E pollFirst() {
+		return get().pollFirst();
+	}
+
+	public E pollLast() {
+		return get().pollLast();
+	}
+
+	public E getFirst() {
+		return get().getFirst();
+	}
+
+	public E getLast() {
+		return get().getLast();
+	}
+
+	public E peekFirst() {
+		return get().peekFirst();
+	}
+
+	public E peekLast() {
+		return get().peekLast();
+	}
+
+	public boolean removeFirstOccurrence(Object o) {
+		return get().removeFirstOccurrence(o);
+	}
+
+	public boolean removeLastOccurrence(Object o) {
+		return get().removeLastOccurrence(o);
+	}
+
+	public void push(E e) {
+		get().push(e);
+	}
+
+	public E pop() {
+		return get().pop();
+	}
+
+	public Iterator<E> descendingIterator() {
+		return get().descendingIterator();
+	}
+}
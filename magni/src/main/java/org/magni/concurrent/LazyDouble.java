@@ -0,0 +1,74 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * <p>
+ * A lazily initialized {@code double} value: the value is computed by the 
+ * supplied {@code DoubleSupplier} on the first invocation of {@link #getAsDouble()}, 
+ * and is stored in a {@code double} field, without boxing.</p>
+ * 
+ * <p>
+ * The value is initialized at most once, by a single thread, while 
+ * concurrent callers wait for it; if the {@code DoubleSupplier} throws an 
+ * exception, the initialization is attempted again on the next access.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#lazyDouble(DoubleSupplier)
+ */
+public final class LazyDouble extends PrimitiveLazyInitializer<Double, DoubleSupplier>
+		implements DoubleSupplier {
+
+	/**
+	 * Written before the state is published, read after it is observed.
+	 */
+	private double value;
+
+	LazyDouble(DoubleSupplier initializer) {
+		super(initializer);
+	}
+
+	/**
+	 * Returns the value, initializing it first, if it has not been 
+	 * initialized yet.
+	 * 
+	 * @return the value
+	 * 
+	 * @throws IllegalStateException if invoked from the {@code DoubleSupplier}
+	 */
+	public double getAsDouble() {
+		ensureInitialized();
+		return value;
+	}
+
+	/**
+	 * Returns the boxed value if it has been initialized, {@code null} 
+	 * otherwise. Does not initialize the value.
+	 * 
+	 * @return the boxed value, or {@code null} if it is not initialized
+	 */
+	public Double getIfInitialized() {
+		return isInitialized() ? Double.valueOf(value) : null;
+	}
+
+	@Override
+	void initializeValue(DoubleSupplier initializer) {
+		value = initializer.getAsDouble();
+	}
+}
@@ -0,0 +1,401 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A set of named lazy values with explicitly declared dependencies 
+ * between them.</p>
+ * 
+ * <p>
+ * Requesting a value starts the initialization of all of its (transitive) 
+ * dependencies at once: the ones not depending on each other are 
+ * initialized concurrently on the {@code Executor}, and each value is 
+ * initialized as soon as all of its dependencies are available. Hence the 
+ * latency of a cold start is the length of the longest dependency chain, 
+ * instead of the sum of all initializations. Each value is initialized 
+ * once, even if several values depend on it; failed initializations are 
+ * attempted again on the next request, just like in case of 
+ * {@link Lazy.AsyncInitializer}.</p>
+ * 
+ * <p>
+ * Since all dependencies are declared up front, dependency cycles and 
+ * missing dependencies are reported by {@link Builder#build(Executor)}, 
+ * instead of causing a deadlock during the initialization.</p>
+ * 
+ * <pre>
+ * LazyGraph graph = LazyGraph.builder()
+ *     .add("secret", secretLoader)
+ *     .add("config", configLoader, "secret")
+ *     .add("client", clientFactory, "config", "metrics")
+ *     .add("metrics", metricsLoader)
+ *     .build(executor);
+ *     
+ * Client client = graph.&lt;Client&gt;get("client").get().join();
+ * </pre>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#combine(Lazy.AsyncInitializer, Lazy.AsyncInitializer, java.util.function.BiFunction)
+ */
+public final class LazyGraph {
+
+	private final Map<String, Node> nodes;
+
+	private LazyGraph(Map<String, Definition> definitions, Executor executor) {
+		Map<String, Node> graphNodes = new LinkedHashMap<String, Node>();
+		for (Definition definition : definitions.values()) {
+			graphNodes.put(definition.name, new Node(this, definition, executor));
+		}
+		this.nodes = Collections.unmodifiableMap(graphNodes);
+	}
+
+	/**
+	 * Creates a new, empty {@link Builder}.
+	 * 
+	 * @return a new {@link Builder}
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the {@link Lazy.AsyncInitializer} of the named value: 
+	 * requesting its value starts the initialization of the value and 
+	 * its dependencies.
+	 * 
+	 * @param name the name of the value
+	 * @return the {@link Lazy.AsyncInitializer} of the value
+	 * 
+	 * @throws IllegalArgumentException if there is no value with the name
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Lazy.AsyncInitializer<T> get(String name) {
+		Node node = nodes.get(name);
+		if (node == null) {
+			throw new IllegalArgumentException("No such lazy value: " + name);
+		}
+		return (Lazy.AsyncInitializer<T>) node;
+	}
+
+	/**
+	 * Returns the names of the values, in the order they were added.
+	 * 
+	 * @return the names of the values
+	 */
+	public Set<String> getNames() {
+		return nodes.keySet();
+	}
+
+	/**
+	 * Starts the initialization of all values, which are not initialized yet.
+	 * 
+	 * @return a future completed once all values are initialized, or 
+	 * 		exceptionally, if any of them fails
+	 */
+	public CompletableFuture<Void> initializeAll() {
+		List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>();
+		for (Node node : nodes.values()) {
+			futures.add(node.get());
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+	}
+
+	@Override
+	public String toString() {
+		return "LazyGraph " + nodes.keySet();
+	}
+
+	/**
+	 * Returns the cause of a {@code CompletionException}, 
+	 * or the failure itself.
+	 */
+	static Throwable unwrap(Throwable failure) {
+		if (failure instanceof CompletionException && failure.getCause() != null) {
+			return failure.getCause();
+		}
+		return failure;
+	}
+
+	/**
+	 * Collects the values and their dependencies of a {@link LazyGraph}. 
+	 * Not thread safe.
+	 */
+	public static final class Builder {
+
+		private final Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+
+		Builder() {
+			// instantiated via LazyGraph.builder()
+		}
+
+		/**
+		 * Adds a value without dependencies.
+		 * 
+		 * @param name the name of the value
+		 * @param initializer the {@code Callable} to initialize the value from
+		 * @return this builder
+		 * 
+		 * @throws NullPointerException if name or initializer is {@code null}
+		 * @throws IllegalArgumentException if a value with the same 
+		 * 		name has already been added
+		 */
+		public Builder add(String name, final Callable<?> initializer) {
+			if (initializer == null) {
+				throw new NullPointerException("initializer must not be null");
+			}
+
+			return add(name, new Function<Dependencies, Object>() {
+
+				public Object apply(Dependencies dependencies) {
+					return CallableLazyInitializer.call(initializer);
+				}
+			});
+		}
+
+		/**
+		 * Adds a value, which is initialized from the values 
+		 * of its dependencies.
+		 * 
+		 * @param name the name of the value
+		 * @param initializer the {@code Function} to initialize the value 
+		 * 		from the values of the dependencies
+		 * @param dependencies the names of the values the value depends on
+		 * @return this builder
+		 * 
+		 * @throws NullPointerException if any of the arguments is {@code null}
+		 * @throws IllegalArgumentException if a value with the same 
+		 * 		name has already been added
+		 */
+		public Builder add(String name, Function<? super Dependencies, ?> initializer, 
+				String... dependencies) {
+			if (name == null) {
+				throw new NullPointerException("name must not be null");
+			}
+			if (initializer == null) {
+				throw new NullPointerException("initializer must not be null");
+			}
+			if (definitions.containsKey(name)) {
+				throw new IllegalArgumentException("Duplicate lazy value: " + name);
+			}
+			for (String dependency : dependencies) {
+				if (dependency == null) {
+					throw new NullPointerException("dependencies must not contain null");
+				}
+			}
+
+			definitions.put(name, new Definition(name, initializer, dependencies.clone()));
+			return this;
+		}
+
+		/**
+		 * Creates the {@link LazyGraph}: no value is initialized yet.
+		 * 
+		 * @param executor the {@code Executor} to initialize the values on
+		 * @return the new {@link LazyGraph}
+		 * 
+		 * @throws NullPointerException if executor is {@code null}
+		 * @throws IllegalArgumentException if a dependency refers to a value, 
+		 * 		which has not been added, or the dependencies form a cycle
+		 */
+		public LazyGraph build(Executor executor) {
+			if (executor == null) {
+				throw new NullPointerException("executor must not be null");
+			}
+
+			Map<String, Boolean> visited = new HashMap<String, Boolean>();
+			for (String name : definitions.keySet()) {
+				checkDependencies(name, visited, new ArrayList<String>());
+			}
+
+			return new LazyGraph(definitions, executor);
+		}
+
+		/**
+		 * Depth-first traversal of the dependencies: the value of a name in 
+		 * the visited map is {@code false} while its dependencies are being 
+		 * traversed, {@code true} once they are found to be acyclic.
+		 */
+		private void checkDependencies(String name, Map<String, Boolean> visited, 
+				List<String> path) {
+			Boolean acyclic = visited.get(name);
+			if (Boolean.TRUE.equals(acyclic)) {
+				return;
+			}
+
+			path.add(name);
+			if (Boolean.FALSE.equals(acyclic)) {
+				List<String> cycle = path.subList(path.indexOf(name), path.size());
+				throw new IllegalArgumentException("Dependency cycle: " + join(cycle));
+			}
+
+			Definition definition = definitions.get(name);
+			if (definition == null) {
+				throw new IllegalArgumentException("Unknown dependency: " + join(path));
+			}
+
+			visited.put(name, Boolean.FALSE);
+			for (String dependency : definition.dependencies) {
+				checkDependencies(dependency, visited, path);
+			}
+			visited.put(name, Boolean.TRUE);
+
+			path.remove(path.size() - 1);
+		}
+
+		private static String join(List<String> names) {
+			StringBuilder sb = new StringBuilder();
+			for (String name : names) {
+				if (sb.length() > 0) {
+					sb.append(" -> ");
+				}
+				sb.append(name);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * The values of the dependencies of a value being initialized.
+	 */
+	public static final class Dependencies {
+
+		private final Map<String, Object> values;
+
+		Dependencies(Map<String, Object> values) {
+			this.values = values;
+		}
+
+		/**
+		 * Returns the value of a dependency.
+		 * 
+		 * @param name the name of the dependency
+		 * @return the value of the dependency, might be {@code null}
+		 * 
+		 * @throws IllegalArgumentException if the value being initialized 
+		 * 		has not declared a dependency with the name
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T get(String name) {
+			if (!values.containsKey(name)) {
+				throw new IllegalArgumentException("Undeclared dependency: " + name);
+			}
+			return (T) values.get(name);
+		}
+
+		@Override
+		public String toString() {
+			return "Dependencies " + values.keySet();
+		}
+	}
+
+	private static final class Definition {
+
+		final String name;
+		final Function<? super Dependencies, ?> initializer;
+		final String[] dependencies;
+
+		Definition(String name, Function<? super Dependencies, ?> initializer, 
+				String[] dependencies) {
+			this.name = name;
+			this.initializer = initializer;
+			this.dependencies = dependencies;
+		}
+	}
+
+	/**
+	 * A value of the graph: waits for its dependencies, then initializes 
+	 * the value on the {@code Executor}.
+	 */
+	private static final class Node extends Lazy.AsyncInitializer<Object> {
+
+		private final LazyGraph graph;
+		private final Definition definition;
+		private final Executor executor;
+
+		Node(LazyGraph graph, Definition definition, Executor executor) {
+			this.graph = graph;
+			this.definition = definition;
+			this.executor = executor;
+		}
+
+		@Override
+		protected void startInitialization(final CompletableFuture<Object> result) {
+			final String[] dependencies = definition.dependencies;
+
+			// all dependencies are started before waiting for any of them
+			final CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+			for (int i = 0; i < dependencies.length; i++) {
+				dependencyFutures[i] = graph.nodes.get(dependencies[i]).get();
+			}
+
+			CompletableFuture.allOf(dependencyFutures).whenComplete(new BiConsumer<Void, Throwable>() {
+
+				public void accept(Void ignored, Throwable failure) {
+					if (failure != null) {
+						result.completeExceptionally(unwrap(failure));
+						return;
+					}
+
+					Map<String, Object> values = new HashMap<String, Object>();
+					for (int i = 0; i < dependencies.length; i++) {
+						values.put(dependencies[i], dependencyFutures[i].join());
+					}
+
+					initialize(new Dependencies(values), result);
+				}
+			});
+		}
+
+		private void initialize(final Dependencies dependencies, 
+				final CompletableFuture<Object> result) {
+			try {
+				executor.execute(new Runnable() {
+
+					public void run() {
+						try {
+							result.complete(definition.initializer.apply(dependencies));
+						} catch (Throwable t) {
+							result.completeExceptionally(t);
+						}
+					}
+				});
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return definition.name + " <- " + Arrays.toString(definition.dependencies);
+		}
+	}
+}
@@ -15,21 +15,57 @@
  */
 package org.magni.concurrent;
 
-import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 
-import javassist.util.proxy.MethodHandler;
-
+/**
+ * <p>
+ * The {@link ProxyTargetSource} of lazy initializer proxies.</p>
+ * 
+ * <p>
+ * Once the target has been initialized successfully, the proxy is switched
+ * to an {@link Initialized} target source, which simply returns the target:
+ * from that point on, invocations on the proxy no longer pass through
+ * {@link #get()} (no volatile read, no initialization check).</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
 class LazyInitializerProxy<T> extends CallableLazyInitializer<T>
-		implements MethodHandler {
+		implements ProxyTargetSource {
 
-	LazyInitializerProxy(Callable<T> initializerCallable) {
+	private final DelegatingProxy proxy;
+
+	LazyInitializerProxy(Callable<T> initializerCallable, DelegatingProxy proxy) {
 		super(initializerCallable);
+		this.proxy = proxy;
 	}
 
-	public Object invoke(Object self, Method overridden, Method forwarder,
-			Object[] args) throws Throwable {
-		
-		return overridden.invoke(get(), args);
+	public Object getTarget() {
+		T target = get();
+
+		if (proxy.getProxyTargetSource() == this) {
+			proxy.setProxyTargetSource(new Initialized(target));
+		}
+
+		return target;
+	}
+
+	/**
+	 * The target source of an initialized lazy proxy. The target is stored
+	 * in a {@code final} field: this guarantees that the target is seen 
+	 * properly initialized, even though the proxy field referencing this 
+	 * object is not {@code volatile}.
+	 */
+	static final class Initialized implements ProxyTargetSource {
+
+		private final Object target;
+
+		Initialized(Object target) {
+			this.target = target;
+		}
+
+		public Object getTarget() {
+			return target;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.function.IntSupplier;
+
+/**
+ * <p>
+ * A lazily initialized {@code int} value: the value is computed by the 
+ * supplied {@code IntSupplier} on the first invocation of {@link #getAsInt()}, 
+ * and is stored in a {@code int} field, without boxing.</p>
+ * 
+ * <p>
+ * The value is initialized at most once, by a single thread, while 
+ * concurrent callers wait for it; if the {@code IntSupplier} throws an 
+ * exception, the initialization is attempted again on the next access.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#lazyInt(IntSupplier)
+ */
+public final class LazyInt extends PrimitiveLazyInitializer<Integer, IntSupplier>
+		implements IntSupplier {
+
+	/**
+	 * Written before the state is published, read after it is observed.
+	 */
+	private int value;
+
+	LazyInt(IntSupplier initializer) {
+		super(initializer);
+	}
+
+	/**
+	 * Returns the value, initializing it first, if it has not been 
+	 * initialized yet.
+	 * 
+	 * @return the value
+	 * 
+	 * @throws IllegalStateException if invoked from the {@code IntSupplier}
+	 */
+	public int getAsInt() {
+		ensureInitialized();
+		return value;
+	}
+
+	/**
+	 * Returns the boxed value if it has been initialized, {@code null} 
+	 * otherwise. Does not initialize the value.
+	 * 
+	 * @return the boxed value, or {@code null} if it is not initialized
+	 */
+	public Integer getIfInitialized() {
+		return isInitialized() ? Integer.valueOf(value) : null;
+	}
+
+	@Override
+	void initializeValue(IntSupplier initializer) {
+		value = initializer.getAsInt();
+	}
+}
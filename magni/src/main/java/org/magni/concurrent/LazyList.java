@@ -16,22 +16,32 @@
 package org.magni.concurrent;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
 import java.util.ListIterator;
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * @author Peter G. Horvath
  *
  */
-class LazyList<T> extends CallableLazyInitializer<List<T>> implements List<T> {
+class LazyList<T> extends LazyCollectionInitializer<List<T>> implements List<T> {
 	
 	LazyList(Callable<List<T>> initializer) {
 		super(initializer);
 	}
 
+	LazyList(Callable<List<T>> initializer, int sizeHint) {
+		super(initializer, sizeHint);
+	}
+
 	public int size() {
 		return get().size();
 	}
@@ -131,4 +141,34 @@ class LazyList<T> extends CallableLazyInitializer<List<T>> implements List<T> {
 	public List<T> subList(int fromIndex, int toIndex) {
 		return get().subList(fromIndex, toIndex);
 	}
+
+	// the default methods are forwarded, to keep the optimized implementations of the delegate
+
+	public void forEach(Consumer<? super T> action) {
+		get().forEach(action);
+	}
+
+	public boolean removeIf(Predicate<? super T> filter) {
+		return get().removeIf(filter);
+	}
+
+	public Spliterator<T> spliterator() {
+		return get().spliterator();
+	}
+
+	public Stream<T> stream() {
+		return get().stream();
+	}
+
+	public Stream<T> parallelStream() {
+		return get().parallelStream();
+	}
+
+	public void replaceAll(UnaryOperator<T> operator) {
+		get().replaceAll(operator);
+	}
+
+	public void sort(Comparator<? super T> c) {
+		get().sort(c);
+	}
 }
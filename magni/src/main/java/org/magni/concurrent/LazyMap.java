@@ -4,13 +4,20 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-class LazyMap<K,V> extends CallableLazyInitializer<Map<K,V>> implements Map<K,V> {
+class LazyMap<K,V> extends LazyCollectionInitializer<Map<K,V>> implements Map<K,V> {
 	
 	LazyMap(Callable<Map<K, V>> initializer) {
 		super(initializer);
 	}
 
+	LazyMap(Callable<Map<K, V>> initializer, int sizeHint) {
+		super(initializer, sizeHint);
+	}
+
 	public int size() {
 		return get().size();
 	}
@@ -66,4 +73,50 @@ class LazyMap<K,V> extends CallableLazyInitializer<Map<K,V>> implements Map<K,V>
 	public int hashCode() {
 		return get().hashCode();
 	}
+
+	// the default methods are forwarded, to keep the optimized implementations of the delegate
+
+	public V getOrDefault(Object key, V defaultValue) {
+		return get().getOrDefault(key, defaultValue);
+	}
+
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		get().forEach(action);
+	}
+
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		get().replaceAll(function);
+	}
+
+	public V putIfAbsent(K key, V value) {
+		return get().putIfAbsent(key, value);
+	}
+
+	public boolean remove(Object key, Object value) {
+		return get().remove(key, value);
+	}
+
+	public boolean replace(K key, V oldValue, V newValue) {
+		return get().replace(key, oldValue, newValue);
+	}
+
+	public V replace(K key, V value) {
+		return get().replace(key, value);
+	}
+
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		return get().computeIfAbsent(key, mappingFunction);
+	}
+
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return get().computeIfPresent(key, remappingFunction);
+	}
+
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return get().compute(key, remappingFunction);
+	}
+
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return get().merge(key, value, remappingFunction);
+	}
 }
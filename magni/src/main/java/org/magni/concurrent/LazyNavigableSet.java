@@ -0,0 +1,188 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A lazily initialized {@code NavigableSet}.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class LazyNavigableSet<E> extends LazyCollectionInitializer<NavigableSet<E>> implements NavigableSet<E> {
+
+	LazyNavigableSet(Callable<NavigableSet<E>> initializer) {
+		super(initializer);
+	}
+
+	public int size() {
+		return get().size();
+	}
+
+	public boolean isEmpty() {
+		return get().isEmpty();
+	}
+
+	public boolean contains(Object o) {
+		return get().contains(o);
+	}
+
+	public Iterator<E> iterator() {
+		return get().iterator();
+	}
+
+	public Object[] toArray() {
+		return get().toArray();
+	}
+
+	public <A> A[] toArray(A[] a) {
+		return get().toArray(a);
+	}
+
+	public boolean add(E e) {
+		return get().add(e);
+	}
+
+	public boolean remove(Object o) {
+		return get().remove(o);
+	}
+
+	public boolean containsAll(Collection<?> c) {
+		return get().containsAll(c);
+	}
+
+	public boolean addAll(Collection<? extends E> c) {
+		return get().addAll(c);
+	}
+
+	public boolean removeAll(Collection<?> c) {
+		return get().removeAll(c);
+	}
+
+	public boolean retainAll(Collection<?> c) {
+		return get().retainAll(c);
+	}
+
+	public void clear() {
+		get().clear();
+	}
+
+	public boolean equals(Object o) {
+		return get().equals(o);
+	}
+
+	public int hashCode() {
+		return get().hashCode();
+	}
+
+	public void forEach(Consumer<? super E> action) {
+		get().forEach(action);
+	}
+
+	public boolean removeIf(Predicate<? super E> filter) {
+		return get().removeIf(filter);
+	}
+
+	public Spliterator<E> spliterator() {
+		return get().spliterator();
+	}
+
+	public Stream<E> stream() {
+		return get().stream();
+	}
+
+	public Stream<E> parallelStream() {
+		return get().parallelStream();
+	}
+
+	public Comparator<? super E> comparator() {
+		return get().comparator();
+	}
+
+	public SortedSet<E> subSet(E fromElement, E toElement) {
+		return get().subSet(fromElement, toElement);
+	}
+
+	public SortedSet<E> headSet(E toElement) {
+		return get().headSet(toElement);
+	}
+
+	public SortedSet<E> tailSet(E fromElement) {
+		return get().tailSet(fromElement);
+	}
+
+	public E first() {
+		return get().first();
+	}
+
+	public E last() {
+		return get().last();
+	}
+
+	public E lower(E e) {
+		return get().lower(e);
+	}
+
+	public E floor(E e) {
+		return get().floor(e);
+	}
+
+	public E ceiling(E e) {
+		return get().ceiling(e);
+	}
+
+	public E higher(E e) {
+		return get().higher(e);
+	}
+
+	public E pollFirst() {
+		return get().pollFirst();
+	}
+
+	public E pollLast() {
+		return get().pollLast();
+	}
+
+	public NavigableSet<E> descendingSet() {
+		return get().descendingSet();
+	}
+
+	public Iterator<E> descendingIterator() {
+		return get().descendingIterator();
+	}
+
+	public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+		return get().subSet(fromElement, fromInclusive, toElement, toInclusive);
+	}
+
+	public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+		return get().headSet(toElement, inclusive);
+	}
+
+	public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+		return get().tailSet(fromElement, inclusive);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * A lazily initialized instance per thread, for expensive objects that 
+ * are not thread-safe (formatters, digests, parsers): each thread creates 
+ * its own instance with the supplied {@code Callable} on its first 
+ * invocation of {@link #get()}.</p>
+ * 
+ * <p>
+ * The instances are kept until the thread terminates, {@link #remove()} is 
+ * invoked from the thread, or this object becomes unreachable. With a large 
+ * number of (short-lived, or pooled) threads, a bounded number of instances 
+ * shared through {@link LazyPool} is usually preferable.</p>
+ * 
+ * <p>
+ * As a {@link LazyValue}, it reflects the instance of the current thread.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#perThread(Callable)
+ * @see Lazy#pooled(Callable, int)
+ */
+public final class LazyPerThread<T> implements Supplier<T>, LazyValue<T> {
+
+	/**
+	 * Stands for a {@code null} instance: no initial value is supplied 
+	 * by the thread local, so that the instances can be inspected 
+	 * without creating them.
+	 */
+	private static final Object NULL_INSTANCE = new Object();
+
+	private final Callable<T> initializer;
+	private final ThreadLocal<Object> instances = new ThreadLocal<Object>();
+
+	LazyPerThread(Callable<T> initializer) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+		this.initializer = initializer;
+	}
+
+	/**
+	 * Returns the instance of the current thread, creating it first, if 
+	 * the thread has no instance yet.
+	 * 
+	 * @return the instance of the current thread
+	 * 
+	 * @throws LazyInitializerException in case the {@code Callable} fails; 
+	 * 		the creation is attempted again on the next invocation
+	 */
+	public T get() {
+		Object instance = instances.get();
+		if (instance == null) {
+			T newInstance = CallableLazyInitializer.call(initializer);
+			instances.set(newInstance != null ? newInstance : NULL_INSTANCE);
+
+			return newInstance;
+		}
+		return unwrap(instance);
+	}
+
+	/**
+	 * Returns {@code true} if the current thread has an instance.
+	 * 
+	 * @return {@code true} if the current thread has an instance, 
+	 * 		{@code false} otherwise
+	 */
+	public boolean isInitialized() {
+		return instances.get() != null;
+	}
+
+	/**
+	 * Returns the instance of the current thread, {@code null} if the 
+	 * thread has no instance. Does not create the instance.
+	 * 
+	 * @return the instance of the current thread, or {@code null}
+	 */
+	public T getIfInitialized() {
+		Object instance = instances.get();
+		return instance != null ? unwrap(instance) : null;
+	}
+
+	/**
+	 * Returns the size of the instance of the current thread, if it is 
+	 * a {@code Collection} or {@code Map}. Does not create the instance.
+	 * 
+	 * @return the size of the instance, {@code -1} if unknown
+	 */
+	public int getSizeHint() {
+		return Lazy.sizeOf(getIfInitialized());
+	}
+
+	/**
+	 * Drops the instance of the current thread, if there is one: the next 
+	 * invocation of {@link #get()} from the thread creates a new instance.
+	 */
+	public void remove() {
+		instances.remove();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T unwrap(Object instance) {
+		return instance != NULL_INSTANCE ? (T) instance : null;
+	}
+
+	@Override
+	public String toString() {
+		return "LazyPerThread [" + Thread.currentThread().getName() + "]";
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A bounded, striped pool of lazily created instances, for expensive 
+ * objects that are not thread-safe (formatters, digests, parsers): at most 
+ * one instance exists per stripe, and each instance is created with the 
+ * supplied {@code Callable} on the first borrow from its stripe.</p>
+ * 
+ * <p>
+ * Each stripe is a slot of an atomic array, holding either nothing (no 
+ * instance has been created yet), the available instance or a marker 
+ * while the instance is borrowed: an instance is borrowed and returned 
+ * with a single compare-and-set, without locking. A thread starts probing 
+ * at the stripe selected by the hash of its id, hence with enough stripes 
+ * threads rarely contend for the same instance.</p>
+ * 
+ * <p>
+ * A borrower first acquires one of as many permits as there are stripes, 
+ * hence it always finds an instance that is not borrowed. If every 
+ * instance is borrowed, the borrower retries acquiring a permit a few 
+ * times, yielding in between, then blocks until an instance is returned, 
+ * instead of spinning for as long as the borrowers hold the instances.</p>
+ * 
+ * <p>
+ * Unlike {@link LazyPerThread}, the number of instances does not grow with 
+ * the number of threads. {@link #apply(Function)} must not be invoked 
+ * recursively from the function: with every instance borrowed by the 
+ * current thread, it would never return.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#pooled(Callable, int)
+ */
+public final class LazyPool<T> {
+
+	private static final Object BORROWED = new Object();
+
+	/**
+	 * The number of attempts to acquire a permit before blocking.
+	 */
+	private static final int SPIN_TRIES = 16;
+
+	private final Callable<T> initializer;
+	private final AtomicReferenceArray<Object> stripes;
+	private final Semaphore permits;
+	private final AtomicInteger instanceCount = new AtomicInteger();
+
+	LazyPool(Callable<T> initializer, int stripeCount) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+		if (stripeCount < 1) {
+			throw new IllegalArgumentException("stripes must be positive: " + stripeCount);
+		}
+		this.initializer = initializer;
+		this.stripes = new AtomicReferenceArray<Object>(stripeCount);
+		this.permits = new Semaphore(stripeCount);
+	}
+
+	/**
+	 * Borrows an instance, applies the function to it and returns the 
+	 * instance to the pool, even if the function throws an exception.
+	 * 
+	 * @param function the function to apply to the instance; it must not 
+	 * 		retain the instance
+	 * @return the result of the function
+	 * 
+	 * @throws NullPointerException if function is {@code null}
+	 * @throws LazyInitializerException in case the instance has to be 
+	 * 		created and the {@code Callable} fails
+	 */
+	public <R> R apply(Function<? super T, ? extends R> function) {
+		if (function == null) {
+			throw new NullPointerException("function must not be null");
+		}
+
+		acquirePermit();
+		try {
+			int length = stripes.length();
+			int start = probe(length);
+
+			while (true) {
+				for (int i = 0; i < length; i++) {
+					int stripe = start + i < length ? start + i : start + i - length;
+
+					Object current = stripes.get(stripe);
+					if (current != BORROWED && stripes.compareAndSet(stripe, current, BORROWED)) {
+						@SuppressWarnings("unchecked")
+						T instance = current != null ? (T) current : create(stripe);
+						try {
+							return function.apply(instance);
+						} finally {
+							stripes.set(stripe, instance);
+						}
+					}
+				}
+				// the permit guarantees a free stripe: another permit 
+				// holder has just taken the one seen free, probe again
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void acquirePermit() {
+		for (int i = 0; i < SPIN_TRIES; i++) {
+			if (permits.tryAcquire()) {
+				return;
+			}
+			// every instance is borrowed: let the borrowers proceed
+			Thread.yield();
+		}
+		permits.acquireUninterruptibly();
+	}
+
+	/**
+	 * Returns the number of instances created so far.
+	 * 
+	 * @return the number of instances created; at most the number of stripes
+	 */
+	public int getInstanceCount() {
+		return instanceCount.get();
+	}
+
+	/**
+	 * Returns the number of stripes, which bounds the number of instances.
+	 * 
+	 * @return the number of stripes
+	 */
+	public int getStripeCount() {
+		return stripes.length();
+	}
+
+	/**
+	 * Creates the instance of a stripe marked as borrowed; in case of 
+	 * a failure, the stripe is left empty for the next borrower.
+	 */
+	private T create(int stripe) {
+		T instance = null;
+		try {
+			instance = CallableLazyInitializer.call(initializer);
+			if (instance == null) {
+				throw new NullPointerException("initializer returned null");
+			}
+			instanceCount.incrementAndGet();
+
+			return instance;
+		} finally {
+			if (instance == null) {
+				stripes.set(stripe, null);
+			}
+		}
+	}
+
+	/**
+	 * Selects the first stripe probed by the current thread, spreading 
+	 * the sequential thread ids over the stripes.
+	 */
+	private static int probe(int length) {
+		long id = Thread.currentThread().getId();
+		int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+		h ^= h >>> 16;
+
+		return (h & Integer.MAX_VALUE) % length;
+	}
+
+	@Override
+	public String toString() {
+		return "LazyPool [instances=" + instanceCount.get() + ", stripes=" + stripes.length() + "]";
+	}
+}
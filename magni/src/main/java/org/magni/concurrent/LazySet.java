@@ -3,14 +3,22 @@ package org.magni.concurrent;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-class LazySet<E> extends CallableLazyInitializer<Set<E>> implements Set<E> {
+class LazySet<E> extends LazyCollectionInitializer<Set<E>> implements Set<E> {
 
 	LazySet(Callable<Set<E>> initializer) {
 		super(initializer);
 	}
 
+	LazySet(Callable<Set<E>> initializer, int sizeHint) {
+		super(initializer, sizeHint);
+	}
+
 	public int size() {
 		return get().size();
 	}
@@ -71,4 +79,25 @@ class LazySet<E> extends CallableLazyInitializer<Set<E>> implements Set<E> {
 		return get().hashCode();
 	}
 
+	// the default methods are forwarded, to keep the optimized implementations of the delegate
+
+	public void forEach(Consumer<? super E> action) {
+		get().forEach(action);
+	}
+
+	public boolean removeIf(Predicate<? super E> filter) {
+		return get().removeIf(filter);
+	}
+
+	public Spliterator<E> spliterator() {
+		return get().spliterator();
+	}
+
+	public Stream<E> stream() {
+		return get().stream();
+	}
+
+	public Stream<E> parallelStream() {
+		return get().parallelStream();
+	}
 }
@@ -4,9 +4,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.SortedSet;
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-class LazySortedSet<E> extends CallableLazyInitializer<SortedSet<E>> implements SortedSet<E> {
+class LazySortedSet<E> extends LazyCollectionInitializer<SortedSet<E>> implements SortedSet<E> {
 	
 	LazySortedSet(Callable<SortedSet<E>> initializer) {
 		super(initializer);
@@ -96,4 +100,25 @@ class LazySortedSet<E> extends CallableLazyInitializer<SortedSet<E>> implements
 		return get().hashCode();
 	}
 
+	// the default methods are forwarded, to keep the optimized implementations of the delegate
+
+	public void forEach(Consumer<? super E> action) {
+		get().forEach(action);
+	}
+
+	public boolean removeIf(Predicate<? super E> filter) {
+		return get().removeIf(filter);
+	}
+
+	public Spliterator<E> spliterator() {
+		return get().spliterator();
+	}
+
+	public Stream<E> stream() {
+		return get().stream();
+	}
+
+	public Stream<E> parallelStream() {
+		return get().parallelStream();
+	}
 }
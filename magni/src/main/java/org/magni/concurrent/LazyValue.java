@@ -0,0 +1,59 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Implemented by the lazily initialized values of this package: allows 
+ * inspecting a value without initializing it, for example in monitoring 
+ * or serialization code, which should not force an expensive 
+ * initialization.</p>
+ * 
+ * <p>
+ * None of the methods initializes the value.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+public interface LazyValue<T> {
+
+	/**
+	 * Returns {@code true} if the value has been initialized (and has 
+	 * neither expired nor been garbage collected since).
+	 * 
+	 * @return {@code true} if the value is initialized, {@code false} otherwise
+	 */
+	boolean isInitialized();
+
+	/**
+	 * Returns the value if it has been initialized, {@code null} otherwise. 
+	 * (Named so, instead of {@code peek()}, not to clash with 
+	 * {@code Queue.peek()} of lazy queues.)
+	 * 
+	 * @return the value, or {@code null} if it is not initialized
+	 */
+	T getIfInitialized();
+
+	/**
+	 * Returns the estimated number of elements of a lazy collection or map: 
+	 * its actual size once it is initialized, otherwise the size hint supplied 
+	 * on its creation, if any.
+	 * 
+	 * @return the estimated number of elements, {@code -1} if unknown 
+	 * 		(or the value is not a collection or map)
+	 */
+	int getSizeHint();
+}
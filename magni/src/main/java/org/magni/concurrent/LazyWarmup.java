@@ -0,0 +1,363 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A registry of lazy values to initialize in the background, before they 
+ * are first accessed: the process starts fast, without the first requests 
+ * paying for all the initializations.</p>
+ * 
+ * <p>
+ * Lazy values are registered with a priority: once {@link #start()} is 
+ * invoked (after the startup, or when the service becomes idle), they are 
+ * initialized on the {@code Executor} in the order of decreasing priority 
+ * (values with equal priority in the order of registration), at most 
+ * {@code parallelism} at a time. {@link #pause()} stops starting new 
+ * initializations, for example once the service becomes busy again.</p>
+ * 
+ * <p>
+ * A value accessed by the application before its turn is simply found 
+ * initialized by the warm-up. The warm-up of each value is attempted once: 
+ * if it fails, the value is initialized on its first access, as usual.</p>
+ * 
+ * <p>
+ * {@link #getColdCount()} and {@link #getCompletion()} allow readiness 
+ * checks to wait for the warm-up. This class is thread safe.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+public final class LazyWarmup {
+
+	private final Executor executor;
+	private final int parallelism;
+
+	/**
+	 * The registered values not started yet; guarded by this.
+	 */
+	private final PriorityQueue<Task> pendingTasks = new PriorityQueue<Task>();
+
+	/**
+	 * Set while the current thread is dispatching: with an {@code Executor} 
+	 * running the tasks on the calling thread, the completion of a task 
+	 * leaves starting the next ones to the dispatch loop, instead of 
+	 * starting them recursively.
+	 */
+	private final ThreadLocal<Boolean> dispatching = new ThreadLocal<Boolean>();
+
+	private boolean started;
+	private int runningCount;
+	private int coldCount;
+	private int failedCount;
+	private long registrationCount;
+	private CompletableFuture<Void> completion = CompletableFuture.completedFuture(null);
+
+	private LazyWarmup(Executor executor, int parallelism) {
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Creates a new, empty warm-up registry.
+	 * 
+	 * @param executor the {@code Executor} to initialize the values on
+	 * @param parallelism the maximum number of values initialized 
+	 * 		at the same time
+	 * @return the new warm-up registry
+	 * 
+	 * @throws NullPointerException if executor is {@code null}
+	 * @throws IllegalArgumentException if parallelism is not positive
+	 */
+	public static LazyWarmup create(Executor executor, int parallelism) {
+		if (executor == null) {
+			throw new NullPointerException("executor must not be null");
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		return new LazyWarmup(executor, parallelism);
+	}
+
+	/**
+	 * Registers a {@link Lazy.Initializer} to warm up.
+	 * 
+	 * @param initializer the {@link Lazy.Initializer} to initialize
+	 * @param priority the priority of the value; higher priority 
+	 * 		values are initialized first
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public void register(final Lazy.Initializer<?> initializer, int priority) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		register(new Runnable() {
+
+			public void run() {
+				initializer.get();
+			}
+
+			@Override
+			public String toString() {
+				return initializer.toString();
+			}
+		}, priority);
+	}
+
+	/**
+	 * Registers a {@link Lazy.AsyncInitializer} to warm up. It occupies 
+	 * one of the {@code parallelism} slots, until its value is initialized.
+	 * 
+	 * @param initializer the {@link Lazy.AsyncInitializer} to initialize
+	 * @param priority the priority of the value; higher priority 
+	 * 		values are initialized first
+	 * 
+	 * @throws NullPointerException if initializer is {@code null}
+	 */
+	public void register(final Lazy.AsyncInitializer<?> initializer, int priority) {
+		if (initializer == null) {
+			throw new NullPointerException("initializer must not be null");
+		}
+
+		register(new Runnable() {
+
+			public void run() {
+				initializer.get().join();
+			}
+
+			@Override
+			public String toString() {
+				return initializer.toString();
+			}
+		}, priority);
+	}
+
+	/**
+	 * Registers a proxy created by one of the {@code lazyInitializerProxy} 
+	 * methods of {@link Lazy} to warm up: the target of the proxy is 
+	 * initialized, without invoking any of its methods.
+	 * 
+	 * @param proxy the proxy to initialize the target of
+	 * @param priority the priority of the proxy; higher priority 
+	 * 		values are initialized first
+	 * 
+	 * @throws NullPointerException if proxy is {@code null}
+	 * @throws IllegalArgumentException if proxy has not been created 
+	 * 		by {@link Lazy}
+	 */
+	public void registerProxy(Object proxy, int priority) {
+		if (proxy == null) {
+			throw new NullPointerException("proxy must not be null");
+		}
+		if (!Lazy.isLazyProxy(proxy)) {
+			throw new IllegalArgumentException("Not a lazy proxy: " + proxy.getClass().getName());
+		}
+
+		final DelegatingProxy delegatingProxy = (DelegatingProxy) proxy;
+		register(new Runnable() {
+
+			public void run() {
+				delegatingProxy.getProxyTargetSource().getTarget();
+			}
+		}, priority);
+	}
+
+	/**
+	 * Registers an arbitrary warm-up action, for example one accessing a 
+	 * {@link LazyInt}, or a {@link LazyCache} with the keys known to be hot.
+	 * 
+	 * @param warmup the action initializing the value
+	 * @param priority the priority of the action; higher priority 
+	 * 		actions are run first
+	 * 
+	 * @throws NullPointerException if warmup is {@code null}
+	 */
+	public void register(Runnable warmup, int priority) {
+		if (warmup == null) {
+			throw new NullPointerException("warmup must not be null");
+		}
+
+		synchronized (this) {
+			pendingTasks.add(new Task(warmup, priority, registrationCount++));
+			coldCount++;
+
+			if (completion.isDone()) {
+				completion = new CompletableFuture<Void>();
+			}
+		}
+		dispatch();
+	}
+
+	/**
+	 * Starts (or resumes) the warm-up of the registered values.
+	 */
+	public void start() {
+		synchronized (this) {
+			started = true;
+		}
+		dispatch();
+	}
+
+	/**
+	 * Pauses the warm-up: no new initialization is started until 
+	 * {@link #start()} is invoked again. The initializations in progress 
+	 * are not interrupted.
+	 */
+	public synchronized void pause() {
+		started = false;
+	}
+
+	/**
+	 * Returns the number of registered values, which have not been warmed 
+	 * up successfully yet, including the ones with a failed warm-up.
+	 * 
+	 * @return the number of cold values
+	 */
+	public synchronized int getColdCount() {
+		return coldCount;
+	}
+
+	/**
+	 * Returns the number of registered values, the warm-up of 
+	 * which has failed.
+	 * 
+	 * @return the number of failed warm-ups
+	 */
+	public synchronized int getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * Returns a future, which is completed once the warm-up of all values 
+	 * registered so far has been attempted. (It is never completed 
+	 * exceptionally: failures are reported by {@link #getFailedCount()}.)
+	 * 
+	 * @return the future of the completion of the warm-up
+	 */
+	public synchronized CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * Starts as many pending tasks, as the parallelism allows, until no 
+	 * more can be started. The tasks are submitted outside of the monitor: 
+	 * the {@code Executor} might run them on the calling thread.
+	 */
+	private void dispatch() {
+		if (dispatching.get() != null) {
+			// invoked from a task run by the dispatch loop of the 
+			// current thread: the loop starts the next tasks
+			return;
+		}
+
+		dispatching.set(Boolean.TRUE);
+		try {
+			List<Task> tasksToRun;
+			do {
+				tasksToRun = new ArrayList<Task>();
+				synchronized (this) {
+					while (started && runningCount < parallelism && !pendingTasks.isEmpty()) {
+						tasksToRun.add(pendingTasks.poll());
+						runningCount++;
+					}
+				}
+
+				for (Task task : tasksToRun) {
+					try {
+						executor.execute(task);
+					} catch (RuntimeException e) {
+						taskCompleted(false);
+					}
+				}
+			} while (!tasksToRun.isEmpty());
+		} finally {
+			dispatching.remove();
+		}
+	}
+
+	private void taskCompleted(boolean succeeded) {
+		CompletableFuture<Void> completedFuture = null;
+		synchronized (this) {
+			runningCount--;
+			if (succeeded) {
+				coldCount--;
+			} else {
+				failedCount++;
+			}
+
+			if (runningCount == 0 && pendingTasks.isEmpty()) {
+				completedFuture = completion;
+			}
+		}
+
+		if (completedFuture != null) {
+			completedFuture.complete(null);
+		}
+		dispatch();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "LazyWarmup [started=" + started + ", coldCount=" + coldCount 
+				+ ", failedCount=" + failedCount + "]";
+	}
+
+	private final class Task implements Runnable, Comparable<Task> {
+
+		private final Runnable warmup;
+		private final int priority;
+		private final long sequenceNumber;
+
+		Task(Runnable warmup, int priority, long sequenceNumber) {
+			this.warmup = warmup;
+			this.priority = priority;
+			this.sequenceNumber = sequenceNumber;
+		}
+
+		public void run() {
+			boolean succeeded = false;
+			try {
+				warmup.run();
+				succeeded = true;
+			} catch (RuntimeException e) {
+				// the value is initialized on its first access instead
+			} finally {
+				taskCompleted(succeeded);
+			}
+		}
+
+		public int compareTo(Task other) {
+			if (priority != other.priority) {
+				return priority > other.priority ? -1 : 1;
+			}
+			return sequenceNumber < other.sequenceNumber ? -1 : 
+				(sequenceNumber == other.sequenceNumber ? 0 : 1);
+		}
+
+		@Override
+		public String toString() {
+			return warmup + " (priority " + priority + ")";
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * An unmodifiable {@code List}, which loads its elements page by page, 
+ * when an index of the page is accessed.</p>
+ * 
+ * <p>
+ * Each page is loaded by a {@link Lazy.Initializer}: concurrent accesses 
+ * of the same page share a single load, and a failed load is attempted 
+ * again on the next access. At most {@code maxResidentPages} pages are 
+ * kept: the least recently used page is discarded, once a new page is 
+ * loaded beyond the limit. The size is determined on its first use.</p>
+ * 
+ * <p>
+ * As a {@link LazyValue}, the list counts as initialized once its size is 
+ * determined. {@link #toString()} reports the size and the number of the 
+ * resident pages, without loading any page.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class PagedLazyList<E> extends AbstractList<E> implements RandomAccess, LazyValue<List<E>> {
+
+	private final IntFunction<List<E>> pageLoader;
+	private final int pageSize;
+	private final LazyLong size;
+
+	/**
+	 * The resident pages in access order; guarded by itself.
+	 */
+	private final Map<Integer, Page> pages;
+
+	PagedLazyList(IntFunction<List<E>> pageLoader, int pageSize, 
+			LongSupplier sizeSupplier, final int maxResidentPages) {
+		if (pageLoader == null) {
+			throw new NullPointerException("pageLoader must not be null");
+		}
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+		}
+		if (maxResidentPages <= 0) {
+			throw new IllegalArgumentException("maxResidentPages must be positive: " + maxResidentPages);
+		}
+		this.pageLoader = pageLoader;
+		this.pageSize = pageSize;
+		this.size = new LazyLong(sizeSupplier);
+		this.pages = new LinkedHashMap<Integer, Page>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+				return size() > maxResidentPages;
+			}
+		};
+	}
+
+	/**
+	 * Returns the size supplied by the size supplier; lists larger 
+	 * than {@code Integer.MAX_VALUE} report {@code Integer.MAX_VALUE}, 
+	 * just like other collections.
+	 */
+	@Override
+	public int size() {
+		long currentSize = size.getAsLong();
+		if (currentSize < 0) {
+			throw new IllegalStateException("Negative size: " + currentSize);
+		}
+		return (int) Math.min(currentSize, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+
+		return getPage(index / pageSize).get().get(index % pageSize);
+	}
+
+	public boolean isInitialized() {
+		return size.isInitialized();
+	}
+
+	public List<E> getIfInitialized() {
+		return isInitialized() ? this : null;
+	}
+
+	public int getSizeHint() {
+		Long currentSize = size.getIfInitialized();
+		return currentSize != null && currentSize >= 0 ? 
+				(int) Math.min(currentSize, Integer.MAX_VALUE) : LazyCollectionInitializer.UNKNOWN_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		Long currentSize = size.getIfInitialized();
+
+		return "PagedLazyList (" + (currentSize != null ? "size: " + currentSize : "size not determined") 
+				+ ", resident pages: " + getResidentPageCount() + ")";
+	}
+
+	private Page getPage(int pageIndex) {
+		Integer key = Integer.valueOf(pageIndex);
+
+		synchronized (pages) {
+			Page page = pages.get(key);
+			if (page == null) {
+				page = new Page(pageIndex);
+				pages.put(key, page);
+			}
+			return page;
+		}
+	}
+
+	/**
+	 * Returns the number of the pages currently kept.
+	 * 
+	 * @return the number of resident pages
+	 */
+	int getResidentPageCount() {
+		synchronized (pages) {
+			return pages.size();
+		}
+	}
+
+	private final class Page extends Lazy.Initializer<List<E>> {
+
+		private final int pageIndex;
+
+		Page(int pageIndex) {
+			this.pageIndex = pageIndex;
+		}
+
+		@Override
+		protected List<E> initializeValue() {
+			List<E> page = pageLoader.apply(pageIndex);
+
+			long expectedSize = Math.min(pageSize, size() - (long) pageIndex * pageSize);
+			if (page == null || page.size() < expectedSize) {
+				throw new IllegalStateException("Page " + pageIndex + " has " 
+						+ (page == null ? "no" : String.valueOf(page.size())) 
+						+ " elements, expected " + expectedSize);
+			}
+			return page;
+		}
+	}
+}
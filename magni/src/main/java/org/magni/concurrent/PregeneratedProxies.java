@@ -0,0 +1,67 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * Looks up the proxy classes generated at compile time by 
+ * {@link PregeneratedProxyProcessor}.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+final class PregeneratedProxies {
+
+	/**
+	 * Suffix appended to the binary name of the proxied type to
+	 * get the name of the pregenerated proxy class.
+	 */
+	static final String CLASS_NAME_SUFFIX = "_MagniProxy";
+
+	private PregeneratedProxies() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Returns the pregenerated proxy class for the given target class,
+	 * or {@code null} if there is none.
+	 * 
+	 * @param targetClass the proxied class
+	 * @return the pregenerated proxy class or {@code null}
+	 */
+	static Class<?> findProxyClass(Class<?> targetClass) {
+		ClassLoader classLoader = targetClass.getClassLoader();
+		if (classLoader == null) {
+			// JDK classes are never annotated
+			return null;
+		}
+
+		try {
+			Class<?> proxyClass = Class.forName(
+					targetClass.getName() + CLASS_NAME_SUFFIX, false, classLoader);
+
+			if (DelegatingProxy.class.isAssignableFrom(proxyClass) &&
+					targetClass.isAssignableFrom(proxyClass)) {
+				return proxyClass;
+			}
+			return null;
+
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+}
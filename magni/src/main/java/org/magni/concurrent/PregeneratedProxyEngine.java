@@ -0,0 +1,73 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * {@link ProxyEngine} instantiating the proxy classes generated at compile 
+ * time by {@link PregeneratedProxyProcessor}: it neither generates bytecode 
+ * nor defines classes at runtime.</p>
+ * 
+ * <p>
+ * Pregenerated proxy classes ignore {@code finalize()}, hence this engine 
+ * can only be used with the default method filter. It is consulted by 
+ * {@link ProxyEngines} before any other engine is selected.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class PregeneratedProxyEngine implements ProxyEngine {
+
+	private static final ClassValue<Class<?>> PROXY_CLASS_BY_TARGET_CLASS =
+			new ClassValue<Class<?>>() {
+
+		@Override
+		protected Class<?> computeValue(Class<?> targetClass) {
+			return PregeneratedProxies.findProxyClass(targetClass);
+		}
+	};
+
+	public boolean canProxy(Class<?> targetClass) {
+		return PROXY_CLASS_BY_TARGET_CLASS.get(targetClass) != null;
+	}
+
+	/**
+	 * Returns {@code true} if this engine can create proxies for the 
+	 * given class with the given method filter.
+	 */
+	boolean canProxy(Class<?> targetClass, ProxyMethodFilter methodFilter) {
+		return methodFilter == Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER && canProxy(targetClass);
+	}
+
+	public <T> T newProxyInstance(Class<T> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception {
+
+		if (!canProxy(targetClass, methodFilter)) {
+			throw new IllegalArgumentException("No pregenerated proxy class for " + targetClass + 
+					" and " + methodFilter);
+		}
+
+		@SuppressWarnings("unchecked")
+		Class<T> proxyClass = (Class<T>) PROXY_CLASS_BY_TARGET_CLASS.get(targetClass);
+
+		return ProxyInstantiator.newInstance(proxyClass);
+	}
+
+	@Override
+	public String toString() {
+		return "pregenerated proxy engine";
+	}
+}
@@ -0,0 +1,400 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * <p>
+ * Annotation processor generating the proxy classes for types annotated
+ * with {@link LazyProxy} or {@link ThreadConfined} at compile time.</p>
+ *
+ * <p>
+ * The generated class is named after the binary name of the annotated type
+ * with the suffix {@value PregeneratedProxies#CLASS_NAME_SUFFIX}, and it is
+ * placed in the same package. Just like the classes generated at runtime,
+ * it implements {@link DelegatingProxy} and forwards each overridable
+ * method directly to the object returned by its {@link ProxyTargetSource}
+ * (except {@code finalize()}, which is never proxied by default).</p>
+ *
+ * <p>
+ * The signatures of the methods are resolved as members of the annotated
+ * type: the type arguments of parameterized supertypes are substituted
+ * (a method inherited from {@code Supplier<String>} returns {@code String}).
+ * Members of generic annotated types, and generic methods, are declared
+ * with their erasure, since the proxy class extends the raw type.</p>
+ *
+ * <p>
+ * The generated class has a public no-argument constructor, invoked where 
+ * proxies cannot be allocated without running constructors. If the 
+ * annotated class has no such constructor, the generated one passes the 
+ * default values ({@code null}, zero or {@code false}) to a constructor 
+ * of the annotated class.</p>
+ *
+ * <p>
+ * {@code protected} methods inherited from a class in a different package
+ * cannot be invoked on the target from source code, hence they are not
+ * proxied by pregenerated classes.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+public class PregeneratedProxyProcessor extends AbstractProcessor {
+
+	private static final String GENERATOR_NAME = PregeneratedProxyProcessor.class.getName();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		Set<String> supportedAnnotationTypes = new HashSet<String>();
+		supportedAnnotationTypes.add(LazyProxy.class.getCanonicalName());
+		supportedAnnotationTypes.add(ThreadConfined.class.getCanonicalName());
+
+		return supportedAnnotationTypes;
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+
+		Set<TypeElement> proxiedTypes = new LinkedHashSet<TypeElement>();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement) {
+					proxiedTypes.add((TypeElement) element);
+				}
+			}
+		}
+
+		for (TypeElement proxiedType : proxiedTypes) {
+			if (isProxiable(proxiedType)) {
+				try {
+					generateProxyClass(proxiedType);
+				} catch (IOException e) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"Failed to generate proxy class: " + e, proxiedType);
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean isProxiable(TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+
+		String problem = null;
+		if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.INTERFACE) {
+			problem = "only classes and interfaces can be proxied";
+		} else if (modifiers.contains(Modifier.FINAL)) {
+			problem = "final classes cannot be proxied";
+		} else if (modifiers.contains(Modifier.PRIVATE)) {
+			problem = "private classes cannot be proxied";
+		} else if (type.getNestingKind() != NestingKind.TOP_LEVEL &&
+				!modifiers.contains(Modifier.STATIC) && type.getKind() == ElementKind.CLASS) {
+			problem = "inner (non-static nested) classes cannot be proxied";
+		} else if (type.getKind() == ElementKind.CLASS && findConstructor(type) == null) {
+			problem = "the class has no non-private constructor";
+		}
+
+		if (problem != null) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, problem, type);
+			return false;
+		}
+		return true;
+	}
+
+	private void generateProxyClass(TypeElement type) throws IOException {
+
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = packageElement.getQualifiedName().toString();
+
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		String simpleName = (packageName.isEmpty() ? binaryName :
+			binaryName.substring(packageName.length() + 1)) + PregeneratedProxies.CLASS_NAME_SUFFIX;
+
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+		String targetTypeName = erasure(type.asType());
+		boolean isInterface = type.getKind() == ElementKind.INTERFACE;
+
+		StringBuilder source = new StringBuilder();
+
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+
+		source.append("/**\n * Proxy class for {@link ").append(targetTypeName)
+			.append("}, generated by ").append(GENERATOR_NAME).append(".\n */\n");
+		source.append("@SuppressWarnings({ \"rawtypes\", \"unchecked\", \"deprecation\" })\n");
+		source.append("public class ").append(simpleName);
+		if (isInterface) {
+			source.append(" implements ").append(targetTypeName).append(", ");
+		} else {
+			source.append(" extends ").append(targetTypeName).append(" implements ");
+		}
+		source.append(DelegatingProxy.class.getName()).append(" {\n\n");
+
+		source.append("\tprivate ").append(ProxyTargetSource.class.getName())
+			.append(" magni$targetSource;\n\n");
+
+		if (!isInterface) {
+			appendConstructor(source, simpleName, findConstructor(type));
+		}
+
+		source.append("\tpublic ").append(ProxyTargetSource.class.getName())
+			.append(" getProxyTargetSource() {\n\t\treturn magni$targetSource;\n\t}\n\n");
+		source.append("\tpublic void setProxyTargetSource(").append(ProxyTargetSource.class.getName())
+			.append(" targetSource) {\n\t\tthis.magni$targetSource = targetSource;\n\t}\n");
+
+		// generic types are proxied by extending the raw type: resolve the members as such
+		DeclaredType containingType = (DeclaredType) (type.getTypeParameters().isEmpty() ?
+				type.asType() : processingEnv.getTypeUtils().erasure(type.asType()));
+
+		Set<String> processedSignatures = new HashSet<String>();
+		for (ExecutableElement method : getProxiedMethods(type)) {
+			ExecutableType methodType = resolve(containingType, method);
+			if (processedSignatures.add(signatureOf(method, methodType))) {
+				appendForwardingMethod(source, targetTypeName, method, methodType);
+			}
+		}
+
+		source.append("}\n");
+
+		JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+		Writer writer = sourceFile.openWriter();
+		try {
+			writer.write(source.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	private Set<ExecutableElement> getProxiedMethods(TypeElement type) {
+		PackageElement typePackage = processingEnv.getElementUtils().getPackageOf(type);
+
+		Set<ExecutableElement> methods = new LinkedHashSet<ExecutableElement>();
+
+		List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(type);
+		if (type.getKind() == ElementKind.INTERFACE) {
+			// the public methods of Object are proxied for interfaces too
+			TypeElement objectType = processingEnv.getElementUtils().getTypeElement("java.lang.Object");
+			members = concat(members, processingEnv.getElementUtils().getAllMembers(objectType));
+		}
+
+		for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+			Set<Modifier> modifiers = method.getModifiers();
+
+			if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL) ||
+					modifiers.contains(Modifier.PRIVATE)) {
+				continue;
+			}
+
+			boolean samePackage = typePackage.equals(
+					processingEnv.getElementUtils().getPackageOf(method));
+
+			if (!modifiers.contains(Modifier.PUBLIC) && !samePackage) {
+				// protected methods from another package cannot be invoked
+				// on the target, package-private ones cannot be overridden
+				continue;
+			}
+
+			if (method.getSimpleName().contentEquals("finalize") && method.getParameters().isEmpty()) {
+				continue;
+			}
+
+			methods.add(method);
+		}
+
+		return methods;
+	}
+
+	private void appendConstructor(StringBuilder source, String simpleName,
+			ExecutableElement superConstructor) {
+
+		List<? extends VariableElement> parameters = superConstructor.getParameters();
+
+		if (parameters.isEmpty()) {
+			source.append("\tpublic ").append(simpleName).append("() {\n\t\tsuper();\n\t}\n\n");
+		} else {
+			// only invoked where proxies cannot be allocated without running 
+			// constructors: public, so that ProxyInstantiator can invoke it
+			source.append("\tpublic ").append(simpleName).append("()");
+			appendThrows(source, superConstructor.getThrownTypes());
+			source.append(" {\n\t\tsuper(");
+			for (int i = 0; i < parameters.size(); i++) {
+				if (i > 0) {
+					source.append(", ");
+				}
+				source.append(defaultValueOf(parameters.get(i).asType()));
+			}
+			source.append(");\n\t}\n\n");
+		}
+	}
+
+	private void appendForwardingMethod(StringBuilder source, String targetTypeName,
+			ExecutableElement method, ExecutableType methodType) {
+
+		Set<Modifier> modifiers = method.getModifiers();
+		String returnType = methodType.getReturnType().toString();
+		List<? extends TypeMirror> parameters = methodType.getParameterTypes();
+
+		source.append("\n\t@Override\n\t");
+		if (modifiers.contains(Modifier.PUBLIC)) {
+			source.append("public ");
+		} else if (modifiers.contains(Modifier.PROTECTED)) {
+			source.append("protected ");
+		}
+		source.append(returnType).append(' ').append(method.getSimpleName()).append('(');
+		for (int i = 0; i < parameters.size(); i++) {
+			if (i > 0) {
+				source.append(", ");
+			}
+			TypeMirror parameterType = parameters.get(i);
+			if (method.isVarArgs() && i == parameters.size() - 1 &&
+					parameterType.getKind() == TypeKind.ARRAY) {
+				source.append(((ArrayType) parameterType).getComponentType()).append("...");
+			} else {
+				source.append(parameterType);
+			}
+			source.append(" a").append(i);
+		}
+		source.append(')');
+		appendThrows(source, methodType.getThrownTypes());
+
+		source.append(" {\n\t\t");
+		if (methodType.getReturnType().getKind() != TypeKind.VOID) {
+			source.append("return ");
+		}
+		source.append("((").append(targetTypeName).append(") magni$targetSource.getTarget()).")
+			.append(method.getSimpleName()).append('(');
+		for (int i = 0; i < parameters.size(); i++) {
+			if (i > 0) {
+				source.append(", ");
+			}
+			source.append('a').append(i);
+		}
+		source.append(");\n\t}\n");
+	}
+
+	private void appendThrows(StringBuilder source, List<? extends TypeMirror> thrownTypes) {
+		for (int i = 0; i < thrownTypes.size(); i++) {
+			source.append(i == 0 ? " throws " : ", ").append(erasure(thrownTypes.get(i)));
+		}
+	}
+
+	/**
+	 * Returns the no-argument constructor if it is not private,
+	 * otherwise the first non-private constructor.
+	 */
+	private static ExecutableElement findConstructor(TypeElement type) {
+		ExecutableElement found = null;
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				if (constructor.getParameters().isEmpty()) {
+					return constructor;
+				}
+				if (found == null) {
+					found = constructor;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the type of the method as a member of the containing type;
+	 * generic methods are erased, as their type variables are not declared
+	 * by the generated method.
+	 */
+	private ExecutableType resolve(DeclaredType containingType, ExecutableElement method) {
+		TypeMirror methodType = processingEnv.getTypeUtils().asMemberOf(containingType, method);
+		if (!method.getTypeParameters().isEmpty()) {
+			methodType = processingEnv.getTypeUtils().erasure(methodType);
+		}
+		return (ExecutableType) methodType;
+	}
+
+	private String signatureOf(ExecutableElement method, ExecutableType methodType) {
+		StringBuilder signature = new StringBuilder(method.getSimpleName());
+		for (TypeMirror parameterType : methodType.getParameterTypes()) {
+			signature.append(',').append(erasure(parameterType));
+		}
+		return signature.toString();
+	}
+
+	private String defaultValueOf(TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN:
+				return "false";
+			case CHAR:
+				return "'\\0'";
+			case BYTE:
+			case SHORT:
+				return "(" + type.getKind().name().toLowerCase() + ") 0";
+			case INT:
+				return "0";
+			case LONG:
+				return "0L";
+			case FLOAT:
+				return "0F";
+			case DOUBLE:
+				return "0D";
+			default:
+				return "(" + erasure(type) + ") null";
+		}
+	}
+
+	private String erasure(TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	private static List<Element> concat(List<? extends Element> first, List<? extends Element> second) {
+		List<Element> result = new ArrayList<Element>(first);
+		result.addAll(second);
+		return result;
+	}
+}
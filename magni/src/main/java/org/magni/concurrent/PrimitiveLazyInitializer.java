@@ -0,0 +1,137 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>
+ * Base class of the lazy holders of primitive values: the value is stored 
+ * in a primitive field of the subclass, while this class tracks whether it 
+ * has been initialized.</p>
+ * 
+ * <p>
+ * Provides the same semantics as {@link Lazy.Initializer}, sharing its 
+ * {@link InitializationLatch} protocol: the value is initialized at most 
+ * once, by a single thread, while concurrent callers wait without holding 
+ * a monitor. If the initialization fails, it is attempted again on the 
+ * next access.</p>
+ * 
+ * @param <T> the boxed type of the value
+ * @param <F> the type of the function initializing the value
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+abstract class PrimitiveLazyInitializer<T, F> implements LazyValue<T> {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<PrimitiveLazyInitializer, Object> STATE_UPDATER = 
+			AtomicReferenceFieldUpdater.newUpdater(PrimitiveLazyInitializer.class, Object.class, "state");
+
+	private static final Object INITIALIZED = new Object();
+
+	/**
+	 * {@code null} if the value is not initialized, the 
+	 * {@link InitializationLatch} while the initialization is in progress, 
+	 * {@link #INITIALIZED} once the value is initialized. Written after the 
+	 * value field, hence reading {@link #INITIALIZED} guarantees that the 
+	 * value field is visible.
+	 */
+	private volatile Object state;
+
+	/**
+	 * The function to initialize the value with; released once the value 
+	 * is initialized.
+	 */
+	private final InitializerReference<F> initializer;
+
+	PrimitiveLazyInitializer(F initializer) {
+		this.initializer = new InitializerReference<F>(initializer);
+	}
+
+	/**
+	 * Returns {@code true} if the value has been initialized.
+	 * 
+	 * @return {@code true} if the value has been initialized, 
+	 * 		{@code false} otherwise
+	 */
+	public final boolean isInitialized() {
+		return state == INITIALIZED;
+	}
+
+	/**
+	 * Returns {@code -1}: primitive values have no size.
+	 * 
+	 * @return {@code -1}
+	 */
+	public final int getSizeHint() {
+		return LazyCollectionInitializer.UNKNOWN_SIZE;
+	}
+
+	/**
+	 * Initializes the value, unless it has already been initialized.
+	 * 
+	 * @throws IllegalStateException if invoked from {@link #initializeValue(Object)}
+	 */
+	final void ensureInitialized() {
+		if (state != INITIALIZED) {
+			initializeOrAwait();
+		}
+	}
+
+	private void initializeOrAwait() {
+		while (true) {
+			Object currentState = state;
+
+			if (currentState == INITIALIZED) {
+				return;
+			} else if (currentState == null) {
+				InitializationLatch newLatch = InitializationLatch.install(STATE_UPDATER, this, null);
+				if (newLatch != null) {
+					initialize(newLatch);
+					return;
+				}
+			} else {
+				((InitializationLatch) currentState).awaitCompletion(false, 0);
+			}
+		}
+	}
+
+	private void initialize(InitializationLatch latch) {
+		boolean initialized = false;
+		try {
+			initializeValue(initializer.get());
+			initialized = true;
+		} finally {
+			// if the initialization failed, it is attempted again on the next access
+			latch.complete(STATE_UPDATER, this, initialized ? INITIALIZED : null);
+		}
+		initializer.release();
+	}
+
+	/**
+	 * Initializes the value with the function, and stores it in the 
+	 * primitive field of the subclass. Invoked by a single thread at a time.
+	 */
+	abstract void initializeValue(F initializer);
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + (isInitialized() ? 
+				" [value=" + getIfInitialized() + "]" : " [not initialized]");
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * A concurrent cache of generated proxy classes, keyed by the
+ * target class and the identity of the {@link ProxyMethodFilter}
+ * used to create them.</p>
+ *
+ * <p>
+ * Both the target class and the filter are only weakly referenced
+ * by the keys, and the generated proxy classes are only weakly
+ * referenced by the values. (A generated class is kept alive by its
+ * defining {@code ClassLoader}, hence the entry remains valid for as
+ * long as the target class is reachable.) This way the cache never
+ * prevents a {@code ClassLoader} from being garbage collected on
+ * redeployment.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class ProxyClassCache {
+
+	private final ConcurrentMap<Object, WeakReference<Class<?>>> proxyClasses =
+			new ConcurrentHashMap<Object, WeakReference<Class<?>>>();
+
+	private final boolean hiddenClasses;
+
+	/**
+	 * Creates a new proxy class cache.
+	 *
+	 * @param hiddenClasses {@code true} if the generated proxy classes
+	 * 		should be defined as hidden classes, {@code false} otherwise
+	 */
+	ProxyClassCache(boolean hiddenClasses) {
+		this.hiddenClasses = hiddenClasses;
+	}
+
+	/**
+	 * Returns the proxy class for the given target class and method filter,
+	 * generating and caching it on the first request.
+	 *
+	 * @param targetClass the class to proxy
+	 * @param methodFilter the method filter to use, might be {@code null}
+	 * @return the (cached) proxy class
+	 *
+	 * @throws Exception in case the proxy class could not be generated
+	 */
+	Class<?> getProxyClass(Class<?> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception {
+
+		WeakReference<Class<?>> reference =
+				proxyClasses.get(new LookupKey(targetClass, methodFilter));
+
+		Class<?> proxyClass = reference != null ? reference.get() : null;
+		if (proxyClass == null) {
+			proxyClass = createAndCacheProxyClass(targetClass, methodFilter);
+		}
+
+		return proxyClass;
+	}
+
+	private synchronized Class<?> createAndCacheProxyClass(
+			Class<?> targetClass, ProxyMethodFilter methodFilter) throws Exception {
+
+		// re-check: another thread might have created the class meanwhile
+		WeakReference<Class<?>> reference =
+				proxyClasses.get(new LookupKey(targetClass, methodFilter));
+
+		Class<?> proxyClass = reference != null ? reference.get() : null;
+		if (proxyClass == null) {
+			expungeStaleEntries();
+
+			proxyClass = createProxyClass(targetClass, methodFilter);
+
+			proxyClasses.put(new CacheKey(targetClass, methodFilter),
+					new WeakReference<Class<?>>(proxyClass));
+		}
+
+		return proxyClass;
+	}
+
+	private Class<?> createProxyClass(
+			Class<?> targetClass, ProxyMethodFilter methodFilter) throws Exception {
+
+		if (hiddenClasses) {
+			return ProxyClassGenerator.generateHiddenProxyClass(targetClass, methodFilter);
+		}
+		return ProxyClassGenerator.generateProxyClass(targetClass, methodFilter);
+	}
+
+	/**
+	 * Removes the entries, where the target class, the filter or the proxy
+	 * class has already been garbage collected. Only called when a new proxy
+	 * class is generated, which keeps the cost off the lookup path.
+	 */
+	private void expungeStaleEntries() {
+		Iterator<Map.Entry<Object, WeakReference<Class<?>>>> entries =
+				proxyClasses.entrySet().iterator();
+
+		while (entries.hasNext()) {
+			Map.Entry<Object, WeakReference<Class<?>>> entry = entries.next();
+
+			if (((CacheKey) entry.getKey()).isStale() || entry.getValue().get() == null) {
+				entries.remove();
+			}
+		}
+	}
+
+	private static int hash(Class<?> targetClass, ProxyMethodFilter methodFilter) {
+		return 31 * System.identityHashCode(targetClass)
+				+ System.identityHashCode(methodFilter);
+	}
+
+	/**
+	 * The key stored in the cache: weakly references both the
+	 * target class and the method filter.
+	 */
+	private static final class CacheKey {
+
+		private final WeakReference<Class<?>> targetClass;
+		private final WeakReference<ProxyMethodFilter> methodFilter;
+		private final int hash;
+
+		CacheKey(Class<?> targetClass, ProxyMethodFilter methodFilter) {
+			this.targetClass = new WeakReference<Class<?>>(targetClass);
+			this.methodFilter = methodFilter != null ?
+					new WeakReference<ProxyMethodFilter>(methodFilter) : null;
+			this.hash = hash(targetClass, methodFilter);
+		}
+
+		boolean isStale() {
+			return targetClass.get() == null ||
+					(methodFilter != null && methodFilter.get() == null);
+		}
+
+		boolean refersTo(Class<?> otherTargetClass, ProxyMethodFilter otherMethodFilter) {
+			ProxyMethodFilter filter = methodFilter != null ? methodFilter.get() : null;
+
+			return targetClass.get() == otherTargetClass && filter == otherMethodFilter;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return this == obj;
+		}
+	}
+
+	/**
+	 * The key used for lookups: strongly references the target class and
+	 * the method filter, and compares to {@link CacheKey}s by identity of
+	 * the referents.
+	 */
+	private static final class LookupKey {
+
+		private final Class<?> targetClass;
+		private final ProxyMethodFilter methodFilter;
+
+		LookupKey(Class<?> targetClass, ProxyMethodFilter methodFilter) {
+			this.targetClass = targetClass;
+			this.methodFilter = methodFilter;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash(targetClass, methodFilter);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CacheKey &&
+					((CacheKey) obj).refersTo(targetClass, methodFilter);
+		}
+	}
+}
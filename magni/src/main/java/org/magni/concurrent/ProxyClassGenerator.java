@@ -0,0 +1,614 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.CannotCompileException;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ExceptionsAttribute;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javassist.util.proxy.FactoryHelper;
+import javassist.util.proxy.RuntimeSupport;
+
+/**
+ * <p>
+ * Generates {@link DelegatingProxy} classes with Javassist.</p>
+ *
+ * <p>
+ * Each proxied method of the generated class retrieves the target object
+ * from the {@link ProxyTargetSource} of the proxy and calls the same method
+ * on it directly: no {@code Object[]} is allocated for the arguments,
+ * primitives are not boxed and no reflection is involved.</p>
+ *
+ * <p>
+ * The only exception are {@code protected} methods inherited from a class
+ * in a different package (like {@code Object.clone()}): these cannot be
+ * invoked on another object from the generated class, hence they are
+ * forwarded reflectively.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class ProxyClassGenerator {
+
+	private static final String PROXY_CLASS_NAME_SUFFIX = "$$MagniProxy$$";
+
+	/**
+	 * Prefix for proxies, which cannot be defined in the package of the
+	 * target class (like {@code java.*} classes).
+	 */
+	private static final String PROHIBITED_PACKAGE_PREFIX = "org.magni.generated.";
+
+	private static final String TARGET_SOURCE_FIELD = "magni$targetSource";
+	private static final String METHODS_FIELD = "magni$methods";
+
+	private static final String TARGET_SOURCE_CLASS = ProxyTargetSource.class.getName();
+	private static final String TARGET_SOURCE_DESCRIPTOR = "Lorg/magni/concurrent/ProxyTargetSource;";
+	private static final String METHODS_DESCRIPTOR = "[Ljava/lang/reflect/Method;";
+
+	private static final AtomicInteger PROXY_CLASS_COUNTER = new AtomicInteger();
+
+	private ProxyClassGenerator() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Generates a {@link DelegatingProxy} class for the specified target
+	 * class, which proxies the methods accepted by the method filter.
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @param methodFilter the method filter to use, might be {@code null} in
+	 * 		which case all methods are proxied
+	 * @return the generated proxy class
+	 *
+	 * @throws CannotCompileException in case the class cannot be defined
+	 * @throws IllegalArgumentException in case the target class cannot be proxied
+	 */
+	static Class<?> generateProxyClass(Class<?> targetClass,
+			ProxyMethodFilter methodFilter) throws CannotCompileException {
+
+		return generateProxyClass(targetClass, methodFilter, false);
+	}
+
+	/**
+	 * Generates a {@link DelegatingProxy} class for the specified target
+	 * class just like {@link #generateProxyClass(Class, ProxyMethodFilter)},
+	 * but defines it as a hidden class in the package of the target class.
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @param methodFilter the method filter to use, might be {@code null} in
+	 * 		which case all methods are proxied
+	 * @return the generated hidden proxy class
+	 *
+	 * @throws CannotCompileException in case the class cannot be defined
+	 * @throws IllegalArgumentException in case the target class cannot be
+	 * 		proxied with a hidden class
+	 */
+	static Class<?> generateHiddenProxyClass(Class<?> targetClass,
+			ProxyMethodFilter methodFilter) throws CannotCompileException {
+
+		if (!canDefineInTargetPackage(targetClass)) {
+			throw new IllegalArgumentException("Cannot proxy " + targetClass +
+					" with a hidden class");
+		}
+
+		return generateProxyClass(targetClass, methodFilter, true);
+	}
+
+	/**
+	 * Returns {@code true} if the proxy class for the given target class
+	 * can be defined in the runtime package of the target class.
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @return {@code true} if the proxy class can be defined in the
+	 * 		package of the target class, {@code false} otherwise
+	 */
+	static boolean canDefineInTargetPackage(Class<?> targetClass) {
+		ClassLoader classLoader = targetClass.getClassLoader();
+
+		return classLoader != null && !targetClass.getName().startsWith("java.") &&
+				canSeeProxySupportClasses(classLoader);
+	}
+
+	private static Class<?> generateProxyClass(Class<?> targetClass,
+			ProxyMethodFilter methodFilter, boolean hidden) throws CannotCompileException {
+
+		if (targetClass.isPrimitive() || targetClass.isArray() ||
+				Modifier.isFinal(targetClass.getModifiers())) {
+			throw new IllegalArgumentException("Cannot proxy " + targetClass);
+		}
+
+		ClassLoader classLoader = targetClass.getClassLoader();
+
+		String proxyClassName = targetClass.getName() + PROXY_CLASS_NAME_SUFFIX +
+				PROXY_CLASS_COUNTER.incrementAndGet();
+
+		if (!canDefineInTargetPackage(targetClass)) {
+			// the proxy has to be defined by our ClassLoader: it will
+			// not be in the same runtime package as the target class
+			classLoader = ProxyClassGenerator.class.getClassLoader();
+			proxyClassName = PROHIBITED_PACKAGE_PREFIX + proxyClassName;
+		}
+
+		ProxyClassBuilder builder = new ProxyClassBuilder(
+				targetClass, proxyClassName, classLoader);
+
+		for (Method method : getProxiedMethods(targetClass, methodFilter, builder)) {
+			builder.addForwardingMethod(method);
+		}
+
+		Class<?> proxyClass;
+		if (hidden) {
+			proxyClass = defineHiddenClass(targetClass, builder.getClassFile());
+		} else {
+			proxyClass = FactoryHelper.toClass(builder.getClassFile(),
+					classLoader, targetClass.getProtectionDomain());
+		}
+
+		try {
+			Field methodsField = proxyClass.getDeclaredField(METHODS_FIELD);
+			methodsField.setAccessible(true);
+			methodsField.set(null, builder.getReflectivelyForwardedMethods());
+
+		} catch (Exception e) {
+			throw new CannotCompileException(e);
+		}
+
+		return proxyClass;
+	}
+
+	private static Class<?> defineHiddenClass(Class<?> targetClass,
+			ClassFile classFile) throws CannotCompileException {
+
+		try {
+			ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(classBytes);
+			try {
+				classFile.write(out);
+			} finally {
+				out.close();
+			}
+
+			return HiddenClasses.defineHiddenClass(targetClass, classBytes.toByteArray());
+
+		} catch (Exception e) {
+			throw new CannotCompileException(e);
+		}
+	}
+
+	private static boolean canSeeProxySupportClasses(ClassLoader classLoader) {
+		try {
+			return Class.forName(DelegatingProxy.class.getName(), false,
+					classLoader) == DelegatingProxy.class;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Collects the methods to proxy: the most specific version of each
+	 * overridable method, which is accepted by the method filter.
+	 */
+	private static List<Method> getProxiedMethods(Class<?> targetClass,
+			ProxyMethodFilter methodFilter, ProxyClassBuilder builder) {
+
+		Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+		List<Method> candidates = new ArrayList<Method>();
+
+		for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+			addInterfaces(c, interfaces);
+			addAll(candidates, c.getDeclaredMethods());
+		}
+		for (Class<?> i : interfaces) {
+			addAll(candidates, i.getDeclaredMethods());
+		}
+		if (targetClass.isInterface()) {
+			addAll(candidates, Object.class.getDeclaredMethods());
+		}
+
+		Set<String> processedSignatures = new HashSet<String>();
+		List<Method> proxiedMethods = new ArrayList<Method>();
+
+		for (Method method : candidates) {
+			int modifiers = method.getModifiers();
+
+			if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)) {
+				continue;
+			}
+			if (!processedSignatures.add(method.getName() +
+					RuntimeSupport.makeDescriptor(method))) {
+				// already overridden in a subclass (or excluded)
+				continue;
+			}
+			if (Modifier.isFinal(modifiers) || !builder.canOverride(method)) {
+				continue;
+			}
+			if (methodFilter != null && !methodFilter.isHandled(method)) {
+				continue;
+			}
+
+			proxiedMethods.add(method);
+		}
+
+		return proxiedMethods;
+	}
+
+	private static void addInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+		for (Class<?> i : type.getInterfaces()) {
+			if (interfaces.add(i)) {
+				addInterfaces(i, interfaces);
+			}
+		}
+	}
+
+	private static void addAll(List<Method> list, Method[] methods) {
+		for (Method m : methods) {
+			list.add(m);
+		}
+	}
+
+	/**
+	 * Assembles the {@code ClassFile} of a single proxy class.
+	 */
+	private static final class ProxyClassBuilder {
+
+		private final Class<?> targetClass;
+		private final String proxyClassName;
+		private final boolean inTargetPackage;
+		private final ClassFile classFile;
+		private final ConstPool constPool;
+		private final List<Method> reflectivelyForwardedMethods = new ArrayList<Method>();
+
+		ProxyClassBuilder(Class<?> targetClass, String proxyClassName,
+				ClassLoader classLoader) throws CannotCompileException {
+
+			this.targetClass = targetClass;
+			this.proxyClassName = proxyClassName;
+			this.inTargetPackage = classLoader == targetClass.getClassLoader() &&
+					packageOf(proxyClassName).equals(packageOf(targetClass.getName()));
+
+			String superClassName = targetClass.isInterface() ?
+					Object.class.getName() : targetClass.getName();
+
+			classFile = new ClassFile(false, proxyClassName, superClassName);
+			// Java 5 class file: no stack map frames are required
+			classFile.setMajorVersion(ClassFile.JAVA_5);
+			classFile.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.SUPER | AccessFlag.SYNTHETIC);
+
+			if (targetClass.isInterface()) {
+				classFile.setInterfaces(new String[] {
+						targetClass.getName(), DelegatingProxy.class.getName() });
+			} else {
+				classFile.setInterfaces(new String[] { DelegatingProxy.class.getName() });
+			}
+
+			constPool = classFile.getConstPool();
+
+			addFields();
+			addConstructor(superClassName);
+			addTargetSourceAccessors();
+		}
+
+		ClassFile getClassFile() {
+			return classFile;
+		}
+
+		Method[] getReflectivelyForwardedMethods() {
+			return reflectivelyForwardedMethods.toArray(
+					new Method[reflectivelyForwardedMethods.size()]);
+		}
+
+		boolean canOverride(Method method) {
+			int modifiers = method.getModifiers();
+
+			return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers) ||
+					isInProxyPackage(method.getDeclaringClass());
+		}
+
+		private boolean isInProxyPackage(Class<?> type) {
+			return inTargetPackage && type.getClassLoader() == targetClass.getClassLoader() &&
+					packageOf(type.getName()).equals(packageOf(targetClass.getName()));
+		}
+
+		private void addFields() throws CannotCompileException {
+			try {
+				FieldInfo targetSourceField = new FieldInfo(constPool,
+						TARGET_SOURCE_FIELD, TARGET_SOURCE_DESCRIPTOR);
+				targetSourceField.setAccessFlags(AccessFlag.PRIVATE);
+				classFile.addField(targetSourceField);
+
+				FieldInfo methodsField = new FieldInfo(constPool,
+						METHODS_FIELD, METHODS_DESCRIPTOR);
+				methodsField.setAccessFlags(AccessFlag.PRIVATE | AccessFlag.STATIC);
+				classFile.addField(methodsField);
+
+			} catch (javassist.bytecode.DuplicateMemberException e) {
+				throw new CannotCompileException(e);
+			}
+		}
+
+		/**
+		 * Adds a public no-argument constructor, if the superclass has
+		 * a no-argument constructor accessible from the proxy class.
+		 */
+		private void addConstructor(String superClassName) {
+			if (!targetClass.isInterface()) {
+				try {
+					Constructor<?> superConstructor = targetClass.getDeclaredConstructor();
+					int modifiers = superConstructor.getModifiers();
+
+					if (Modifier.isPrivate(modifiers) || (!Modifier.isPublic(modifiers) &&
+							!Modifier.isProtected(modifiers) && !isInProxyPackage(targetClass))) {
+						return;
+					}
+				} catch (NoSuchMethodException e) {
+					return;
+				}
+			}
+
+			Bytecode code = new Bytecode(constPool, 0, 1);
+			code.addAload(0);
+			code.addInvokespecial(superClassName, MethodInfo.nameInit, "()V");
+			code.addOpcode(Opcode.RETURN);
+
+			addMethod(AccessFlag.PUBLIC, MethodInfo.nameInit, "()V", code, null);
+		}
+
+		private void addTargetSourceAccessors() {
+			Bytecode getter = new Bytecode(constPool, 0, 1);
+			getter.addAload(0);
+			getter.addGetfield(proxyClassName, TARGET_SOURCE_FIELD, TARGET_SOURCE_DESCRIPTOR);
+			getter.addOpcode(Opcode.ARETURN);
+
+			addMethod(AccessFlag.PUBLIC, "getProxyTargetSource",
+					"()" + TARGET_SOURCE_DESCRIPTOR, getter, null);
+
+			Bytecode setter = new Bytecode(constPool, 0, 2);
+			setter.addAload(0);
+			setter.addAload(1);
+			setter.addPutfield(proxyClassName, TARGET_SOURCE_FIELD, TARGET_SOURCE_DESCRIPTOR);
+			setter.addOpcode(Opcode.RETURN);
+
+			addMethod(AccessFlag.PUBLIC, "setProxyTargetSource",
+					"(" + TARGET_SOURCE_DESCRIPTOR + ")V", setter, null);
+		}
+
+		void addForwardingMethod(Method method) {
+			int modifiers = method.getModifiers();
+
+			boolean directlyInvocable = !Modifier.isProtected(modifiers) ||
+					isInProxyPackage(method.getDeclaringClass());
+
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			Bytecode code = new Bytecode(constPool, 0, 1 + slotsOf(parameterTypes));
+
+			if (directlyInvocable) {
+				addDirectInvocation(code, method, parameterTypes);
+			} else {
+				addReflectiveInvocation(code, method, parameterTypes);
+			}
+
+			int accessFlags = AccessFlag.of(modifiers) &
+					~(AccessFlag.ABSTRACT | AccessFlag.NATIVE | AccessFlag.SYNCHRONIZED);
+
+			addMethod(accessFlags, method.getName(), RuntimeSupport.makeDescriptor(method),
+					code, method.getExceptionTypes());
+		}
+
+		/**
+		 * {@code return ((TargetClass) targetSource.getTarget()).method(arg0, arg1, ...);}
+		 */
+		private void addDirectInvocation(Bytecode code, Method method,
+				Class<?>[] parameterTypes) {
+
+			addGetTarget(code);
+			code.addCheckcast(targetClass.getName());
+
+			int slot = 1;
+			for (Class<?> parameterType : parameterTypes) {
+				slot += addLoad(code, slot, parameterType);
+			}
+
+			String descriptor = RuntimeSupport.makeDescriptor(method);
+			if (targetClass.isInterface()) {
+				code.addInvokeinterface(targetClass.getName(), method.getName(),
+						descriptor, 1 + slotsOf(parameterTypes));
+			} else {
+				code.addInvokevirtual(targetClass.getName(), method.getName(), descriptor);
+			}
+
+			addReturn(code, method.getReturnType());
+		}
+
+		/**
+		 * <pre>
+		 * try {
+		 *     return (ReturnType) methods[index].invoke(targetSource.getTarget(),
+		 *                                               new Object[] { arg0, arg1, ... });
+		 * } catch (InvocationTargetException e) {
+		 *     throw e.getCause();
+		 * }
+		 * </pre>
+		 */
+		private void addReflectiveInvocation(Bytecode code, Method method,
+				Class<?>[] parameterTypes) {
+
+			try {
+				method.setAccessible(true);
+			} catch (RuntimeException e) {
+				// not accessible: the invocation will fail with IllegalAccessException
+			}
+
+			int methodIndex = reflectivelyForwardedMethods.size();
+			reflectivelyForwardedMethods.add(method);
+
+			int tryStart = code.currentPc();
+
+			code.addGetstatic(proxyClassName, METHODS_FIELD, METHODS_DESCRIPTOR);
+			code.addIconst(methodIndex);
+			code.addOpcode(Opcode.AALOAD);
+
+			addGetTarget(code);
+
+			code.addIconst(parameterTypes.length);
+			code.addAnewarray(Object.class.getName());
+			int slot = 1;
+			for (int i = 0; i < parameterTypes.length; i++) {
+				code.addOpcode(Opcode.DUP);
+				code.addIconst(i);
+				slot += addLoad(code, slot, parameterTypes[i]);
+				addBoxing(code, parameterTypes[i]);
+				code.addOpcode(Opcode.AASTORE);
+			}
+
+			code.addInvokevirtual(Method.class.getName(), "invoke",
+					"(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;");
+
+			int tryEnd = code.currentPc();
+
+			addUnboxing(code, method.getReturnType());
+			addReturn(code, method.getReturnType());
+
+			int handler = code.currentPc();
+			code.addExceptionHandler(tryStart, tryEnd, handler,
+					java.lang.reflect.InvocationTargetException.class.getName());
+
+			// the exception handler is entered with the exception on the stack
+			code.growStack(1);
+			code.addInvokevirtual(Throwable.class.getName(), "getCause",
+					"()Ljava/lang/Throwable;");
+			code.addOpcode(Opcode.ATHROW);
+		}
+
+		private void addGetTarget(Bytecode code) {
+			code.addAload(0);
+			code.addGetfield(proxyClassName, TARGET_SOURCE_FIELD, TARGET_SOURCE_DESCRIPTOR);
+			code.addInvokeinterface(TARGET_SOURCE_CLASS, "getTarget", "()Ljava/lang/Object;", 1);
+		}
+
+		private void addMethod(int accessFlags, String name, String descriptor,
+				Bytecode code, Class<?>[] exceptionTypes) {
+
+			MethodInfo methodInfo = new MethodInfo(constPool, name, descriptor);
+			methodInfo.setAccessFlags(accessFlags);
+			methodInfo.setCodeAttribute(code.toCodeAttribute());
+
+			if (exceptionTypes != null && exceptionTypes.length > 0) {
+				String[] exceptionNames = new String[exceptionTypes.length];
+				for (int i = 0; i < exceptionTypes.length; i++) {
+					exceptionNames[i] = exceptionTypes[i].getName();
+				}
+
+				ExceptionsAttribute exceptions = new ExceptionsAttribute(constPool);
+				exceptions.setExceptions(exceptionNames);
+				methodInfo.setExceptionsAttribute(exceptions);
+			}
+
+			classFile.addMethod2(methodInfo);
+		}
+	}
+
+	private static String packageOf(String className) {
+		int lastDot = className.lastIndexOf('.');
+		return lastDot < 0 ? "" : className.substring(0, lastDot);
+	}
+
+	private static int slotsOf(Class<?>[] types) {
+		int slots = 0;
+		for (Class<?> type : types) {
+			slots += slotsOf(type);
+		}
+		return slots;
+	}
+
+	private static int slotsOf(Class<?> type) {
+		return type == long.class || type == double.class ? 2 : 1;
+	}
+
+	private static int addLoad(Bytecode code, int slot, Class<?> type) {
+		if (!type.isPrimitive()) {
+			code.addAload(slot);
+		} else if (type == long.class) {
+			code.addLload(slot);
+		} else if (type == float.class) {
+			code.addFload(slot);
+		} else if (type == double.class) {
+			code.addDload(slot);
+		} else {
+			code.addIload(slot);
+		}
+		return slotsOf(type);
+	}
+
+	private static void addReturn(Bytecode code, Class<?> type) {
+		if (type == void.class) {
+			code.addOpcode(Opcode.RETURN);
+		} else if (!type.isPrimitive()) {
+			code.addOpcode(Opcode.ARETURN);
+		} else if (type == long.class) {
+			code.addOpcode(Opcode.LRETURN);
+		} else if (type == float.class) {
+			code.addOpcode(Opcode.FRETURN);
+		} else if (type == double.class) {
+			code.addOpcode(Opcode.DRETURN);
+		} else {
+			code.addOpcode(Opcode.IRETURN);
+		}
+	}
+
+	private static void addBoxing(Bytecode code, Class<?> type) {
+		if (type.isPrimitive()) {
+			int index = FactoryHelper.typeIndex(type);
+			String wrapper = FactoryHelper.wrapperTypes[index];
+
+			code.addInvokestatic(wrapper, "valueOf",
+					"(" + FactoryHelper.wrapperDesc[index].charAt(1) + ")L" +
+					wrapper.replace('.', '/') + ";");
+		}
+	}
+
+	private static void addUnboxing(Bytecode code, Class<?> type) {
+		if (type == void.class) {
+			code.addOpcode(Opcode.POP);
+		} else if (type.isPrimitive()) {
+			int index = FactoryHelper.typeIndex(type);
+
+			code.addCheckcast(FactoryHelper.wrapperTypes[index]);
+			code.addInvokevirtual(FactoryHelper.wrapperTypes[index],
+					FactoryHelper.unwarpMethods[index], FactoryHelper.unwrapDesc[index]);
+		} else if (type != Object.class) {
+			// for arrays, Class.getName() returns the descriptor expected here
+			code.addCheckcast(type.getName());
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Service provider interface of the proxy creation mechanisms.</p>
+ *
+ * <p>
+ * A proxy engine creates objects implementing (or extending) a target type
+ * and {@link DelegatingProxy}, which forward the invocation of each method
+ * accepted by the {@link ProxyMethodFilter} to the object returned by the
+ * {@link ProxyTargetSource} set on the proxy.</p>
+ *
+ * <p>
+ * The built-in engines are available via {@link ProxyEngines}; additional
+ * engines can be registered with {@link java.util.ServiceLoader}, in which
+ * case they take precedence over the built-in ones.</p>
+ *
+ * <p>
+ * Implementations must be thread-safe.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+public interface ProxyEngine {
+
+	/**
+	 * Returns {@code true} if this engine can create proxies for the
+	 * given class or interface in the current runtime environment.
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @return {@code true} if the target class can be proxied by this
+	 * 		engine, {@code false} otherwise
+	 */
+	boolean canProxy(Class<?> targetClass);
+
+	/**
+	 * <p>
+	 * Creates a new proxy instance for the given class or interface.</p>
+	 *
+	 * <p>
+	 * The returned object implements {@link DelegatingProxy}: its
+	 * {@link ProxyTargetSource} is expected to be set by the caller
+	 * before any other method is invoked on it.</p>
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @param methodFilter the method filter to use, might be {@code null}
+	 * 		in which case all methods are proxied
+	 * @return the new proxy instance
+	 *
+	 * @throws Exception in case the proxy cannot be created
+	 */
+	<T> T newProxyInstance(Class<T> targetClass, ProxyMethodFilter methodFilter)
+			throws Exception;
+}
@@ -0,0 +1,178 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * <p>
+ * Provides the built-in {@link ProxyEngine}s and selects the engine used
+ * for a given target type.</p>
+ *
+ * <p>
+ * Engines registered with {@link ServiceLoader} (under
+ * {@code META-INF/services/org.magni.concurrent.ProxyEngine}) are
+ * preferred, in the order they are found. These are followed by the
+ * built-in engines in the order of their performance:</p>
+ * <ol>
+ * <li>{@link #hiddenClass()}: proxy classes calling the target directly,
+ * defined as hidden classes (Java 15 and later)</li>
+ * <li>{@link #javassist()}: the same proxy classes defined via the
+ * {@code ClassLoader} of the target</li>
+ * <li>{@link #jdkProxy()}: reflectively forwarding JDK dynamic proxies
+ * (interfaces only)</li>
+ * </ol>
+ *
+ * <p>
+ * For each target type, the first engine which can proxy it is
+ * used. Proxy classes generated at compile time for types annotated with
+ * {@link LazyProxy} or {@link ThreadConfined} are used whenever
+ * available, before any of these engines is selected.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+public final class ProxyEngines {
+
+	private static final ProxyEngine HIDDEN_CLASS = new HiddenClassProxyEngine();
+	private static final ProxyEngine JAVASSIST = new JavassistProxyEngine();
+	private static final ProxyEngine JDK_PROXY = new JdkProxyEngine();
+	private static final PregeneratedProxyEngine PREGENERATED = new PregeneratedProxyEngine();
+
+	/**
+	 * The available engines in the order of preference.
+	 */
+	private static final List<ProxyEngine> ENGINES = loadEngines();
+
+	private static final ClassValue<ProxyEngine> ENGINE_BY_TARGET_CLASS =
+			new ClassValue<ProxyEngine>() {
+
+		@Override
+		protected ProxyEngine computeValue(Class<?> targetClass) {
+			for (ProxyEngine engine : ENGINES) {
+				if (engine.canProxy(targetClass)) {
+					return engine;
+				}
+			}
+			return null;
+		}
+	};
+
+	private ProxyEngines() {
+		throw new AssertionError(ProxyEngines.class + " is a static utility class, no instances allowed!");
+	}
+
+	/**
+	 * Returns the engine defining the generated proxy classes as hidden
+	 * classes. Only available on Java 15 and later.
+	 *
+	 * @return the hidden class proxy engine
+	 */
+	public static ProxyEngine hiddenClass() {
+		return HIDDEN_CLASS;
+	}
+
+	/**
+	 * Returns the engine defining the generated proxy classes via the
+	 * {@code ClassLoader} of the target.
+	 *
+	 * @return the Javassist proxy engine
+	 */
+	public static ProxyEngine javassist() {
+		return JAVASSIST;
+	}
+
+	/**
+	 * Returns the engine based on {@link java.lang.reflect.Proxy}, which
+	 * can proxy interfaces only.
+	 *
+	 * @return the JDK dynamic proxy engine
+	 */
+	public static ProxyEngine jdkProxy() {
+		return JDK_PROXY;
+	}
+
+	/**
+	 * Returns the available engines in the order of preference.
+	 *
+	 * @return an unmodifiable list of the available engines
+	 */
+	public static List<ProxyEngine> getEngines() {
+		return ENGINES;
+	}
+
+	/**
+	 * Returns the preferred engine for the given target class.
+	 *
+	 * @param targetClass the class or interface to proxy
+	 * @return the first available engine, which can proxy the target class
+	 *
+	 * @throws IllegalArgumentException in case none of the engines can
+	 * 		proxy the target class
+	 */
+	public static ProxyEngine forTarget(Class<?> targetClass) {
+		ProxyEngine engine = ENGINE_BY_TARGET_CLASS.get(targetClass);
+		if (engine == null) {
+			throw new IllegalArgumentException("Cannot proxy " + targetClass);
+		}
+		return engine;
+	}
+
+	/**
+	 * Returns the engine instantiating the proxy class generated at compile
+	 * time, if there is one for the target class and the method filter,
+	 * otherwise the preferred engine for the target class.
+	 *
+	 * @throws IllegalArgumentException in case none of the engines can
+	 * 		proxy the target class
+	 */
+	static ProxyEngine forTarget(Class<?> targetClass, ProxyMethodFilter methodFilter) {
+		if (PREGENERATED.canProxy(targetClass, methodFilter)) {
+			return PREGENERATED;
+		}
+		return forTarget(targetClass);
+	}
+
+	private static List<ProxyEngine> loadEngines() {
+		List<ProxyEngine> engines = new ArrayList<ProxyEngine>();
+
+		for (ProxyEngine engine : ServiceLoader.load(ProxyEngine.class,
+				ProxyEngines.class.getClassLoader())) {
+			engines.add(engine);
+		}
+
+		if (isJavassistAvailable()) {
+			engines.add(HIDDEN_CLASS);
+			engines.add(JAVASSIST);
+		}
+		engines.add(JDK_PROXY);
+
+		return Collections.unmodifiableList(engines);
+	}
+
+	private static boolean isJavassistAvailable() {
+		try {
+			Class.forName("javassist.bytecode.ClassFile", false,
+					ProxyEngines.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * <p>
+ * Instantiation strategy for generated proxy classes.</p>
+ *
+ * <p>
+ * A proxy object is only a shell forwarding invocations to its target:
+ * running the constructor of the proxied class for it is not only
+ * unnecessary, but for lazy initializer proxies it defeats the purpose
+ * of lazy initialization. Hence, where the JVM allows it, proxies are
+ * allocated <i>without</i> invoking any constructor
+ * ({@code sun.misc.Unsafe.allocateInstance}); this also makes it possible
+ * to proxy classes without an accessible no-argument constructor.</p>
+ *
+ * <p>
+ * On JVMs where that is not available, the no-argument constructor is
+ * invoked.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+final class ProxyInstantiator {
+
+	/**
+	 * {@code sun.misc.Unsafe.allocateInstance(Class)} bound to the
+	 * {@code Unsafe} instance, or {@code null} if not available. Kept in a
+	 * {@code static final} field so that the JIT can inline the call.
+	 */
+	private static final MethodHandle ALLOCATE_INSTANCE = lookupAllocateInstance();
+
+	private ProxyInstantiator() {
+		// static utility class - no instances allowed
+	}
+
+	/**
+	 * Creates a new instance of the given proxy class.
+	 *
+	 * @param proxyClass the proxy class to instantiate
+	 * @return a new instance of the proxy class
+	 *
+	 * @throws Exception in case the class cannot be instantiated
+	 */
+	static <T> T newInstance(Class<T> proxyClass) throws Exception {
+		if (ALLOCATE_INSTANCE == null) {
+			return invokeConstructor(proxyClass);
+		}
+
+		try {
+			return proxyClass.cast((Object) ALLOCATE_INSTANCE.invokeExact(proxyClass));
+		} catch (Exception e) {
+			throw e;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException(t);
+		}
+	}
+
+	private static <T> T invokeConstructor(Class<T> proxyClass) throws Exception {
+		try {
+			return proxyClass.getDeclaredConstructor().newInstance();
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if proxies are created without invoking any
+	 * constructor.
+	 *
+	 * @return {@code true} if proxies are created without invoking any
+	 * 		constructor, {@code false} otherwise
+	 */
+	static boolean isBypassingConstructors() {
+		return ALLOCATE_INSTANCE != null;
+	}
+
+	private static MethodHandle lookupAllocateInstance() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			Object unsafe = theUnsafe.get(null);
+
+			Method allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+
+			return MethodHandles.publicLookup()
+					.unreflect(allocateInstance)
+					.bindTo(unsafe)
+					.asType(MethodType.methodType(Object.class, Class.class));
+
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+}
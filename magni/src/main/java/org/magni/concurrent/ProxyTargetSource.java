@@ -0,0 +1,38 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+/**
+ * <p>
+ * Supplies the object a {@link DelegatingProxy} forwards its method 
+ * invocations to.</p>
+ * 
+ * <p>
+ * The proxy calls {@link #getTarget()} on each method invocation and 
+ * invokes the method directly on the returned object.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+public interface ProxyTargetSource {
+
+	/**
+	 * Returns the object the method invocation should be forwarded to.
+	 * 
+	 * @return the target object; never {@code null}
+	 */
+	Object getTarget();
+}
@@ -9,4 +9,8 @@ public class RandomAccessLazyList<E> extends LazyList<E> implements java.util.Ra
 		super(initializer);
 	}
 
+	RandomAccessLazyList(Callable<List<E>> initializer, int sizeHint) {
+		super(initializer, sizeHint);
+	}
+
 }
@@ -0,0 +1,116 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link CallableLazyInitializer}, the value of which is refreshed in the 
+ * background, once the refresh interval has elapsed: callers keep receiving
+ * the current value until the refreshed one is published.
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class RefreshingLazyInitializer<T> extends CallableLazyInitializer<T> {
+
+	private final long refreshIntervalNanos;
+	private final Executor executor;
+
+	RefreshingLazyInitializer(Callable<T> initializer, long refreshIntervalNanos, 
+			Executor executor) {
+		super(initializer);
+		if(executor == null) {
+			throw new NullPointerException("executor must not be null");
+		}
+		this.refreshIntervalNanos = refreshIntervalNanos;
+		this.executor = executor;
+	}
+
+	@Override
+	Object newValueState(T value) {
+		return new RefreshingValue(value);
+	}
+
+	@Override
+	protected void initializationCompleted() {
+		// the Callable is kept: it is used to refresh the value
+	}
+
+	private void startRefresh(final RefreshingValue currentState) {
+		try {
+			executor.execute(new Runnable() {
+
+				public void run() {
+					refresh(currentState);
+				}
+			});
+		} catch (RuntimeException e) {
+			// rejected: keep the current value (callers must not fail 
+			// because of a refresh) and retry once the interval elapses
+			compareAndSetState(currentState, new RefreshingValue(currentState.value));
+		}
+	}
+
+	private void refresh(RefreshingValue currentState) {
+		Object newState;
+		try {
+			newState = newValueState(initializeValue());
+		} catch (RuntimeException e) {
+			newState = refreshFailed(currentState);
+		} catch (Error e) {
+			newState = refreshFailed(currentState);
+		}
+		compareAndSetState(currentState, newState);
+	}
+
+	/**
+	 * Returns the state to keep, if the refresh failed: the failure is not 
+	 * propagated to the executor (a thread pool would lose its worker 
+	 * thread), the current value is kept and the refresh is retried once 
+	 * the interval elapses.
+	 */
+	private RefreshingValue refreshFailed(RefreshingValue currentState) {
+		return new RefreshingValue(currentState.value);
+	}
+
+	private final class RefreshingValue extends Lazy.Initializer.ValueState {
+
+		private final Object value;
+		private final long refreshNanoTime = System.nanoTime() + refreshIntervalNanos;
+		private final AtomicBoolean refreshStarted = new AtomicBoolean();
+
+		RefreshingValue(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		Object getValue() {
+			return value;
+		}
+
+		@Override
+		Object accessValue() {
+			if (System.nanoTime() - refreshNanoTime >= 0 && 
+					refreshStarted.compareAndSet(false, true)) {
+				startRefresh(this);
+			}
+			return value;
+		}
+	}
+}
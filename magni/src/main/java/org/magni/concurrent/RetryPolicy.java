@@ -0,0 +1,193 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Determines when a failed lazy initialization is attempted again: the 
+ * delay after each failed attempt, and the maximum number of attempts.</p>
+ * 
+ * <p>
+ * The delay after the <i>n</i>th consecutive failure is 
+ * {@code initialDelay * multiplier^(n-1)}, capped at the maximum delay, 
+ * reduced by a random amount of up to {@code jitter} times the delay, so 
+ * that lazies failing at the same time do not retry at the same time.</p>
+ * 
+ * <p>
+ * Instances are immutable: the {@code with...} methods return a new 
+ * policy.</p>
+ * 
+ * @author Peter G. Horvath
+ * 
+ * @see Lazy#initializer(java.util.concurrent.Callable, RetryPolicy)
+ */
+public final class RetryPolicy {
+
+	/**
+	 * Returned by {@link #getDelayNanos(int)} if no more attempts are allowed.
+	 */
+	static final long NO_MORE_ATTEMPTS = Long.MAX_VALUE;
+
+	private final long initialDelayNanos;
+	private final long maxDelayNanos;
+	private final double multiplier;
+	private final double jitter;
+	private final int maxAttempts;
+
+	private RetryPolicy(long initialDelayNanos, long maxDelayNanos, 
+			double multiplier, double jitter, int maxAttempts) {
+		this.initialDelayNanos = initialDelayNanos;
+		this.maxDelayNanos = maxDelayNanos;
+		this.multiplier = multiplier;
+		this.jitter = jitter;
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Creates a policy retrying after the same delay after each failure, 
+	 * without limiting the number of attempts.
+	 * 
+	 * @param delay the delay after each failure, zero to retry immediately
+	 * @param unit the {@code TimeUnit} of the delay
+	 * @return a fixed delay retry policy
+	 * 
+	 * @throws IllegalArgumentException if the delay is negative
+	 * @throws NullPointerException if unit is {@code null}
+	 */
+	public static RetryPolicy fixedDelay(long delay, TimeUnit unit) {
+		long delayNanos = toNanos(delay, unit, "delay");
+
+		return new RetryPolicy(delayNanos, delayNanos, 1, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a policy doubling the delay after each consecutive failure 
+	 * up to the maximum delay, without limiting the number of attempts.
+	 * 
+	 * @param initialDelay the delay after the first failure
+	 * @param maxDelay the maximum delay
+	 * @param unit the {@code TimeUnit} of the delays
+	 * @return an exponential backoff retry policy
+	 * 
+	 * @throws IllegalArgumentException if a delay is negative, or the 
+	 * 		maximum delay is less than the initial delay
+	 * @throws NullPointerException if unit is {@code null}
+	 */
+	public static RetryPolicy exponentialBackoff(long initialDelay, long maxDelay, TimeUnit unit) {
+		long initialDelayNanos = toNanos(initialDelay, unit, "initialDelay");
+		long maxDelayNanos = toNanos(maxDelay, unit, "maxDelay");
+		if (maxDelayNanos < initialDelayNanos) {
+			throw new IllegalArgumentException("maxDelay must not be less than initialDelay");
+		}
+
+		return new RetryPolicy(initialDelayNanos, maxDelayNanos, 2, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns a policy multiplying the delay with the specified factor 
+	 * after each consecutive failure.
+	 * 
+	 * @param multiplier the factor to multiply the delay with, at least one
+	 * @return the new retry policy
+	 * 
+	 * @throws IllegalArgumentException if the multiplier is less than one
+	 */
+	public RetryPolicy withMultiplier(double multiplier) {
+		if (!(multiplier >= 1)) {
+			throw new IllegalArgumentException("multiplier must be at least 1: " + multiplier);
+		}
+		return new RetryPolicy(initialDelayNanos, maxDelayNanos, multiplier, jitter, maxAttempts);
+	}
+
+	/**
+	 * Returns a policy reducing each delay by a random amount of up to the 
+	 * specified fraction of it.
+	 * 
+	 * @param jitter the maximum fraction of the delay to subtract, between 
+	 * 		zero and one
+	 * @return the new retry policy
+	 * 
+	 * @throws IllegalArgumentException if jitter is not between zero and one
+	 */
+	public RetryPolicy withJitter(double jitter) {
+		if (!(jitter >= 0 && jitter <= 1)) {
+			throw new IllegalArgumentException("jitter must be between 0 and 1: " + jitter);
+		}
+		return new RetryPolicy(initialDelayNanos, maxDelayNanos, multiplier, jitter, maxAttempts);
+	}
+
+	/**
+	 * Returns a policy allowing at most the specified number of attempts 
+	 * (including the first one): once all of them failed, the last failure 
+	 * is cached forever.
+	 * 
+	 * @param maxAttempts the maximum number of attempts, at least one
+	 * @return the new retry policy
+	 * 
+	 * @throws IllegalArgumentException if maxAttempts is less than one
+	 */
+	public RetryPolicy withMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+		}
+		return new RetryPolicy(initialDelayNanos, maxDelayNanos, multiplier, jitter, maxAttempts);
+	}
+
+	/**
+	 * Returns the delay before the next attempt after the specified 
+	 * number of consecutive failures.
+	 * 
+	 * @param failedAttempts the number of consecutive failed attempts, 
+	 * 		at least one
+	 * @return the delay in nanoseconds, or {@link #NO_MORE_ATTEMPTS}
+	 */
+	long getDelayNanos(int failedAttempts) {
+		if (failedAttempts >= maxAttempts) {
+			return NO_MORE_ATTEMPTS;
+		}
+		if (initialDelayNanos == 0 && maxAttempts == Integer.MAX_VALUE) {
+			// retry immediately: the failure is not even cached
+			return 0;
+		}
+
+		double delay = Math.min(initialDelayNanos * Math.pow(multiplier, failedAttempts - 1), 
+				maxDelayNanos);
+
+		if (jitter > 0) {
+			delay -= delay * jitter * ThreadLocalRandom.current().nextDouble();
+		}
+
+		// never zero: the failure would not be cached, and the attempts not counted
+		return Math.max(1, (long) delay);
+	}
+
+	@Override
+	public String toString() {
+		return "RetryPolicy [initialDelayNanos=" + initialDelayNanos + 
+				", maxDelayNanos=" + maxDelayNanos + ", multiplier=" + multiplier + 
+				", jitter=" + jitter + ", maxAttempts=" + maxAttempts + "]";
+	}
+
+	private static long toNanos(long duration, TimeUnit unit, String name) {
+		if (duration < 0) {
+			throw new IllegalArgumentException(name + " must not be negative: " + duration);
+		}
+		return unit.toNanos(duration);
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * An unmodifiable {@code List}, which pulls its elements from an 
+ * {@code Iterator} only as far as they are accessed, and keeps the 
+ * elements pulled so far.</p>
+ * 
+ * <p>
+ * The source {@code Iterator} is obtained on the first access, and is 
+ * only accessed by a single thread at a time, holding a lock (not the 
+ * monitor: a virtual thread blocked in the source does not pin its carrier 
+ * thread). The pulled elements are 
+ * published by a {@code volatile} count written after the element: readers 
+ * of the already pulled elements do not lock, and always see a consistent 
+ * prefix of the source. Once the source is exhausted, it is closed, if it 
+ * is {@code AutoCloseable}, and released. If the source throws an 
+ * exception, it is closed and released just the same: the elements pulled 
+ * so far remain accessible, while accessing any further element throws a 
+ * {@link LazyInitializerException}, the cause of which is the failure.</p>
+ * 
+ * <p>
+ * {@link #iterator()}, {@link #get(int)}, {@link #isEmpty()} and 
+ * {@link #spliterator()} pull incrementally; {@link #size()} and the 
+ * methods relying on it pull all elements.</p>
+ * 
+ * <p>
+ * As a {@link LazyValue}, the list counts as initialized once the source 
+ * is exhausted. Until then, {@link #toString()} reports the number of the 
+ * pulled elements, without pulling any more.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+class StreamingLazyList<E> extends AbstractList<E> implements LazyValue<List<E>> {
+
+	private static final Object[] NO_ELEMENTS = new Object[0];
+
+	/**
+	 * The {@code Callable} to obtain the source from; 
+	 * released once the source is obtained.
+	 */
+	private Callable<? extends Iterator<? extends E>> sourceInitializer;
+
+	/**
+	 * The source, while it is not exhausted; guarded by pullLock.
+	 */
+	private Iterator<? extends E> source;
+
+	private final ReentrantLock pullLock = new ReentrantLock();
+
+	/**
+	 * The pulled elements; replaced with a larger copy by the pulling 
+	 * thread, before it is full.
+	 */
+	private volatile Object[] elements = NO_ELEMENTS;
+
+	/**
+	 * The number of pulled elements: written after the element.
+	 */
+	private volatile int pulledCount;
+
+	private volatile boolean exhausted;
+
+	/**
+	 * The exception thrown by the source, if any: no more elements are pulled.
+	 */
+	private volatile Throwable failure;
+
+	StreamingLazyList(Callable<? extends Iterator<? extends E>> sourceInitializer) {
+		if (sourceInitializer == null) {
+			throw new NullPointerException("sourceInitializer must not be null");
+		}
+		this.sourceInitializer = sourceInitializer;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (index < 0 || !isAvailable(index)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + pulledCount);
+		}
+		// the count is read before the array: the array contains the element
+		return (E) elements[index];
+	}
+
+	@Override
+	public int size() {
+		isAvailable(Integer.MAX_VALUE);
+		return pulledCount;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return !isAvailable(0);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			private int nextIndex;
+
+			public boolean hasNext() {
+				return isAvailable(nextIndex);
+			}
+
+			public E next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return get(nextIndex++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliteratorUnknownSize(iterator(), 
+				Spliterator.ORDERED | Spliterator.IMMUTABLE);
+	}
+
+	public boolean isInitialized() {
+		return exhausted;
+	}
+
+	public List<E> getIfInitialized() {
+		return exhausted ? this : null;
+	}
+
+	public int getSizeHint() {
+		return exhausted ? pulledCount : LazyCollectionInitializer.UNKNOWN_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		if (exhausted) {
+			return super.toString();
+		}
+		return "StreamingLazyList (pulled: " + pulledCount 
+				+ (failure != null ? ", failed: " + failure : "") + ")";
+	}
+
+	/**
+	 * Returns {@code true} if the element with the index is available, 
+	 * pulling the elements up to it, if necessary.
+	 */
+	private boolean isAvailable(int index) {
+		if (index < pulledCount) {
+			return true;
+		}
+		if (exhausted) {
+			return index < pulledCount;
+		}
+		return pullUpTo(index);
+	}
+
+	private boolean pullUpTo(int index) {
+		pullLock.lock();
+		try {
+			int count = pulledCount;
+			Object[] currentElements = elements;
+
+			while (count <= index && !exhausted) {
+				checkNotFailed();
+
+				if (source == null) {
+					source = CallableLazyInitializer.call(sourceInitializer);
+					if (source == null) {
+						throw new IllegalStateException("sourceInitializer returned null");
+					}
+					sourceInitializer = null;
+				}
+
+				E element;
+				try {
+					if (!source.hasNext()) {
+						sourceExhausted();
+						break;
+					}
+					element = source.next();
+				} catch (RuntimeException e) {
+					sourceFailed(e);
+					throw e;
+				} catch (Error e) {
+					sourceFailed(e);
+					throw e;
+				}
+
+				if (count == currentElements.length) {
+					int newLength = Math.max(16, currentElements.length + (currentElements.length >> 1));
+					currentElements = Arrays.copyOf(currentElements, newLength);
+					elements = currentElements;
+				}
+				currentElements[count] = element;
+				pulledCount = ++count;
+			}
+
+			return index < count;
+		} finally {
+			pullLock.unlock();
+		}
+	}
+
+	private void checkNotFailed() {
+		Throwable currentFailure = failure;
+		if (currentFailure != null) {
+			throw new LazyInitializerException("The source has failed after " 
+					+ pulledCount + " elements", currentFailure);
+		}
+	}
+
+	/**
+	 * Stops pulling from the failed source: it might not be able to 
+	 * continue, and it must not be left open.
+	 */
+	private void sourceFailed(Throwable sourceFailure) {
+		failure = sourceFailure;
+		try {
+			closeSource();
+		} catch (RuntimeException e) {
+			sourceFailure.addSuppressed(e);
+		}
+	}
+
+	private void sourceExhausted() {
+		exhausted = true;
+		closeSource();
+	}
+
+	private void closeSource() {
+		Iterator<? extends E> closedSource = source;
+		source = null;
+
+		if (closedSource instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) closedSource).close();
+			} catch (Exception e) {
+				throw new LazyInitializerException("Failed to close the source", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Requests the proxy class used by 
+ * {@link ThreadConfinementGuardian#create(Object)}
+ * for the annotated type to be generated at compile time by 
+ * {@link PregeneratedProxyProcessor}.</p>
+ * 
+ * <p>
+ * When the pregenerated class is present, creating a proxy involves no 
+ * bytecode generation at all at runtime. (The same pregenerated class is 
+ * used for lazy initializer and thread confinement proxies, hence the 
+ * two annotations are interchangeable.)</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface ThreadConfined {
+
+}
@@ -11,18 +11,14 @@ public class ThreadConfinementGuardian {
 	
 		try {
 	
-			javassist.util.proxy.ProxyFactory factory = new javassist.util.proxy.ProxyFactory();
-			factory.setSuperclass(object.getClass());
-	
-			factory.setFilter(new JavassistMethodFilterAdapter(Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER));
-			
-	
 			@SuppressWarnings("unchecked")
-			Class<T> proxyObjectClass = factory.createClass();
-			T proxyObj = proxyObjectClass.newInstance();
+			Class<T> targetClass = (Class<T>) object.getClass();
+			T proxyObj = ProxyEngines.forTarget(targetClass, 
+					Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER).newProxyInstance(
+					targetClass, Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER);
 	
 			ThreadConfinementGuardianProxy handler = new ThreadConfinementGuardianProxy(object);
-			((javassist.util.proxy.ProxyObject) proxyObj).setHandler(handler);
+			((DelegatingProxy) proxyObj).setProxyTargetSource(handler);
 	
 			return proxyObj;
 	
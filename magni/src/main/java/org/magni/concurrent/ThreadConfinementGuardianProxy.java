@@ -15,15 +15,11 @@
  */
 package org.magni.concurrent;
 
-import java.lang.reflect.Method;
-
-import javassist.util.proxy.MethodHandler;
-
 /**
  * @author Peter G. Horvath
  *
  */
-class ThreadConfinementGuardianProxy implements MethodHandler {
+class ThreadConfinementGuardianProxy implements ProxyTargetSource {
 
 	private final Object target;
 	private final Thread confinedToThread;
@@ -35,10 +31,9 @@ class ThreadConfinementGuardianProxy implements MethodHandler {
 	
 	
 	/* (non-Javadoc)
-	 * @see javassist.util.proxy.MethodHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.reflect.Method, java.lang.Object[])
+	 * @see org.magni.concurrent.ProxyTargetSource#getTarget()
 	 */
-	public Object invoke(Object self, Method overridden, Method forwarder,
-			Object[] args) throws Throwable {
+	public Object getTarget() {
 		
 		if(Thread.currentThread() != confinedToThread) {
 			throw new ThreadConfinementViolationException(
@@ -48,7 +43,7 @@ class ThreadConfinementGuardianProxy implements MethodHandler {
 						confinedToThread +"'");
 		}
 		
-		return overridden.invoke(target, args);
+		return target;
 	}
 
 }
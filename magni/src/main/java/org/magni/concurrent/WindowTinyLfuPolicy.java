@@ -0,0 +1,139 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * <p>
+ * The eviction policy of size limited {@link LazyCache}s: a simplified 
+ * <i>Window TinyLFU</i>.</p>
+ * 
+ * <p>
+ * New entries are admitted to a small LRU window (one percent of the 
+ * capacity), so that bursts of new keys can build up frequency. The entry 
+ * leaving the window competes with the least recently used entry of the 
+ * main LRU region: the one with the lower estimated frequency (see 
+ * {@link FrequencySketch}) is evicted. This way, rarely used keys do not 
+ * flush the frequently used ones out of the cache.</p>
+ * 
+ * <p>
+ * Entries are tracked by identity, so that an entry removed and loaded 
+ * again for the same key is never confused with the removed one.</p>
+ * 
+ * <p>
+ * Not thread safe: accessed with the lock of the owning cache held.</p>
+ * 
+ * @author Peter G. Horvath
+ *
+ */
+final class WindowTinyLfuPolicy<E extends WindowTinyLfuPolicy.Node> {
+
+	/**
+	 * An entry tracked by the policy.
+	 */
+	interface Node {
+
+		/**
+		 * @return the key, the frequency of which is estimated
+		 */
+		Object getKey();
+	}
+
+	private final LinkedHashMap<E, Boolean> window = new LinkedHashMap<E, Boolean>(16, 0.75f, true);
+	private final LinkedHashMap<E, Boolean> main = new LinkedHashMap<E, Boolean>(16, 0.75f, true);
+
+	private final FrequencySketch sketch;
+	private final int maximumWindowSize;
+	private final int maximumMainSize;
+
+	/**
+	 * Creates a new policy.
+	 * 
+	 * @param maximumSize the maximum number of entries, positive
+	 */
+	WindowTinyLfuPolicy(int maximumSize) {
+		this.sketch = new FrequencySketch(maximumSize);
+		this.maximumWindowSize = Math.max(1, maximumSize / 100);
+		this.maximumMainSize = maximumSize - maximumWindowSize;
+	}
+
+	/**
+	 * Records the access of an entry.
+	 * 
+	 * @param node the accessed entry
+	 */
+	void recordAccess(E node) {
+		sketch.increment(node.getKey());
+
+		// reorders the entry, if it is tracked
+		if (window.get(node) == null) {
+			main.get(node);
+		}
+	}
+
+	/**
+	 * Records a new entry, and selects the entry to evict, if the 
+	 * maximum size is exceeded.
+	 * 
+	 * @param node the new entry
+	 * @return the entry to evict (might be the new one), or {@code null}
+	 */
+	E recordInsertion(E node) {
+		sketch.increment(node.getKey());
+		window.put(node, Boolean.TRUE);
+
+		if (window.size() <= maximumWindowSize) {
+			return null;
+		}
+
+		E candidate = removeEldest(window);
+		if (main.size() < maximumMainSize) {
+			main.put(candidate, Boolean.TRUE);
+			return null;
+		}
+		if (maximumMainSize == 0) {
+			return candidate;
+		}
+
+		E victim = main.keySet().iterator().next();
+		if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+			main.remove(victim);
+			main.put(candidate, Boolean.TRUE);
+			return victim;
+		}
+		return candidate;
+	}
+
+	/**
+	 * Stops tracking an entry.
+	 * 
+	 * @param node the removed entry
+	 */
+	void remove(E node) {
+		if (window.remove(node) == null) {
+			main.remove(node);
+		}
+	}
+
+	private static <E> E removeEldest(LinkedHashMap<E, Boolean> region) {
+		Iterator<E> nodes = region.keySet().iterator();
+		E eldest = nodes.next();
+		nodes.remove();
+		return eldest;
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyAsyncInitializerTest {
+
+	/**
+	 * Executor collecting the tasks, which are only run on request
+	 */
+	private static final class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		synchronized int getPendingTaskCount() {
+			return tasks.size();
+		}
+
+		void runPendingTasks() {
+			List<Runnable> pendingTasks;
+			synchronized (this) {
+				pendingTasks = new ArrayList<Runnable>(tasks);
+				tasks.clear();
+			}
+			for (Runnable task : pendingTasks) {
+				task.run();
+			}
+		}
+	}
+
+	private ManualExecutor executor;
+	private AtomicInteger invocations;
+
+	@BeforeMethod
+	public void beforeTests() {
+		executor = new ManualExecutor();
+		invocations = new AtomicInteger();
+	}
+
+	@Test(expectedExceptions=NullPointerException.class)
+	public void testNullInitializerThrowsNullPointerException() {
+		Lazy.<Long>asyncInitializer(null, executor);
+	}
+
+	@Test(expectedExceptions=NullPointerException.class)
+	public void testNullExecutorThrowsNullPointerException() {
+		Lazy.asyncInitializer(countingCallable(42L), null);
+	}
+
+	/**
+	 * Tests that the initialization is started on the first access only, 
+	 * and that all callers receive the outcome of the same initialization
+	 */
+	@Test
+	public void testInitializationStartedOnFirstAccess() throws Exception {
+
+		Lazy.AsyncInitializer<Long> initializer = 
+				Lazy.asyncInitializer(countingCallable(42L), executor);
+
+		assertEquals(executor.getPendingTaskCount(), 0);
+		assertFalse(initializer.isDone());
+
+		CompletableFuture<Long> first = initializer.get();
+		CompletableFuture<Long> second = initializer.get();
+
+		assertNotSame(first, second);
+		assertEquals(executor.getPendingTaskCount(), 1);
+		assertFalse(first.isDone());
+
+		executor.runPendingTasks();
+
+		assertTrue(initializer.isDone());
+		assertEquals(first.get(), Long.valueOf(42L));
+		assertEquals(second.get(), Long.valueOf(42L));
+		assertEquals(initializer.get().get(), Long.valueOf(42L));
+		assertEquals(invocations.get(), 1);
+	}
+
+	/**
+	 * Tests that a caller cannot change the outcome seen by other callers
+	 */
+	@Test
+	public void testReturnedFutureIsNotShared() throws Exception {
+
+		Lazy.AsyncInitializer<Long> initializer = 
+				Lazy.asyncInitializer(countingCallable(42L), executor);
+
+		CompletableFuture<Long> cancelled = initializer.get();
+		CompletableFuture<Long> completed = initializer.get();
+		CompletableFuture<Long> pending = initializer.get();
+
+		assertTrue(cancelled.cancel(true));
+		assertTrue(completed.complete(-1L));
+
+		executor.runPendingTasks();
+
+		assertEquals(pending.get(), Long.valueOf(42L));
+		assertEquals(completed.get(), Long.valueOf(-1L));
+		assertTrue(initializer.isDone());
+		assertEquals(initializer.getNow(0L), Long.valueOf(42L));
+
+		initializer.get().obtrudeValue(-2L);
+		assertEquals(initializer.get().get(), Long.valueOf(42L));
+		assertEquals(invocations.get(), 1);
+	}
+
+	@Test
+	public void testEagerInitializationStartedImmediately() throws Exception {
+
+		Lazy.AsyncInitializer<Long> initializer = 
+				Lazy.eagerAsyncInitializer(countingCallable(42L), executor);
+
+		assertEquals(executor.getPendingTaskCount(), 1);
+
+		executor.runPendingTasks();
+
+		assertTrue(initializer.isDone());
+		assertEquals(initializer.getNow(0L), Long.valueOf(42L));
+		assertEquals(executor.getPendingTaskCount(), 0);
+	}
+
+	@Test
+	public void testGetNowDoesNotBlock() throws Exception {
+
+		Lazy.AsyncInitializer<Long> initializer = 
+				Lazy.asyncInitializer(countingCallable(42L), executor);
+
+		assertEquals(initializer.getNow(-1L), Long.valueOf(-1L));
+		assertEquals(initializer.getNow(-1L), Long.valueOf(-1L));
+		assertEquals(executor.getPendingTaskCount(), 1);
+
+		executor.runPendingTasks();
+
+		assertEquals(initializer.getNow(-1L), Long.valueOf(42L));
+	}
+
+	/**
+	 * Tests that a failed initialization is attempted again on the next access
+	 */
+	@Test
+	public void testFailedInitializationIsRetried() throws Exception {
+
+		final AtomicInteger attempts = new AtomicInteger();
+
+		Lazy.AsyncInitializer<Long> initializer = Lazy.asyncInitializer(new Callable<Long>() {
+
+			public Long call() throws Exception {
+				if (attempts.incrementAndGet() == 1) {
+					throw new IllegalStateException("Unable to initialize on first attempt");
+				}
+				return 42L;
+			}
+		}, executor);
+
+		CompletableFuture<Long> failed = initializer.get();
+		executor.runPendingTasks();
+
+		try {
+			failed.get();
+			fail("Should have thrown an exception");
+		} catch (ExecutionException e) {
+			assertEquals(e.getCause().getMessage(), "Unable to initialize on first attempt");
+		}
+		assertFalse(initializer.isDone());
+
+		CompletableFuture<Long> retried = initializer.get();
+		assertNotSame(retried, failed);
+		executor.runPendingTasks();
+
+		assertEquals(retried.get(), Long.valueOf(42L));
+		assertEquals(attempts.get(), 2);
+	}
+
+	@Test
+	public void testRejectedExecutionFailsFuture() throws Exception {
+
+		Lazy.AsyncInitializer<Long> initializer = Lazy.asyncInitializer(
+				countingCallable(42L), new Executor() {
+
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException("rejected");
+			}
+		});
+
+		assertTrue(initializer.get().isCompletedExceptionally());
+		assertEquals(initializer.getNow(-1L), Long.valueOf(-1L));
+	}
+
+	private Callable<Long> countingCallable(final Long value) {
+		return new Callable<Long>() {
+
+			public Long call() throws Exception {
+				invocations.incrementAndGet();
+				return value;
+			}
+		};
+	}
+}
@@ -0,0 +1,462 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyCacheTest {
+
+	private Function<Integer, String> mockLoader;
+
+	@BeforeMethod @SuppressWarnings("unchecked")
+	public void beforeTests() {
+		mockLoader = EasyMock.createMock(Function.class);
+	}
+
+	/**
+	 * Expects the keys from {@code fromKey} (inclusive) to {@code toKey} 
+	 * (exclusive) to be loaded once each.
+	 */
+	private void expectLoads(int fromKey, int toKey) {
+		for (int key = fromKey; key < toKey; key++) {
+			expect(mockLoader.apply(key)).andReturn("value-" + key).times(1);
+		}
+	}
+
+	@Test
+	public void testValueIsLoadedOncePerKey() {
+
+		expectLoads(1, 3);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader);
+
+		assertEquals(cache.get(1), "value-1");
+		assertEquals(cache.get(1), "value-1");
+		assertEquals(cache.get(2), "value-2");
+		assertEquals(cache.size(), 2);
+
+		LazyCache.Stats stats = cache.getStats();
+		assertEquals(stats.getHitCount(), 1);
+		assertEquals(stats.getMissCount(), 2);
+		assertEquals(stats.getLoadSuccessCount(), 2);
+
+		verify(mockLoader);
+	}
+
+	@Test(timeOut=10000)
+	public void testConcurrentRequestsShareSingleLoad() throws Exception {
+
+		final CountDownLatch loadStarted = new CountDownLatch(1);
+		final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+		expect(mockLoader.apply(42)).andAnswer(new IAnswer<String>() {
+
+			public String answer() throws Throwable {
+				loadStarted.countDown();
+				releaseLoad.await();
+				return "value-42";
+			}
+		}).times(1);
+		replay(mockLoader);
+
+		final LazyCache<Integer, String> cache = Lazy.keyed(mockLoader);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Future<?>[] results = new Future<?>[8];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = executor.submit(new Callable<String>() {
+
+					public String call() throws Exception {
+						return cache.get(42);
+					}
+				});
+			}
+
+			loadStarted.await();
+			releaseLoad.countDown();
+
+			for (Future<?> result : results) {
+				assertEquals(result.get(), "value-42");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(mockLoader);
+	}
+
+	@Test(timeOut=10000)
+	public void testSlowLoadDoesNotBlockOtherKeys() throws Exception {
+
+		final CountDownLatch loadStarted = new CountDownLatch(1);
+		final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+		expectLoads(2, 3);
+		replay(mockLoader);
+
+		// the slow key is not loaded by the mock: EasyMock runs the 
+		// answers holding the lock of the mock, blocking the other keys
+		final LazyCache<Integer, String> cache = Lazy.keyed(new Function<Integer, String>() {
+
+			public String apply(Integer key) {
+				if (key.intValue() != 1) {
+					return mockLoader.apply(key);
+				}
+				loadStarted.countDown();
+				try {
+					releaseLoad.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return "value-1";
+			}
+		});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> slowResult = executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					return cache.get(1);
+				}
+			});
+			loadStarted.await();
+
+			// key 2 is loaded, while key 1 is still loading
+			assertEquals(cache.get(2), "value-2");
+			assertFalse(slowResult.isDone());
+
+			releaseLoad.countDown();
+			assertEquals(slowResult.get(), "value-1");
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testFailedLoadIsAttemptedAgain() {
+
+		expect(mockLoader.apply(1)).andThrow(new IllegalStateException("load failed")).times(1);
+		expectLoads(1, 2);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader);
+
+		try {
+			cache.get(1);
+			fail("Exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(), "load failed");
+		}
+		assertEquals(cache.size(), 0);
+
+		assertEquals(cache.get(1), "value-1");
+
+		LazyCache.Stats stats = cache.getStats();
+		assertEquals(stats.getLoadFailureCount(), 1);
+		assertEquals(stats.getLoadSuccessCount(), 1);
+
+		verify(mockLoader);
+	}
+
+	@Test(timeOut=10000)
+	public void testConcurrentRequestsShareSingleFailedLoad() throws Exception {
+
+		final CountDownLatch loadStarted = new CountDownLatch(1);
+		final CountDownLatch releaseLoad = new CountDownLatch(1);
+		final AtomicInteger loadCount = new AtomicInteger();
+
+		final LazyCache<Integer, String> cache = Lazy.keyed(new Function<Integer, String>() {
+
+			public String apply(Integer key) {
+				loadCount.incrementAndGet();
+				loadStarted.countDown();
+				try {
+					releaseLoad.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				throw new IllegalStateException("load failed");
+			}
+		});
+
+		final AtomicReference<Thread> waitingCaller = new AtomicReference<Thread>();
+		final Callable<Integer> request = new Callable<Integer>() {
+
+			public Integer call() throws Exception {
+				try {
+					cache.get(1);
+					throw new AssertionError("Exception expected");
+				} catch (IllegalStateException e) {
+					assertEquals(e.getMessage(), "load failed");
+				}
+				// the size observed right after the failure
+				return cache.size();
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Integer> loadingResult = executor.submit(request);
+			loadStarted.await();
+
+			Future<Integer> waitingResult = executor.submit(new Callable<Integer>() {
+
+				public Integer call() throws Exception {
+					waitingCaller.set(Thread.currentThread());
+					return request.call();
+				}
+			});
+			while (waitingCaller.get() == null 
+					|| waitingCaller.get().getState() != Thread.State.WAITING) {
+				Thread.sleep(1);
+			}
+
+			releaseLoad.countDown();
+
+			assertEquals(loadingResult.get(), Integer.valueOf(0));
+			assertEquals(waitingResult.get(), Integer.valueOf(0));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(loadCount.get(), 1);
+		assertEquals(cache.getStats().getLoadFailureCount(), 1);
+	}
+
+	@Test
+	public void testFailedLoadIsCachedWithRetryPolicy() {
+
+		expect(mockLoader.apply(1)).andThrow(new IllegalStateException("load failed")).times(1);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, 
+				CachePolicy.unbounded().withRetryPolicy(RetryPolicy.fixedDelay(1, TimeUnit.HOURS)));
+
+		for (int i = 0; i < 3; i++) {
+			try {
+				cache.get(1);
+				fail("Exception expected");
+			} catch (IllegalStateException e) {
+				assertEquals(e.getMessage(), "load failed");
+			}
+		}
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testExpiredValueIsLoadedAgain() throws Exception {
+
+		expect(mockLoader.apply(1)).andReturn("first").times(1);
+		expect(mockLoader.apply(1)).andReturn("second").times(1);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, 
+				CachePolicy.unbounded().withExpireAfterWrite(Duration.ofMillis(20)));
+
+		assertEquals(cache.get(1), "first");
+		assertEquals(cache.get(1), "first");
+
+		Thread.sleep(50);
+
+		assertEquals(cache.get(1), "second");
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testExpiredEntriesAreRemovedWithoutRequests() throws Exception {
+
+		expectLoads(0, 200);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, 
+				CachePolicy.unbounded().withExpireAfterWrite(Duration.ofMillis(20)));
+
+		for (int i = 0; i < 100; i++) {
+			cache.get(i);
+		}
+		assertEquals(cache.size(), 100);
+
+		Thread.sleep(50);
+
+		// the keys loaded before are never requested again
+		for (int i = 100; i < 200; i++) {
+			cache.get(i);
+		}
+		assertTrue(cache.size() <= 100, "size: " + cache.size());
+
+		Thread.sleep(50);
+
+		cache.cleanUp();
+		assertEquals(cache.size(), 0);
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testSizeIsLimited() {
+
+		expectLoads(0, 1000);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, CachePolicy.maximumSize(100));
+
+		for (int i = 0; i < 1000; i++) {
+			cache.get(i);
+		}
+
+		assertEquals(cache.size(), 100);
+		assertEquals(cache.getStats().getEvictionCount(), 900);
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testFrequentlyUsedKeysAreRetained() {
+
+		// the frequently used keys are loaded only once
+		expectLoads(0, 50);
+		expectLoads(1000, 2000);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, CachePolicy.maximumSize(100));
+
+		for (int i = 0; i < 10; i++) {
+			for (int key = 0; key < 50; key++) {
+				cache.get(key);
+			}
+		}
+
+		// a scan of keys requested once does not flush the frequently used ones
+		for (int key = 1000; key < 2000; key++) {
+			cache.get(key);
+		}
+
+		for (int key = 0; key < 50; key++) {
+			cache.get(key);
+		}
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testInvalidatedKeyIsLoadedAgain() {
+
+		expect(mockLoader.apply(1)).andReturn("first").times(1);
+		expect(mockLoader.apply(1)).andReturn("second").times(1);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, CachePolicy.maximumSize(10));
+
+		assertEquals(cache.get(1), "first");
+		cache.invalidate(1);
+		assertEquals(cache.size(), 0);
+		assertEquals(cache.get(1), "second");
+
+		cache.invalidateAll();
+		assertEquals(cache.size(), 0);
+
+		verify(mockLoader);
+	}
+
+	@Test
+	public void testHitRate() {
+
+		expectLoads(1, 2);
+		replay(mockLoader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader);
+
+		assertEquals(cache.getStats().getHitRate(), 1.0);
+
+		for (int i = 0; i < 4; i++) {
+			cache.get(1);
+		}
+
+		assertEquals(cache.getStats().getHitRate(), 0.75);
+		assertTrue(cache.getStats().getAverageLoadPenaltyNanos() >= 0);
+
+		verify(mockLoader);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testNonPositiveMaximumSizeIsRejected() {
+		CachePolicy.maximumSize(0);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testNegativeTimeToLiveIsRejected() {
+		CachePolicy.unbounded().withExpireAfterWrite(Duration.ofMillis(-1));
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testZeroTimeToLiveIsRejected() {
+		CachePolicy.unbounded().withExpireAfterWrite(Duration.ZERO);
+	}
+
+	@Test
+	public void testTimeToLiveTooLongForNanosDoesNotExpire() {
+
+		expectLoads(1, 2);
+		replay(mockLoader);
+
+		CachePolicy cachePolicy = CachePolicy.unbounded().withExpireAfterWrite(
+				Duration.ofSeconds(Long.MAX_VALUE));
+		assertEquals(cachePolicy.getExpireAfterWriteNanos(), Long.MAX_VALUE);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(mockLoader, cachePolicy);
+
+		assertEquals(cache.get(1), "value-1");
+		assertEquals(cache.get(1), "value-1");
+
+		cache.cleanUp();
+		assertEquals(cache.size(), 1);
+
+		verify(mockLoader);
+	}
+}
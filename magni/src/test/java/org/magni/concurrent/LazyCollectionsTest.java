@@ -0,0 +1,241 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyCollectionsTest {
+
+	private static final Class<?>[] LAZY_COLLECTION_CLASSES = {
+		LazyList.class, LazySet.class, LazySortedSet.class, LazyNavigableSet.class, 
+		LazyQueue.class, LazyDeque.class, LazyMap.class, LazySortedMap.class, 
+		LazyNavigableMap.class, LazyConcurrentMap.class
+	};
+
+	/**
+	 * Counts the invocations of computeIfAbsent on the delegate.
+	 */
+	private static final class CountingConcurrentMap<K, V> extends ConcurrentHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		final AtomicInteger computeIfAbsentCount = new AtomicInteger();
+
+		@Override
+		public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+			computeIfAbsentCount.incrementAndGet();
+			return super.computeIfAbsent(key, mappingFunction);
+		}
+	}
+
+	@Test
+	public void testAllDefaultMethodsAreForwarded() {
+
+		List<String> missingMethods = new ArrayList<String>();
+
+		for (Class<?> lazyClass : LAZY_COLLECTION_CLASSES) {
+			for (Method method : lazyClass.getMethods()) {
+				if (method.isDefault() && !isAddedAfterJava8(method)) {
+					missingMethods.add(lazyClass.getSimpleName() + "." + method.getName());
+				}
+			}
+		}
+
+		assertTrue(missingMethods.isEmpty(), "Not forwarded: " + missingMethods);
+	}
+
+	private static boolean isAddedAfterJava8(Method method) {
+		// Collection.toArray(IntFunction) was added in Java 11
+		return method.getName().equals("toArray") && method.getParameterTypes().length == 1 
+				&& !method.getParameterTypes()[0].isArray();
+	}
+
+	@Test
+	public void testConcurrentMapForwardsAtomicOperations() {
+
+		final CountingConcurrentMap<String, Integer> delegate = 
+				new CountingConcurrentMap<String, Integer>();
+
+		ConcurrentMap<String, Integer> map = Lazy.concurrentMap(
+				new Callable<ConcurrentMap<String, Integer>>() {
+
+			public ConcurrentMap<String, Integer> call() throws Exception {
+				return delegate;
+			}
+		});
+
+		Function<String, Integer> length = new Function<String, Integer>() {
+
+			public Integer apply(String key) {
+				return key.length();
+			}
+		};
+
+		assertEquals(map.computeIfAbsent("abc", length), Integer.valueOf(3));
+		assertEquals(map.computeIfAbsent("abc", length), Integer.valueOf(3));
+		assertEquals(delegate.computeIfAbsentCount.get(), 2);
+
+		assertEquals(map.putIfAbsent("abc", 42), Integer.valueOf(3));
+		assertTrue(map.replace("abc", 3, 4));
+		assertEquals(delegate.get("abc"), Integer.valueOf(4));
+	}
+
+	@Test
+	public void testNavigableMap() {
+
+		NavigableMap<Integer, String> map = Lazy.navigableMap(
+				new Callable<NavigableMap<Integer, String>>() {
+
+			public NavigableMap<Integer, String> call() throws Exception {
+				NavigableMap<Integer, String> delegate = new TreeMap<Integer, String>();
+				delegate.put(10, "ten");
+				delegate.put(20, "twenty");
+				return delegate;
+			}
+		});
+
+		assertEquals(map.floorKey(15), Integer.valueOf(10));
+		assertEquals(map.ceilingEntry(15).getValue(), "twenty");
+		assertEquals(map.descendingMap().firstKey(), Integer.valueOf(20));
+		assertEquals(map.headMap(20, true).size(), 2);
+	}
+
+	@Test
+	public void testNavigableSet() {
+
+		NavigableSet<Integer> set = Lazy.navigableSet(new Callable<NavigableSet<Integer>>() {
+
+			public NavigableSet<Integer> call() throws Exception {
+				return new TreeSet<Integer>(Arrays.asList(1, 5, 9));
+			}
+		});
+
+		assertEquals(set.ceiling(6), Integer.valueOf(9));
+		assertEquals(set.lower(5), Integer.valueOf(1));
+		assertEquals(set.pollFirst(), Integer.valueOf(1));
+		assertEquals(set.size(), 2);
+	}
+
+	@Test
+	public void testQueueAndDeque() {
+
+		final Queue<String> queueDelegate = new LinkedList<String>();
+		Queue<String> queue = Lazy.queue(new Callable<Queue<String>>() {
+
+			public Queue<String> call() throws Exception {
+				return queueDelegate;
+			}
+		});
+
+		assertTrue(queue.offer("a"));
+		assertEquals(queue.peek(), "a");
+		assertEquals(queue.poll(), "a");
+		assertTrue(queue.isEmpty());
+
+		Deque<String> deque = Lazy.deque(new Callable<Deque<String>>() {
+
+			public Deque<String> call() throws Exception {
+				return new ArrayDeque<String>();
+			}
+		});
+
+		deque.push("a");
+		deque.addLast("b");
+		assertEquals(deque.peekLast(), "b");
+		assertEquals(deque.pop(), "a");
+		assertFalse(deque.isEmpty());
+	}
+
+	@Test
+	public void testQueueAndDequeUseIdentityEquality() {
+
+		Queue<String> queue = Lazy.queue(new Callable<Queue<String>>() {
+
+			public Queue<String> call() throws Exception {
+				return new ArrayDeque<String>();
+			}
+		});
+		Deque<String> deque = Lazy.deque(new Callable<Deque<String>>() {
+
+			public Deque<String> call() throws Exception {
+				return new ArrayDeque<String>();
+			}
+		});
+
+		assertTrue(queue.equals(queue));
+		assertTrue(deque.equals(deque));
+		assertFalse(queue.equals(deque));
+
+		Set<Object> set = new HashSet<Object>();
+		set.add(queue);
+		set.add(deque);
+		assertTrue(set.contains(queue));
+		assertTrue(set.contains(deque));
+	}
+
+	@Test
+	public void testListForwardsDefaultMethods() {
+
+		final List<Integer> delegate = new ArrayList<Integer>(Arrays.asList(3, 1, 2));
+		List<Integer> list = Lazy.list(new Callable<List<Integer>>() {
+
+			public List<Integer> call() throws Exception {
+				return delegate;
+			}
+		});
+
+		list.sort(null);
+		assertEquals(delegate, Arrays.asList(1, 2, 3));
+
+		assertTrue(list.removeIf(new Predicate<Integer>() {
+
+			public boolean test(Integer element) {
+				return element.intValue() > 2;
+			}
+		}));
+		assertEquals(delegate, Arrays.asList(1, 2));
+		assertEquals(list.stream().count(), 2L);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyExpiringInitializerTest {
+
+	/**
+	 * Executor collecting the tasks, which are only run on request; 
+	 * a task throwing an exception fails the test
+	 */
+	private static final class ManualExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		synchronized int getPendingTaskCount() {
+			return tasks.size();
+		}
+
+		void runPendingTasks() {
+			List<Runnable> pendingTasks;
+			synchronized (this) {
+				pendingTasks = new ArrayList<Runnable>(tasks);
+				tasks.clear();
+			}
+			for (Runnable task : pendingTasks) {
+				// a thread pool would lose its worker thread
+				task.run();
+			}
+		}
+	}
+
+	private AtomicInteger invocations;
+	private Callable<Integer> countingCallable;
+
+	@BeforeMethod
+	public void beforeTests() {
+		invocations = new AtomicInteger();
+		countingCallable = new Callable<Integer>() {
+
+			public Integer call() throws Exception {
+				return invocations.incrementAndGet();
+			}
+		};
+	}
+
+	@Test
+	public void testExpiringValueIsInitializedAgainAfterExpiration() throws Exception {
+
+		Lazy.Initializer<Integer> initializer = 
+				Lazy.expiring(countingCallable, Duration.ofMillis(20));
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(initializer.get(), Integer.valueOf(1));
+
+		Thread.sleep(50);
+
+		assertEquals(initializer.get(), Integer.valueOf(2));
+		assertEquals(initializer.get(), Integer.valueOf(2));
+	}
+
+	@Test
+	public void testExpiringValueIsNotInitializedAgainBeforeExpiration() throws Exception {
+
+		Lazy.Initializer<Integer> initializer = 
+				Lazy.expiring(countingCallable, Duration.ofHours(1));
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(initializer.get(), Integer.valueOf(1));
+		}
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testNonPositiveTimeToLiveIsRejected() {
+		Lazy.expiring(countingCallable, Duration.ZERO);
+	}
+
+	@Test
+	public void testRefreshingValueIsRefreshedInBackground() throws Exception {
+
+		ManualExecutor executor = new ManualExecutor();
+
+		Lazy.Initializer<Integer> initializer = 
+				Lazy.refreshing(countingCallable, Duration.ofMillis(20), executor);
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(executor.getPendingTaskCount(), 0);
+
+		Thread.sleep(50);
+
+		// the current value is returned, while a single refresh is scheduled
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(executor.getPendingTaskCount(), 1);
+
+		executor.runPendingTasks();
+
+		assertEquals(initializer.get(), Integer.valueOf(2));
+		assertEquals(invocations.get(), 2);
+	}
+
+	@Test
+	public void testIntrospectionDoesNotStartRefresh() throws Exception {
+
+		ManualExecutor executor = new ManualExecutor();
+
+		Lazy.Initializer<Integer> initializer = 
+				Lazy.refreshing(countingCallable, Duration.ofMillis(20), executor);
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+
+		Thread.sleep(50);
+
+		assertTrue(initializer.isInitialized());
+		assertEquals(initializer.getIfInitialized(), Integer.valueOf(1));
+		assertEquals(initializer.getSizeHint(), -1);
+		assertEquals(executor.getPendingTaskCount(), 0);
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(executor.getPendingTaskCount(), 1);
+	}
+
+	@Test
+	public void testFailedRefreshKeepsCurrentValue() throws Exception {
+
+		final AtomicInteger attempts = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+
+		Lazy.Initializer<Integer> initializer = Lazy.refreshing(new Callable<Integer>() {
+
+			public Integer call() throws Exception {
+				int attempt = attempts.incrementAndGet();
+				if (attempt == 2) {
+					throw new IllegalStateException("refresh failed");
+				}
+				return attempt;
+			}
+		}, Duration.ofMillis(20), executor);
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+
+		Thread.sleep(50);
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		executor.runPendingTasks();
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		assertEquals(executor.getPendingTaskCount(), 0);
+
+		Thread.sleep(50);
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		executor.runPendingTasks();
+
+		assertEquals(initializer.get(), Integer.valueOf(3));
+	}
+
+	@Test
+	public void testRejectedRefreshKeepsCurrentValue() throws Exception {
+
+		Lazy.Initializer<Integer> initializer = Lazy.refreshing(countingCallable, 
+				Duration.ofMillis(1), new Executor() {
+
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		});
+
+		assertEquals(initializer.get(), Integer.valueOf(1));
+		Thread.sleep(10);
+
+		try {
+			assertEquals(initializer.get(), Integer.valueOf(1));
+		} catch (RuntimeException e) {
+			fail("Refresh failure must not be propagated to callers", e);
+		}
+	}
+}
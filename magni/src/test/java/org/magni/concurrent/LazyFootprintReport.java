@@ -0,0 +1,95 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * <p>
+ * Reports the retained heap per {@link Lazy.Initializer} instance, before
+ * and after initialization.</p>
+ *
+ * <p>
+ * Each {@code Callable} captures a payload (like a builder or connection
+ * settings would), which is only required for the initialization. The
+ * retained size is measured as the difference of the used heap after
+ * full garbage collections, divided by the number of instances.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+public class LazyFootprintReport {
+
+	private static final int INSTANCES = 200000;
+	private static final int PAYLOAD_BYTES = 256;
+
+	private static final class PayloadCallable implements Callable<Object> {
+
+		private final byte[] payload;
+
+		PayloadCallable(int payloadBytes) {
+			this.payload = new byte[payloadBytes];
+		}
+
+		public Object call() throws Exception {
+			return Integer.valueOf(payload.length);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		report("without payload", 0);
+		report(PAYLOAD_BYTES + " byte payload", PAYLOAD_BYTES);
+	}
+
+	private static void report(String name, int payloadBytes) throws Exception {
+
+		List<Lazy.Initializer<Object>> initializers = 
+				new ArrayList<Lazy.Initializer<Object>>(INSTANCES);
+
+		long baseline = usedHeap();
+
+		for (int i = 0; i < INSTANCES; i++) {
+			initializers.add(Lazy.initializer(new PayloadCallable(payloadBytes)));
+		}
+		long beforeInitialization = usedHeap();
+
+		for (int i = 0; i < INSTANCES; i++) {
+			initializers.get(i).get();
+		}
+		long afterInitialization = usedHeap();
+
+		System.out.format("%-20s: %,8.1f bytes before, %,8.1f bytes after initialization%n",
+				name, (beforeInitialization - baseline) / (double) INSTANCES,
+				(afterInitialization - baseline) / (double) INSTANCES);
+
+		// keep the instances reachable until the last measurement
+		System.identityHashCode(initializers);
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			Thread.sleep(50);
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyFrozenCollectionsTest {
+
+	@Test
+	public void testFrozenListIsLazyCompactAndUnmodifiable() {
+		final AtomicInteger invocations = new AtomicInteger();
+
+		List<String> list = Lazy.frozenList(new Callable<List<String>>() {
+
+			public List<String> call() throws Exception {
+				invocations.incrementAndGet();
+				return new LinkedList<String>(Arrays.asList("a", "b", "c"));
+			}
+		});
+
+		assertEquals(invocations.get(), 0);
+		assertTrue(list instanceof RandomAccess);
+
+		assertEquals(list, Arrays.asList("a", "b", "c"));
+		assertEquals(list.get(2), "c");
+		assertEquals(invocations.get(), 1);
+
+		try {
+			list.add("d");
+			throw new AssertionError("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+		try {
+			list.set(0, "x");
+			throw new AssertionError("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFrozenSetKeepsContentsAndIterationOrder() {
+		final Set<Integer> source = new LinkedHashSet<Integer>();
+		for (int i = 1000; i > 0; i -= 3) {
+			source.add(i);
+		}
+		source.add(null);
+
+		Set<Integer> set = Lazy.frozenSet(new Callable<Set<Integer>>() {
+
+			public Set<Integer> call() throws Exception {
+				return new LinkedHashSet<Integer>(source);
+			}
+		});
+
+		assertEquals(set.size(), source.size());
+		assertEquals(set, source);
+		assertEquals(set.hashCode(), source.hashCode());
+		assertEquals(new ArrayList<Integer>(set), new ArrayList<Integer>(source));
+
+		for (int i = -10; i <= 1010; i++) {
+			assertEquals(set.contains(i), source.contains(i), "contains " + i);
+		}
+		assertTrue(set.contains(null));
+		assertFalse(set.contains("1000"));
+	}
+
+	@Test
+	public void testFrozenSetFindsKeysDifferingOnlyInHighBits() {
+		final Set<Integer> source = new HashSet<Integer>();
+		for (int i = -64; i < 64; i++) {
+			source.add(i << 24);
+		}
+
+		Set<Integer> set = Lazy.frozenSet(new Callable<Set<Integer>>() {
+
+			public Set<Integer> call() throws Exception {
+				return new HashSet<Integer>(source);
+			}
+		});
+
+		assertEquals(set, source);
+		for (int i = -64; i < 64; i++) {
+			assertTrue(set.contains(i << 24), "contains " + (i << 24));
+			assertFalse(set.contains((i << 24) + 1), "contains " + ((i << 24) + 1));
+		}
+	}
+
+	@Test
+	public void testFrozenSortedSetUsesComparator() {
+		Set<String> set = Lazy.frozenSet(new Callable<Set<String>>() {
+
+			public Set<String> call() throws Exception {
+				Set<String> source = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+				source.addAll(Arrays.asList("b", "C", "a"));
+				return source;
+			}
+		});
+
+		assertEquals(new ArrayList<String>(set), Arrays.asList("a", "b", "C"));
+		assertTrue(set.contains("c"));
+		assertTrue(set.contains("B"));
+		assertFalse(set.contains("d"));
+		assertFalse(set.contains(Integer.valueOf(1)));
+	}
+
+	@Test
+	public void testFrozenMapKeepsContentsAndIterationOrder() {
+		final Map<String, Integer> source = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < 500; i++) {
+			source.put("key" + (i * 7 % 500), i);
+		}
+		source.put(null, -1);
+		source.put("nullValue", null);
+
+		Map<String, Integer> map = Lazy.frozenMap(new Callable<Map<String, Integer>>() {
+
+			public Map<String, Integer> call() throws Exception {
+				return new LinkedHashMap<String, Integer>(source);
+			}
+		});
+
+		assertEquals(map, source);
+		assertEquals(map.hashCode(), source.hashCode());
+		assertEquals(new ArrayList<String>(map.keySet()), 
+				new ArrayList<String>(source.keySet()));
+
+		for (Map.Entry<String, Integer> entry : source.entrySet()) {
+			assertEquals(map.get(entry.getKey()), entry.getValue());
+			assertTrue(map.containsKey(entry.getKey()));
+		}
+		assertNull(map.get("missing"));
+		assertFalse(map.containsKey("missing"));
+		assertTrue(map.containsKey("nullValue"));
+		assertTrue(map.containsValue(null));
+
+		try {
+			map.put("x", 1);
+			throw new AssertionError("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+
+		Iterator<Map.Entry<String, Integer>> entries = map.entrySet().iterator();
+		Map.Entry<String, Integer> first = entries.next();
+		try {
+			first.setValue(42);
+			throw new AssertionError("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+		try {
+			entries.remove();
+			throw new AssertionError("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFrozenSortedMapUsesBinarySearch() {
+		Map<Integer, String> map = Lazy.frozenMap(new Callable<Map<Integer, String>>() {
+
+			public Map<Integer, String> call() throws Exception {
+				Map<Integer, String> source = new TreeMap<Integer, String>(
+						Collections.<Integer>reverseOrder());
+				for (int i = 0; i < 100; i++) {
+					source.put(i, String.valueOf(i));
+				}
+				return source;
+			}
+		});
+
+		assertEquals(map.keySet().iterator().next(), Integer.valueOf(99));
+		for (int i = 0; i < 100; i++) {
+			assertEquals(map.get(i), String.valueOf(i));
+		}
+		assertNull(map.get(100));
+		assertNull(map.get("1"));
+		assertNull(map.get(null));
+	}
+
+	@Test
+	public void testEmptyFrozenCollections() {
+		Set<String> set = Lazy.frozenSet(new Callable<Set<String>>() {
+
+			public Set<String> call() throws Exception {
+				return new HashSet<String>();
+			}
+		});
+		Map<String, String> map = Lazy.frozenMap(new Callable<Map<String, String>>() {
+
+			public Map<String, String> call() throws Exception {
+				return new HashMap<String, String>();
+			}
+		});
+
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains("a"));
+		assertTrue(map.isEmpty());
+		assertNull(map.get("a"));
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void testNullInitializerIsRejected() {
+		Lazy.frozenMap(null);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyGraphTest {
+
+	private static final long STEP_MILLIS = 200;
+
+	private ExecutorService executor;
+	private List<Callable<String>> slowCallables;
+
+	@BeforeMethod
+	public void beforeTests() {
+		executor = Executors.newFixedThreadPool(4);
+		slowCallables = new ArrayList<Callable<String>>();
+	}
+
+	@AfterMethod
+	public void afterTests() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Returns a replayed mock expected to be called once, 
+	 * returning the value after {@code STEP_MILLIS}.
+	 */
+	private Callable<String> slowCallable(final String value) throws Exception {
+		@SuppressWarnings("unchecked")
+		Callable<String> mockCallable = EasyMock.createMock(Callable.class);
+
+		expect(mockCallable.call()).andAnswer(new IAnswer<String>() {
+
+			public String answer() throws Throwable {
+				Thread.sleep(STEP_MILLIS);
+				return value;
+			}
+		}).times(1);
+
+		replay(mockCallable);
+		slowCallables.add(mockCallable);
+
+		return mockCallable;
+	}
+
+	private void verifySlowCallables() {
+		verify(slowCallables.toArray());
+	}
+
+	private static Function<LazyGraph.Dependencies, String> concatenation(final String... names) {
+		return new Function<LazyGraph.Dependencies, String>() {
+
+			public String apply(LazyGraph.Dependencies dependencies) {
+				StringBuilder sb = new StringBuilder();
+				for (String name : names) {
+					sb.append(dependencies.<String>get(name));
+				}
+				return sb.toString();
+			}
+		};
+	}
+
+	@Test(timeOut=10000)
+	public void testIndependentValuesAreInitializedConcurrently() throws Exception {
+
+		LazyGraph graph = LazyGraph.builder()
+				.add("client", concatenation("config", "metrics"), "config", "metrics")
+				.add("config", concatenation("secret"), "secret")
+				.add("secret", slowCallable("s"))
+				.add("metrics", slowCallable("m"))
+				.build(executor);
+
+		long start = System.nanoTime();
+		String client = graph.<String>get("client").get().join();
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals(client, "sm");
+		verifySlowCallables();
+		assertTrue(elapsedMillis < 2 * STEP_MILLIS, "Took " + elapsedMillis + " ms");
+	}
+
+	@Test(timeOut=10000)
+	public void testSharedDependencyIsInitializedOnce() throws Exception {
+
+		LazyGraph graph = LazyGraph.builder()
+				.add("base", slowCallable("b"))
+				.add("left", concatenation("base"), "base")
+				.add("right", concatenation("base"), "base")
+				.add("top", concatenation("left", "right"), "left", "right")
+				.build(executor);
+
+		assertEquals(graph.<String>get("top").get().join(), "bb");
+		graph.initializeAll().join();
+
+		verifySlowCallables();
+		assertTrue(graph.get("left").isDone());
+	}
+
+	@Test
+	public void testDependencyCycleIsRejected() {
+
+		LazyGraph.Builder builder = LazyGraph.builder()
+				.add("a", concatenation("b"), "b")
+				.add("b", concatenation("c"), "c")
+				.add("c", concatenation("a"), "a");
+
+		try {
+			builder.build(executor);
+			fail("Exception expected");
+		} catch (IllegalArgumentException e) {
+			assertEquals(e.getMessage(), "Dependency cycle: a -> b -> c -> a");
+		}
+	}
+
+	@Test
+	public void testUnknownDependencyIsRejected() {
+
+		LazyGraph.Builder builder = LazyGraph.builder()
+				.add("a", concatenation("b"), "b");
+
+		try {
+			builder.build(executor);
+			fail("Exception expected");
+		} catch (IllegalArgumentException e) {
+			assertEquals(e.getMessage(), "Unknown dependency: a -> b");
+		}
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testDuplicateNameIsRejected() throws Exception {
+		LazyGraph.builder()
+				.add("a", slowCallable("a"))
+				.add("a", slowCallable("a"));
+	}
+
+	@Test(timeOut=10000)
+	@SuppressWarnings("unchecked")
+	public void testFailedDependencyIsAttemptedAgain() throws Exception {
+
+		Callable<String> mockCallable = EasyMock.createMock(Callable.class);
+
+		expect(mockCallable.call()).andThrow(
+				new IllegalStateException("initialization failed")).times(1);
+		expect(mockCallable.call()).andReturn("f").times(1);
+
+		replay(mockCallable);
+
+		LazyGraph graph = LazyGraph.builder()
+				.add("flaky", mockCallable)
+				.add("top", concatenation("flaky"), "flaky")
+				.build(executor);
+
+		try {
+			graph.get("top").get().join();
+			fail("Exception expected");
+		} catch (CompletionException e) {
+			assertEquals(e.getCause().getClass(), IllegalStateException.class);
+		}
+
+		assertEquals(graph.<String>get("top").get().join(), "f");
+		verify(mockCallable);
+	}
+
+	@Test(timeOut=10000)
+	public void testCombineInitializesBothConcurrently() throws Exception {
+
+		Lazy.AsyncInitializer<String> combined = Lazy.combine(
+				Lazy.initializer(slowCallable("a")), Lazy.initializer(slowCallable("b")), 
+				new BiFunction<String, String, String>() {
+
+			public String apply(String a, String b) {
+				return a + b;
+			}
+		}, executor);
+
+		long start = System.nanoTime();
+		assertEquals(combined.get().join(), "ab");
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertTrue(elapsedMillis < 2 * STEP_MILLIS, "Took " + elapsedMillis + " ms");
+		assertEquals(combined.get().join(), "ab");
+		verifySlowCallables();
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyInitializerProxyTest {
+
+	@Test
+	public void testTargetIsInitializedOnFirstInvocation() {
+
+		final AtomicInteger initializations = new AtomicInteger();
+
+		Greeter greeter = Lazy.lazyInitializerProxy(Greeter.class, 
+				new Callable<Greeter>() {
+
+			public Greeter call() throws Exception {
+				initializations.incrementAndGet();
+				return new Greeter("Hello");
+			}
+		});
+
+		assertEquals(initializations.get(), 0);
+
+		assertEquals(greeter.greet("World"), "Hello World");
+		assertEquals(greeter.greet("Foobar"), "Hello Foobar");
+
+		assertEquals(initializations.get(), 1);
+	}
+
+	@Test
+	public void testProxySwitchesToInitializedTargetSource() {
+
+		Greeter greeter = Lazy.lazyInitializerProxy(Greeter.class, 
+				new Callable<Greeter>() {
+
+			public Greeter call() throws Exception {
+				return new Greeter("Hello");
+			}
+		});
+
+		DelegatingProxy delegatingProxy = (DelegatingProxy) greeter;
+
+		assertTrue(delegatingProxy.getProxyTargetSource() instanceof LazyInitializerProxy);
+
+		assertEquals(greeter.greet("World"), "Hello World");
+
+		assertTrue(delegatingProxy.getProxyTargetSource() instanceof LazyInitializerProxy.Initialized);
+		assertEquals(greeter.greet("Foobar"), "Hello Foobar");
+	}
+
+	@Test
+	public void testTargetConstructorIsNotInvokedForProxy() {
+
+		Assert.assertTrue(ProxyInstantiator.isBypassingConstructors(),
+				"this JVM does not support constructor bypassing");
+
+		final int constructionsBefore = ExpensiveResource.CONSTRUCTIONS.get();
+
+		ExpensiveResource resource = Lazy.lazyInitializerProxy(ExpensiveResource.class, 
+				new Callable<ExpensiveResource>() {
+
+			public ExpensiveResource call() throws Exception {
+				return new ExpensiveResource("resource");
+			}
+		});
+
+		assertEquals(ExpensiveResource.CONSTRUCTIONS.get(), constructionsBefore);
+
+		assertEquals(resource.getName(), "resource");
+
+		assertEquals(ExpensiveResource.CONSTRUCTIONS.get(), constructionsBefore + 1);
+	}
+
+	@Test
+	public void testProxyClassIsReused() {
+
+		Object first = Lazy.lazyInitializerProxy(FooBar.class, new FooBarCallable());
+		Object second = Lazy.lazyInitializerProxy(FooBar.class, new FooBarCallable());
+
+		assertNotSame(first, second);
+		assertSame(first.getClass(), second.getClass());
+	}
+
+	@Test
+	public void testProxyClassIsSpecificToMethodFilter() {
+
+		ProxyMethodFilter filter = new ProxyMethodFilter() {
+
+			public boolean isHandled(Method m) {
+				return true;
+			}
+		};
+
+		Object defaultFilterProxy = Lazy.lazyInitializerProxy(FooBar.class, new FooBarCallable());
+		Object customFilterProxy = Lazy.lazyInitializerProxy(FooBar.class, filter, new FooBarCallable());
+		Object sameCustomFilterProxy = Lazy.lazyInitializerProxy(FooBar.class, filter, new FooBarCallable());
+
+		assertNotSame(defaultFilterProxy.getClass(), customFilterProxy.getClass());
+		assertSame(customFilterProxy.getClass(), sameCustomFilterProxy.getClass());
+	}
+
+	@Test
+	public void testUnwrapReturnsInitializedTarget() {
+
+		final AtomicInteger initializations = new AtomicInteger();
+		final Greeter target = new Greeter("Hello");
+
+		Greeter greeter = Lazy.lazyInitializerProxy(Greeter.class, 
+				new Callable<Greeter>() {
+
+			public Greeter call() throws Exception {
+				initializations.incrementAndGet();
+				return target;
+			}
+		});
+
+		assertTrue(Lazy.isLazyProxy(greeter));
+		assertEquals(initializations.get(), 0);
+
+		assertSame(Lazy.unwrap(greeter), target);
+		assertSame(Lazy.unwrap(greeter), target);
+		assertEquals(initializations.get(), 1);
+
+		assertTrue(Lazy.isLazyProxy(greeter));
+		assertEquals(greeter.greet("World"), "Hello World");
+		assertEquals(initializations.get(), 1);
+	}
+
+	@Test
+	public void testIsLazyProxyRejectsOtherObjects() {
+
+		Greeter greeter = new Greeter("Hello");
+
+		assertFalse(Lazy.isLazyProxy(null));
+		assertFalse(Lazy.isLazyProxy(greeter));
+		assertFalse(Lazy.isLazyProxy(ThreadConfinementGuardian.create(greeter)));
+
+		try {
+			Lazy.unwrap(greeter);
+			Assert.fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException expected) {
+			// expected
+		}
+	}
+
+	public static class Greeter {
+
+		private final String greeting;
+
+		public Greeter() {
+			this("");
+		}
+
+		Greeter(String greeting) {
+			this.greeting = greeting;
+		}
+
+		public String greet(String name) {
+			return greeting + " " + name;
+		}
+	}
+
+	@Test
+	public void testPrimitiveArgumentsAndReturnValues() {
+
+		Calculator calculator = Lazy.lazyInitializerProxy(Calculator.class, 
+				new Callable<Calculator>() {
+
+			public Calculator call() throws Exception {
+				return new Calculator(1000);
+			}
+		});
+
+		assertEquals(calculator.add(1, 2), 1003);
+		assertEquals(calculator.multiply(2L, 0.5d), 1000d, 0d);
+		assertEquals(calculator.negate(true), false);
+		calculator.reset();
+		assertEquals(calculator.add(1, 2), 3);
+		assertEquals(calculator.protectedAdd(2, 3), 5);
+		assertEquals(calculator.packagePrivateAdd(3, 4), 7);
+	}
+
+	@Test(expectedExceptions=IllegalStateException.class)
+	public void testExceptionThrownByTargetIsNotWrapped() {
+
+		Calculator calculator = Lazy.lazyInitializerProxy(Calculator.class, 
+				new Callable<Calculator>() {
+
+			public Calculator call() throws Exception {
+				return new Calculator(0);
+			}
+		});
+
+		calculator.fail();
+	}
+
+	@Test
+	public void testInterfaceProxy() {
+
+		final Runnable target = new Runnable() {
+
+			public void run() {
+				// no-op
+			}
+
+			@Override
+			public String toString() {
+				return "target";
+			}
+		};
+
+		Runnable runnable = Lazy.lazyInitializerProxy(Runnable.class, 
+				new Callable<Runnable>() {
+
+			public Runnable call() throws Exception {
+				return target;
+			}
+		});
+
+		runnable.run();
+		assertEquals(runnable.toString(), "target");
+	}
+
+	@Test
+	public void testPregeneratedProxyClassIsUsed() {
+
+		PregeneratedGreeter greeter = Lazy.lazyInitializerProxy(PregeneratedGreeter.class, 
+				new Callable<PregeneratedGreeter>() {
+
+			public PregeneratedGreeter call() throws Exception {
+				return new PregeneratedGreeter("Hello");
+			}
+		});
+
+		assertEquals(greeter.getClass().getName(), 
+				PregeneratedGreeter.class.getName() + PregeneratedProxies.CLASS_NAME_SUFFIX);
+		assertEquals(greeter.greet("World"), "Hello World");
+		assertEquals(greeter.greetAll("A", "B"), "Hello A, B");
+	}
+
+	@LazyProxy
+	public static class PregeneratedGreeter {
+
+		private final String greeting;
+
+		public PregeneratedGreeter(String greeting) {
+			this.greeting = greeting;
+		}
+
+		public String greet(String name) {
+			return greeting + " " + name;
+		}
+
+		public String greetAll(String... names) {
+			StringBuilder sb = new StringBuilder(greeting).append(' ');
+			for (int i = 0; i < names.length; i++) {
+				sb.append(i > 0 ? ", " : "").append(names[i]);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Class without a no-argument constructor, counting its instances.
+	 */
+	public static class ExpensiveResource {
+
+		static final AtomicInteger CONSTRUCTIONS = new AtomicInteger();
+
+		private final String name;
+
+		public ExpensiveResource(String name) {
+			CONSTRUCTIONS.incrementAndGet();
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class Calculator {
+
+		private long base;
+
+		public Calculator() {
+			this(0);
+		}
+
+		Calculator(long base) {
+			this.base = base;
+		}
+
+		public long add(int a, int b) {
+			return base + a + b;
+		}
+
+		public double multiply(long a, double b) {
+			return base * a * b;
+		}
+
+		public boolean negate(boolean value) {
+			return !value;
+		}
+
+		public void reset() {
+			base = 0;
+		}
+
+		public void fail() {
+			throw new IllegalStateException("failure");
+		}
+
+		protected int protectedAdd(int a, int b) {
+			return (int) add(a, b);
+		}
+
+		int packagePrivateAdd(int a, int b) {
+			return (int) add(a, b);
+		}
+	}
+
+	private static final class FooBarCallable implements Callable<FooBar> {
+
+		public FooBar call() throws Exception {
+			return new FooBar();
+		}
+	}
+}
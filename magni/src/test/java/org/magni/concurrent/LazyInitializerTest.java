@@ -19,9 +19,22 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.EasyMock;
 
@@ -162,4 +175,404 @@ public class LazyInitializerTest {
 
 	}
 
+	/**
+	 * Tests that the initializer is called only once, even if thousands
+	 * of (virtual, where available) threads race on cold lazy initializers
+	 */
+	@Test
+	public void testConcurrentInitializationIsPerformedOnce() throws Exception {
+
+		final int lazyCount = 100;
+		final int taskCount = 5000;
+
+		final AtomicInteger[] initializations = new AtomicInteger[lazyCount];
+		final List<Lazy.Initializer<Object>> initializers = new ArrayList<Lazy.Initializer<Object>>();
+		for (int i = 0; i < lazyCount; i++) {
+			final AtomicInteger counter = initializations[i] = new AtomicInteger();
+			initializers.add(Lazy.initializer(new Callable<Object>() {
+
+				public Object call() throws Exception {
+					counter.incrementAndGet();
+					Thread.sleep(5);
+					return new Object();
+				}
+			}));
+		}
+
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		ExecutorService executor = newThreadPerTaskExecutor();
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int i = 0; i < taskCount; i++) {
+				final Lazy.Initializer<Object> initializer = initializers.get(i % lazyCount);
+				results.add(executor.submit(new Callable<Object>() {
+
+					public Object call() throws Exception {
+						startSignal.await();
+						return initializer.get();
+					}
+				}));
+			}
+
+			startSignal.countDown();
+
+			for (int i = 0; i < taskCount; i++) {
+				assertSame(results.get(i).get(30, TimeUnit.SECONDS), 
+						initializers.get(i % lazyCount).get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (AtomicInteger counter : initializations) {
+			assertEquals(counter.get(), 1);
+		}
+	}
+
+	/**
+	 * Tests that if the initialization fails, a thread which has been 
+	 * waiting for it retries the initialization
+	 */
+	@Test
+	public void testWaitingThreadRetriesFailedInitialization() throws Exception {
+
+		final CountDownLatch firstAttemptStarted = new CountDownLatch(1);
+		final CountDownLatch firstAttemptMayFail = new CountDownLatch(1);
+		final AtomicInteger attempts = new AtomicInteger();
+
+		final Lazy.Initializer<Long> initializer = Lazy.initializer(new Callable<Long>() {
+
+			public Long call() throws Exception {
+				if (attempts.incrementAndGet() == 1) {
+					firstAttemptStarted.countDown();
+					firstAttemptMayFail.await();
+					throw new IllegalStateException("first attempt");
+				}
+				return 42L;
+			}
+		});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> failing = executor.submit(new Callable<Long>() {
+
+				public Long call() throws Exception {
+					return initializer.get();
+				}
+			});
+
+			firstAttemptStarted.await();
+
+			Thread waiting = new Thread() {
+				@Override
+				public void run() {
+					initializer.get();
+				}
+			};
+			waiting.start();
+
+			firstAttemptMayFail.countDown();
+			waiting.join(TimeUnit.SECONDS.toMillis(30));
+
+			try {
+				failing.get();
+				fail("Should have thrown an exception");
+			} catch (ExecutionException e) {
+				assertEquals(e.getCause().getMessage(), "first attempt");
+			}
+
+			assertEquals(initializer.get(), Long.valueOf(42L));
+			assertEquals(attempts.get(), 2);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that a recursive initialization attempt fails 
+	 * instead of calling the initializer again
+	 */
+	@Test(expectedExceptions=IllegalStateException.class)
+	public void testRecursiveInitializationFails() {
+
+		final List<Lazy.Initializer<Long>> holder = new ArrayList<Lazy.Initializer<Long>>();
+		holder.add(Lazy.initializer(new Callable<Long>() {
+
+			public Long call() throws Exception {
+				return holder.get(0).get();
+			}
+		}));
+
+		holder.get(0).get();
+	}
+
+	/**
+	 * Tests that a null value is cached just 
+	 * like any other value
+	 */
+	@Test
+	public void testNullValueIsCached() throws Exception {
+
+		expect(mockCallable.call()).andReturn(null).times(1);
+
+		replay(mockCallable);
+
+		assertEquals(lazyInitializer.get(), null);
+		assertEquals(lazyInitializer.get(), null);
+		assertEquals(lazyInitializer.get(), null);
+
+		verify(mockCallable);
+	}
+
+	/**
+	 * Tests that a failure is rethrown without calling 
+	 * the initializer again during the caching period
+	 */
+	@Test
+	public void testFailureIsCached() throws Exception {
+
+		IllegalStateException failure = new IllegalStateException(
+				"Unable to initialize");
+
+		expect(mockCallable.call()).andThrow(failure).times(1);
+
+		replay(mockCallable);
+
+		lazyInitializer = Lazy.initializer(mockCallable, 1, TimeUnit.HOURS);
+
+		for (int i = 0; i < 3; i++) {
+			try {
+				lazyInitializer.get();
+				fail("Should have thrown an exception");
+			} catch (IllegalStateException e) {
+				assertSame(e, failure);
+			}
+		}
+
+		verify(mockCallable);
+	}
+
+	/**
+	 * Tests that the initialization is attempted again
+	 * once the failure caching period has elapsed
+	 */
+	@Test
+	public void testInitializationRetriedAfterFailureCachingPeriod() throws Exception {
+
+		final Long expectedValue = 42L;
+
+		expect(mockCallable.call()).andThrow(
+				new IllegalStateException("Unable to initialize")).times(1);
+		expect(mockCallable.call()).andReturn(expectedValue).times(1);
+
+		replay(mockCallable);
+
+		lazyInitializer = Lazy.initializer(mockCallable, 1, TimeUnit.MILLISECONDS);
+
+		try {
+			lazyInitializer.get();
+			fail("Should have thrown an exception");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(), "Unable to initialize");
+		}
+
+		Thread.sleep(10);
+
+		assertEquals(lazyInitializer.get(), expectedValue);
+		assertEquals(lazyInitializer.get(), expectedValue);
+
+		verify(mockCallable);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testNegativeFailureCachingPeriodIsRejected() {
+		Lazy.initializer(mockCallable, -1, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Tests that the failure is rethrown during the backoff 
+	 * period, and that no attempt is made after the maximum 
+	 * number of attempts failed
+	 */
+	@Test
+	public void testRetryPolicyLimitsAttempts() throws Exception {
+
+		IllegalStateException firstFailure = new IllegalStateException("first attempt");
+		IllegalStateException secondFailure = new IllegalStateException("second attempt");
+
+		expect(mockCallable.call()).andThrow(firstFailure).times(1);
+		expect(mockCallable.call()).andThrow(secondFailure).times(1);
+
+		replay(mockCallable);
+
+		lazyInitializer = Lazy.initializer(mockCallable, 
+				RetryPolicy.exponentialBackoff(1, 1, TimeUnit.MILLISECONDS).withMaxAttempts(2));
+
+		assertFailsWith(firstFailure);
+		assertFailsWith(firstFailure);
+
+		Thread.sleep(10);
+
+		assertFailsWith(secondFailure);
+
+		Thread.sleep(10);
+
+		assertFailsWith(secondFailure);
+
+		verify(mockCallable);
+	}
+
+	/**
+	 * Tests that callers waiting for a failing attempt receive the failure, 
+	 * instead of attempting the initialization themselves
+	 */
+	@Test
+	public void testWaitingThreadsReceiveCachedFailure() throws Exception {
+
+		final CountDownLatch attemptStarted = new CountDownLatch(1);
+		final CountDownLatch attemptMayFail = new CountDownLatch(1);
+		final AtomicInteger attempts = new AtomicInteger();
+
+		final Lazy.Initializer<Long> initializer = Lazy.initializer(new Callable<Long>() {
+
+			public Long call() throws Exception {
+				attempts.incrementAndGet();
+				attemptStarted.countDown();
+				attemptMayFail.await();
+				throw new IllegalStateException("failure");
+			}
+		}, RetryPolicy.exponentialBackoff(1, 10, TimeUnit.MINUTES).withJitter(0.1));
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Long>> results = new ArrayList<Future<Long>>();
+			results.add(executor.submit(new Callable<Long>() {
+
+				public Long call() throws Exception {
+					return initializer.get();
+				}
+			}));
+
+			attemptStarted.await();
+
+			for (int i = 0; i < 7; i++) {
+				results.add(executor.submit(new Callable<Long>() {
+
+					public Long call() throws Exception {
+						return initializer.get();
+					}
+				}));
+			}
+
+			attemptMayFail.countDown();
+
+			for (Future<Long> result : results) {
+				try {
+					result.get(30, TimeUnit.SECONDS);
+					fail("Should have thrown an exception");
+				} catch (ExecutionException e) {
+					assertEquals(e.getCause().getMessage(), "failure");
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(attempts.get(), 1);
+	}
+
+	@Test(timeOut=10000)
+	public void testTimedGetStopsWaitingForSlowInitialization() throws Exception {
+
+		final CountDownLatch initializationStarted = new CountDownLatch(1);
+		final CountDownLatch releaseInitialization = new CountDownLatch(1);
+
+		final Lazy.Initializer<String> initializer = Lazy.initializer(new Callable<String>() {
+
+			public String call() throws Exception {
+				initializationStarted.countDown();
+				releaseInitialization.await();
+				return "value";
+			}
+		});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> slowResult = executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					return initializer.get();
+				}
+			});
+			initializationStarted.await();
+
+			try {
+				initializer.get(20, TimeUnit.MILLISECONDS);
+				fail("Should have thrown an exception");
+			} catch (TimeoutException e) {
+				// expected: the initialization is still in progress
+			}
+			assertEquals(initializer.getOrDefault("fallback", Duration.ofMillis(20)), "fallback");
+			assertEquals(initializer.getOrDefault("fallback", Duration.ZERO), "fallback");
+
+			// large negative timeouts must not overflow into a long wait
+			try {
+				initializer.get(Long.MIN_VALUE, TimeUnit.NANOSECONDS);
+				fail("Should have thrown an exception");
+			} catch (TimeoutException e) {
+				// expected
+			}
+			try {
+				initializer.get(-Long.MAX_VALUE, TimeUnit.DAYS);
+				fail("Should have thrown an exception");
+			} catch (TimeoutException e) {
+				// expected
+			}
+			assertEquals(initializer.getOrDefault("fallback", 
+					Duration.ofSeconds(Long.MIN_VALUE)), "fallback");
+
+			releaseInitialization.countDown();
+
+			// the abandoned initialization has completed: its value is returned
+			assertEquals(slowResult.get(), "value");
+			assertEquals(initializer.get(0, TimeUnit.NANOSECONDS), "value");
+			assertEquals(initializer.getOrDefault("fallback", Duration.ZERO), "value");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testTimedGetInitializesValueInCallingThread() throws Exception {
+		expect(mockCallable.call()).andReturn(42L);
+		replay(mockCallable);
+
+		assertEquals(lazyInitializer.get(0, TimeUnit.NANOSECONDS), Long.valueOf(42L));
+		assertEquals(lazyInitializer.get(), Long.valueOf(42L));
+
+		verify(mockCallable);
+	}
+
+	private void assertFailsWith(RuntimeException expectedFailure) {
+		try {
+			lazyInitializer.get();
+			fail("Should have thrown an exception");
+		} catch (RuntimeException e) {
+			assertSame(e, expectedFailure);
+		}
+	}
+
+	/**
+	 * Returns an executor starting a virtual thread for each task 
+	 * where available (Java 21 and later), a thread pool otherwise.
+	 */
+	private static ExecutorService newThreadPerTaskExecutor() throws Exception {
+		try {
+			Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factoryMethod.invoke(null);
+		} catch (NoSuchMethodException e) {
+			return Executors.newFixedThreadPool(256);
+		}
+	}
+
 }
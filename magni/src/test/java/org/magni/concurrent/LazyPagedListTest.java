@@ -0,0 +1,216 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyPagedListTest {
+
+	private static final int PAGE_SIZE = 10;
+
+	private static final long SIZE = 95;
+
+	private IntFunction<List<Integer>> mockPageLoader;
+	private LongSupplier mockSizeSupplier;
+
+	@BeforeMethod @SuppressWarnings("unchecked")
+	public void beforeTests() {
+		mockPageLoader = EasyMock.createMock(IntFunction.class);
+		mockSizeSupplier = EasyMock.createMock(LongSupplier.class);
+	}
+
+	/**
+	 * Returns the page of the integers from zero up to {@code SIZE}.
+	 */
+	private static List<Integer> page(int pageIndex) {
+		List<Integer> page = new ArrayList<Integer>();
+		for (int i = pageIndex * PAGE_SIZE; i < Math.min((pageIndex + 1) * PAGE_SIZE, SIZE); i++) {
+			page.add(i);
+		}
+		return page;
+	}
+
+	private void expectPage(int pageIndex, int times) {
+		expect(mockPageLoader.apply(pageIndex)).andReturn(page(pageIndex)).times(times);
+	}
+
+	@Test
+	public void testOnlyAccessedPagesAreLoaded() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).times(1);
+		expectPage(0, 1);
+		expectPage(9, 1);
+
+		replay(mockPageLoader, mockSizeSupplier);
+
+		List<Integer> list = Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier);
+
+		assertTrue(list instanceof RandomAccess);
+
+		assertEquals(list.size(), 95);
+
+		assertEquals(list.get(0), Integer.valueOf(0));
+		assertEquals(list.get(9), Integer.valueOf(9));
+		assertEquals(list.get(94), Integer.valueOf(94));
+
+		verify(mockPageLoader, mockSizeSupplier);
+	}
+
+	@Test
+	public void testIterationVisitsAllElements() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).times(1);
+		for (int pageIndex = 0; pageIndex < 10; pageIndex++) {
+			expectPage(pageIndex, 1);
+		}
+
+		replay(mockPageLoader, mockSizeSupplier);
+
+		List<Integer> list = Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier);
+
+		int expected = 0;
+		for (Integer element : list) {
+			assertEquals(element, Integer.valueOf(expected++));
+		}
+		assertEquals(expected, 95);
+
+		verify(mockPageLoader, mockSizeSupplier);
+	}
+
+	@Test
+	public void testResidentPagesAreBounded() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).times(1);
+		expectPage(0, 1);
+		// loaded again after it is evicted
+		expectPage(1, 2);
+		expectPage(2, 1);
+
+		replay(mockPageLoader, mockSizeSupplier);
+
+		PagedLazyList<Integer> list = 
+				new PagedLazyList<Integer>(mockPageLoader, PAGE_SIZE, mockSizeSupplier, 2);
+
+		list.get(0);
+		list.get(10);
+		list.get(1);
+		list.get(20); // evicts the least recently used page: 1
+		assertEquals(list.getResidentPageCount(), 2);
+
+		list.get(2);
+
+		list.get(11);
+
+		verify(mockPageLoader, mockSizeSupplier);
+	}
+
+	@Test(timeOut=10000)
+	public void testConcurrentAccessesShareSinglePageLoad() throws Exception {
+
+		final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).times(1);
+		expect(mockPageLoader.apply(3)).andAnswer(new IAnswer<List<Integer>>() {
+
+			public List<Integer> answer() throws Throwable {
+				releaseLoad.await();
+				return page(3);
+			}
+		}).times(1);
+
+		replay(mockPageLoader, mockSizeSupplier);
+
+		final List<Integer> list = Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 4; i++) {
+				final int index = 30 + i;
+				results.add(executor.submit(new Callable<Integer>() {
+
+					public Integer call() throws Exception {
+						return list.get(index);
+					}
+				}));
+			}
+
+			Thread.sleep(50);
+			releaseLoad.countDown();
+
+			for (int i = 0; i < 4; i++) {
+				assertEquals(results.get(i).get(), Integer.valueOf(30 + i));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(mockPageLoader, mockSizeSupplier);
+	}
+
+	@Test(expectedExceptions=IndexOutOfBoundsException.class)
+	public void testIndexBeyondSizeIsRejected() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).times(1);
+		replay(mockPageLoader, mockSizeSupplier);
+
+		Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier).get(95);
+	}
+
+	@Test(expectedExceptions=UnsupportedOperationException.class)
+	public void testListIsUnmodifiable() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(SIZE).anyTimes();
+		replay(mockPageLoader, mockSizeSupplier);
+
+		Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier).add(1);
+	}
+
+	@Test(expectedExceptions=IllegalStateException.class)
+	public void testShortPageIsRejected() {
+
+		expect(mockSizeSupplier.getAsLong()).andReturn(200L).times(1);
+		// the page beyond SIZE is empty
+		expectPage(15, 1);
+		replay(mockPageLoader, mockSizeSupplier);
+
+		Lazy.pagedList(mockPageLoader, PAGE_SIZE, mockSizeSupplier).get(150);
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyPoolTest {
+
+	private static final IAnswer<StringBuilder> NEW_BUILDER = new IAnswer<StringBuilder>() {
+
+		public StringBuilder answer() throws Throwable {
+			return new StringBuilder();
+		}
+	};
+
+	private Callable<StringBuilder> mockBuilderCallable;
+
+	@BeforeMethod @SuppressWarnings("unchecked")
+	public void beforeTests() {
+		mockBuilderCallable = EasyMock.createMock(Callable.class);
+	}
+
+	@Test
+	public void testPerThreadInstanceIsCreatedOncePerThread() throws Exception {
+		expect(mockBuilderCallable.call()).andAnswer(NEW_BUILDER).times(3);
+		replay(mockBuilderCallable);
+
+		final LazyPerThread<StringBuilder> perThread = Lazy.perThread(mockBuilderCallable);
+
+		StringBuilder first = perThread.get();
+		assertSame(perThread.get(), first);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			StringBuilder other = executor.submit(new Callable<StringBuilder>() {
+
+				public StringBuilder call() throws Exception {
+					return perThread.get();
+				}
+			}).get();
+
+			assertNotSame(other, first);
+		} finally {
+			executor.shutdown();
+		}
+
+		perThread.remove();
+		assertNotSame(perThread.get(), first);
+
+		verify(mockBuilderCallable);
+	}
+
+	@Test
+	public void testPooledInstanceIsCreatedOnFirstBorrowAndReused() throws Exception {
+		expect(mockBuilderCallable.call()).andAnswer(NEW_BUILDER).times(1);
+		replay(mockBuilderCallable);
+
+		LazyPool<StringBuilder> pool = Lazy.pooled(mockBuilderCallable, 4);
+
+		assertEquals(pool.getStripeCount(), 4);
+		assertEquals(pool.getInstanceCount(), 0);
+
+		for (int i = 0; i < 10; i++) {
+			int length = pool.apply(new Function<StringBuilder, Integer>() {
+
+				public Integer apply(StringBuilder builder) {
+					builder.setLength(0);
+					return builder.append("abc").length();
+				}
+			});
+			assertEquals(length, 3);
+		}
+
+		assertEquals(pool.getInstanceCount(), 1);
+		verify(mockBuilderCallable);
+	}
+
+	@Test
+	public void testPooledInstancesAreBoundedAndNeverShared() throws Exception {
+		final int threads = 16;
+		final int stripes = 3;
+
+		expect(mockBuilderCallable.call()).andAnswer(NEW_BUILDER).times(1, stripes);
+		replay(mockBuilderCallable);
+
+		final LazyPool<StringBuilder> pool = Lazy.pooled(mockBuilderCallable, stripes);
+		final Set<StringBuilder> inUse = Collections.synchronizedSet(
+				Collections.newSetFromMap(new IdentityHashMap<StringBuilder, Boolean>()));
+		final CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Future<?>[] futures = new Future<?>[threads];
+			for (int t = 0; t < threads; t++) {
+				futures[t] = executor.submit(new Callable<Void>() {
+
+					public Void call() throws Exception {
+						start.await();
+						for (int i = 0; i < 1000; i++) {
+							pool.apply(new Function<StringBuilder, Void>() {
+
+								public Void apply(StringBuilder builder) {
+									if (!inUse.add(builder)) {
+										throw new AssertionError("Instance borrowed twice");
+									}
+									builder.append('x');
+									inUse.remove(builder);
+									return null;
+								}
+							});
+						}
+						return null;
+					}
+				});
+			}
+
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(pool.getInstanceCount() <= stripes);
+		verify(mockBuilderCallable);
+	}
+
+	@Test(timeOut = 30000)
+	public void testBorrowerBlocksWhileEveryInstanceIsBorrowed() throws Exception {
+		expect(mockBuilderCallable.call()).andAnswer(NEW_BUILDER).times(1);
+		replay(mockBuilderCallable);
+
+		final LazyPool<StringBuilder> pool = Lazy.pooled(mockBuilderCallable, 1);
+		final CountDownLatch borrowed = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final Function<StringBuilder, String> append = new Function<StringBuilder, String>() {
+
+			public String apply(StringBuilder builder) {
+				return builder.append('x').toString();
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> holder = executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					return pool.apply(new Function<StringBuilder, String>() {
+
+						public String apply(StringBuilder builder) {
+							borrowed.countDown();
+							try {
+								release.await();
+							} catch (InterruptedException e) {
+								throw new IllegalStateException(e);
+							}
+							return append.apply(builder);
+						}
+					});
+				}
+			});
+			borrowed.await();
+
+			final Thread[] waiterThread = new Thread[1];
+			final CountDownLatch waiterStarted = new CountDownLatch(1);
+			Future<String> waiter = executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					waiterThread[0] = Thread.currentThread();
+					waiterStarted.countDown();
+					return pool.apply(append);
+				}
+			});
+			waiterStarted.await();
+
+			// the waiter parks instead of spinning
+			while (waiterThread[0].getState() != Thread.State.WAITING) {
+				Thread.sleep(10);
+			}
+			assertFalse(waiter.isDone());
+
+			release.countDown();
+			assertEquals(holder.get(), "x");
+			assertEquals(waiter.get(), "xx");
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(mockBuilderCallable);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedCreationIsRetriedOnNextBorrow() throws Exception {
+		Callable<String> mockCallable = EasyMock.createMock(Callable.class);
+
+		expect(mockCallable.call()).andThrow(new Exception("failure")).times(1);
+		expect(mockCallable.call()).andReturn("instance").times(1);
+		replay(mockCallable);
+
+		LazyPool<String> pool = Lazy.pooled(mockCallable, 1);
+
+		Function<String, String> identity = new Function<String, String>() {
+
+			public String apply(String value) {
+				return value;
+			}
+		};
+
+		try {
+			pool.apply(identity);
+			throw new AssertionError("LazyInitializerException expected");
+		} catch (LazyInitializerException expected) {
+			// expected
+		}
+		assertEquals(pool.getInstanceCount(), 0);
+
+		assertEquals(pool.apply(identity), "instance");
+		assertEquals(pool.getInstanceCount(), 1);
+		verify(mockCallable);
+	}
+
+	@Test
+	public void testInstanceIsReturnedWhenFunctionFails() throws Exception {
+		expect(mockBuilderCallable.call()).andAnswer(NEW_BUILDER).times(1);
+		replay(mockBuilderCallable);
+
+		LazyPool<StringBuilder> pool = Lazy.pooled(mockBuilderCallable, 1);
+
+		try {
+			pool.apply(new Function<StringBuilder, Void>() {
+
+				public Void apply(StringBuilder builder) {
+					throw new IllegalStateException("failure");
+				}
+			});
+			throw new AssertionError("IllegalStateException expected");
+		} catch (IllegalStateException expected) {
+			// expected
+		}
+
+		assertEquals(pool.apply(new Function<StringBuilder, String>() {
+
+			public String apply(StringBuilder builder) {
+				return builder.append("ok").toString();
+			}
+		}), "ok");
+		verify(mockBuilderCallable);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testNonPositiveStripesAreRejected() {
+		Lazy.pooled(mockBuilderCallable, 0);
+	}
+}
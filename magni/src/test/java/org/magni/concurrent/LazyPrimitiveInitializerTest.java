@@ -0,0 +1,172 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyPrimitiveInitializerTest {
+
+	private IntSupplier mockIntSupplier;
+	private LongSupplier mockLongSupplier;
+	private DoubleSupplier mockDoubleSupplier;
+	private BooleanSupplier mockBooleanSupplier;
+
+	@BeforeMethod
+	public void beforeTests() {
+		mockIntSupplier = EasyMock.createMock(IntSupplier.class);
+		mockLongSupplier = EasyMock.createMock(LongSupplier.class);
+		mockDoubleSupplier = EasyMock.createMock(DoubleSupplier.class);
+		mockBooleanSupplier = EasyMock.createMock(BooleanSupplier.class);
+	}
+
+	@Test
+	public void testValuesAreInitializedOnce() {
+
+		expect(mockIntSupplier.getAsInt()).andReturn(41).times(1);
+		expect(mockLongSupplier.getAsLong()).andReturn(Long.MAX_VALUE - 2).times(1);
+		expect(mockDoubleSupplier.getAsDouble()).andReturn(1.5).times(1);
+		expect(mockBooleanSupplier.getAsBoolean()).andReturn(true).times(1);
+
+		replay(mockIntSupplier, mockLongSupplier, mockDoubleSupplier, mockBooleanSupplier);
+
+		LazyInt lazyInt = Lazy.lazyInt(mockIntSupplier);
+		LazyLong lazyLong = Lazy.lazyLong(mockLongSupplier);
+		LazyDouble lazyDouble = Lazy.lazyDouble(mockDoubleSupplier);
+		LazyBoolean lazyBoolean = Lazy.lazyBoolean(mockBooleanSupplier);
+
+		assertFalse(lazyInt.isInitialized());
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(lazyInt.getAsInt(), 41);
+			assertEquals(lazyLong.getAsLong(), Long.MAX_VALUE - 2);
+			assertEquals(lazyDouble.getAsDouble(), 1.5);
+			assertTrue(lazyBoolean.getAsBoolean());
+		}
+
+		assertTrue(lazyInt.isInitialized());
+
+		verify(mockIntSupplier, mockLongSupplier, mockDoubleSupplier, mockBooleanSupplier);
+	}
+
+	@Test
+	public void testFailedInitializationIsAttemptedAgain() {
+
+		expect(mockIntSupplier.getAsInt()).andThrow(
+				new IllegalStateException("initialization failed")).times(1);
+		expect(mockIntSupplier.getAsInt()).andReturn(42).times(1);
+
+		replay(mockIntSupplier);
+
+		LazyInt lazyInt = Lazy.lazyInt(mockIntSupplier);
+
+		try {
+			lazyInt.getAsInt();
+			fail("Exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(), "initialization failed");
+		}
+		assertFalse(lazyInt.isInitialized());
+
+		assertEquals(lazyInt.getAsInt(), 42);
+
+		verify(mockIntSupplier);
+	}
+
+	@Test(timeOut=10000)
+	public void testConcurrentCallersShareSingleInitialization() throws Exception {
+
+		final CountDownLatch initializationStarted = new CountDownLatch(1);
+		final CountDownLatch releaseInitialization = new CountDownLatch(1);
+
+		expect(mockLongSupplier.getAsLong()).andAnswer(new IAnswer<Long>() {
+
+			public Long answer() throws Throwable {
+				initializationStarted.countDown();
+				releaseInitialization.await();
+				return 42L;
+			}
+		}).times(1);
+
+		replay(mockLongSupplier);
+
+		final LazyLong lazyLong = Lazy.lazyLong(mockLongSupplier);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Long>> results = new ArrayList<Future<Long>>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<Long>() {
+
+					public Long call() throws Exception {
+						return lazyLong.getAsLong();
+					}
+				}));
+			}
+
+			initializationStarted.await();
+			releaseInitialization.countDown();
+
+			for (Future<Long> result : results) {
+				assertEquals(result.get(), Long.valueOf(42L));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(mockLongSupplier);
+	}
+
+	@Test(expectedExceptions=IllegalStateException.class)
+	public void testRecursiveInitializationIsRejected() {
+
+		final LazyInt[] holder = new LazyInt[1];
+		holder[0] = Lazy.lazyInt(new IntSupplier() {
+
+			public int getAsInt() {
+				return holder[0].getAsInt();
+			}
+		});
+
+		holder[0].getAsInt();
+	}
+}
@@ -0,0 +1,326 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+/**
+ * <p>
+ * Simple benchmark for lazy initializer proxies.</p>
+ *
+ * <p>
+ * Compares proxy creation with uncached, reflectively dispatching
+ * Javassist {@code ProxyFactory} proxies (the original implementation)
+ * to {@link Lazy#lazyInitializerProxy(Class, Callable)}, then compares
+ * the per-call cost of the two kinds of proxies to a plain virtual call.
+ * Proxy creation for a class with an expensive constructor shows that 
+ * the constructor of the proxied class is not invoked for the proxy.
+ * Finally, the creation and the call cost of each available
+ * {@link ProxyEngine} is measured, both for an interface and a class.</p>
+ *
+ * <p>
+ * Each benchmark runs in its own JVM, forked by {@link #main(String[])}: 
+ * the scenario of the benchmark is the only one created and measured in 
+ * that JVM. Otherwise the shared call sites of the harness would see the 
+ * receiver types of all the scenarios measured before, and the results 
+ * would depend on the order of the benchmarks. This is still a simple 
+ * harness: the results are indicative only.</p>
+ *
+ * @author Peter G. Horvath
+ *
+ */
+public class LazyProxyBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 20000;
+	private static final int MEASURED_ITERATIONS = 200000;
+	private static final int CALLS_PER_ITERATION = 100;
+
+	public interface Adder {
+
+		int add(int a, int b);
+	}
+
+	public static class Calculator implements Adder {
+
+		public int add(int a, int b) {
+			return a + b;
+		}
+	}
+
+	public static class ExpensiveCalculator extends Calculator {
+
+		private final long[] lookupTable;
+
+		public ExpensiveCalculator() {
+			lookupTable = new long[64 * 1024];
+			for (int i = 0; i < lookupTable.length; i++) {
+				lookupTable[i] = (long) i * i;
+			}
+		}
+
+		public long square(int i) {
+			return lookupTable[i];
+		}
+	}
+
+	private static final Callable<ExpensiveCalculator> EXPENSIVE_CALCULATOR_CALLABLE =
+			new Callable<ExpensiveCalculator>() {
+
+		public ExpensiveCalculator call() throws Exception {
+			return new ExpensiveCalculator();
+		}
+	};
+
+	private static final Callable<Calculator> CALCULATOR_CALLABLE = new Callable<Calculator>() {
+
+		public Calculator call() throws Exception {
+			return new Calculator();
+		}
+	};
+
+	private static final List<Class<? extends Adder>> TARGET_CLASSES = 
+			Arrays.<Class<? extends Adder>>asList(Adder.class, Calculator.class);
+
+	private interface Scenario {
+		int run() throws Exception;
+	}
+
+	/**
+	 * A named scenario, which is only created in the JVM measuring it.
+	 */
+	private static abstract class Benchmark {
+
+		private final String name;
+		private final int operationsPerIteration;
+
+		Benchmark(String name, int operationsPerIteration) {
+			this.name = name;
+			this.operationsPerIteration = operationsPerIteration;
+		}
+
+		abstract Scenario createScenario() throws Exception;
+	}
+
+	/**
+	 * Runs each benchmark in a forked JVM if invoked without arguments, 
+	 * otherwise runs the benchmark named by the argument.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		List<Benchmark> benchmarks = benchmarks();
+
+		if (args.length == 0) {
+			for (Benchmark benchmark : benchmarks) {
+				fork(benchmark.name);
+			}
+			return;
+		}
+
+		for (Benchmark benchmark : benchmarks) {
+			if (benchmark.name.equals(args[0])) {
+				measure(benchmark.name, benchmark.createScenario(), 
+						benchmark.operationsPerIteration);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("Unknown benchmark: " + args[0]);
+	}
+
+	private static List<Benchmark> benchmarks() {
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		benchmarks.add(new Benchmark("reflective proxy creation", 1) {
+
+			Scenario createScenario() {
+				return new Scenario() {
+
+					public int run() throws Exception {
+						return System.identityHashCode(createReflectiveProxy());
+					}
+				};
+			}
+		});
+		benchmarks.add(new Benchmark("proxy creation", 1) {
+
+			Scenario createScenario() {
+				return proxyCreation(Calculator.class, ProxyEngines.forTarget(Calculator.class));
+			}
+		});
+		benchmarks.add(new Benchmark("expensive class proxy creation", 1) {
+
+			Scenario createScenario() {
+				return new Scenario() {
+
+					public int run() throws Exception {
+						return System.identityHashCode(Lazy.lazyInitializerProxy(
+								ExpensiveCalculator.class, EXPENSIVE_CALCULATOR_CALLABLE));
+					}
+				};
+			}
+		});
+
+		benchmarks.add(new Benchmark("plain virtual call", CALLS_PER_ITERATION) {
+
+			Scenario createScenario() {
+				return calls(new Calculator());
+			}
+		});
+		benchmarks.add(new Benchmark("reflective proxy call", CALLS_PER_ITERATION) {
+
+			Scenario createScenario() throws Exception {
+				return calls(createReflectiveProxy());
+			}
+		});
+		benchmarks.add(new Benchmark("proxy call", CALLS_PER_ITERATION) {
+
+			Scenario createScenario() {
+				return calls(Lazy.lazyInitializerProxy(Calculator.class, CALCULATOR_CALLABLE));
+			}
+		});
+
+		for (final ProxyEngine engine : ProxyEngines.getEngines()) {
+			for (final Class<? extends Adder> targetClass : TARGET_CLASSES) {
+				if (engine.canProxy(targetClass)) {
+					String name = engine + " " + targetClass.getSimpleName();
+
+					benchmarks.add(new Benchmark(name + " creation", 1) {
+
+						Scenario createScenario() {
+							return proxyCreation(targetClass, engine);
+						}
+					});
+					benchmarks.add(new Benchmark(name + " call", CALLS_PER_ITERATION) {
+
+						Scenario createScenario() {
+							return calls(createProxy(targetClass, engine));
+						}
+					});
+				}
+			}
+		}
+
+		return benchmarks;
+	}
+
+	/**
+	 * Runs the benchmark in a new JVM, with the same JVM arguments 
+	 * and class path as the current one.
+	 */
+	private static void fork(String benchmarkName) throws Exception {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(LazyProxyBenchmark.class.getName());
+		command.add(benchmarkName);
+
+		int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+		if (exitCode != 0) {
+			throw new IllegalStateException(
+					"Benchmark " + benchmarkName + " failed with exit code " + exitCode);
+		}
+	}
+
+	private static Scenario proxyCreation(final Class<? extends Adder> targetClass, 
+			final ProxyEngine engine) {
+		return new Scenario() {
+
+			public int run() throws Exception {
+				return System.identityHashCode(createProxy(targetClass, engine));
+			}
+		};
+	}
+
+	private static <T extends Adder> T createProxy(Class<T> targetClass, ProxyEngine engine) {
+		@SuppressWarnings("unchecked")
+		Callable<T> callable = (Callable<T>) CALCULATOR_CALLABLE;
+
+		return Lazy.lazyInitializerProxy(targetClass, 
+				Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER, callable, engine);
+	}
+
+	private static Scenario calls(final Adder calculator) {
+		return new Scenario() {
+
+			public int run() throws Exception {
+				int sum = 0;
+				for (int i = 0; i < CALLS_PER_ITERATION; i++) {
+					sum = calculator.add(sum, i);
+				}
+				return sum;
+			}
+		};
+	}
+
+	/**
+	 * Creates a proxy the way {@link Lazy#lazyInitializerProxy(Class, Callable)}
+	 * originally did: a new {@code ProxyFactory} for each proxy, and a
+	 * {@code MethodHandler} forwarding each invocation reflectively.
+	 */
+	private static Calculator createReflectiveProxy() throws Exception {
+		javassist.util.proxy.ProxyFactory factory = new javassist.util.proxy.ProxyFactory();
+		factory.setSuperclass(Calculator.class);
+		factory.setFilter(new javassist.util.proxy.MethodFilter() {
+
+			public boolean isHandled(Method m) {
+				return Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER.isHandled(m);
+			}
+		});
+
+		Class<?> proxyClass = factory.createClass();
+		Calculator proxyObj = (Calculator) proxyClass.getDeclaredConstructor().newInstance();
+
+		final Lazy.Initializer<Calculator> initializer = Lazy.initializer(CALCULATOR_CALLABLE);
+		((javassist.util.proxy.ProxyObject) proxyObj).setHandler(
+				new javassist.util.proxy.MethodHandler() {
+
+			public Object invoke(Object self, Method overridden, Method forwarder,
+					Object[] args) throws Throwable {
+				return overridden.invoke(initializer.get(), args);
+			}
+		});
+
+		return proxyObj;
+	}
+
+	private static void measure(String name, Scenario scenario,
+			int operationsPerIteration) throws Exception {
+
+		int result = 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			result += scenario.run();
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			result += scenario.run();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		double operations = (double) MEASURED_ITERATIONS * operationsPerIteration;
+
+		System.out.format("%-50s: %,15.0f ops/s (%,8.2f ns/op) [%d]%n", name,
+				operations / (elapsed / 1e9), elapsed / operations, result & 1);
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyReclaimableInitializerTest {
+
+	private AtomicInteger invocations;
+	private Callable<Object> objectCallable;
+
+	@BeforeMethod
+	public void beforeTests() {
+		invocations = new AtomicInteger();
+		objectCallable = new Callable<Object>() {
+
+			public Object call() throws Exception {
+				invocations.incrementAndGet();
+				return new Object();
+			}
+		};
+	}
+
+	@Test
+	public void testWeakValueIsInitializedAgainWhenCleared() throws Exception {
+
+		Lazy.ReclaimableInitializer<Object> initializer = 
+				Lazy.reclaimableInitializer(objectCallable, Lazy.ValueReference.WEAK);
+
+		assertEquals(initializer.getInitializationCount(), 0);
+
+		Object value = initializer.get();
+		assertSame(initializer.get(), value);
+		assertEquals(initializer.getInitializationCount(), 1);
+		assertEquals(initializer.getRecomputationCount(), 0);
+
+		value = null;
+
+		for (int i = 0; i < 10 && initializer.getInitializationCount() == 1; i++) {
+			System.gc();
+			Thread.sleep(10);
+			value = initializer.get();
+		}
+
+		assertTrue(initializer.getRecomputationCount() > 0);
+		assertEquals(initializer.getInitializationCount(), invocations.get());
+		assertEquals(initializer.getRecomputationCount(), invocations.get() - 1);
+	}
+
+	@Test
+	public void testStronglyReachableValueIsNotInitializedAgain() throws Exception {
+
+		Lazy.ReclaimableInitializer<Object> initializer = Lazy.softInitializer(objectCallable);
+
+		Object value = initializer.get();
+
+		System.gc();
+
+		assertSame(initializer.get(), value);
+		assertEquals(initializer.getInitializationCount(), 1);
+		assertEquals(initializer.getRecomputationCount(), 0);
+	}
+
+	@Test
+	public void testNullValueIsKept() throws Exception {
+
+		Lazy.ReclaimableInitializer<Object> initializer = Lazy.reclaimableInitializer(
+				new Callable<Object>() {
+
+			public Object call() throws Exception {
+				invocations.incrementAndGet();
+				return null;
+			}
+		}, Lazy.ValueReference.WEAK);
+
+		assertNull(initializer.get());
+		System.gc();
+		assertNull(initializer.get());
+		assertEquals(invocations.get(), 1);
+	}
+
+	@Test(expectedExceptions=NullPointerException.class)
+	public void testNullValueReferenceIsRejected() {
+		Lazy.reclaimableInitializer(objectCallable, null);
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import org.easymock.EasyMock;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyStreamingListTest {
+
+	private static final RuntimeException FAILURE = new IllegalStateException("source failure");
+
+	/**
+	 * Iterator over the integers from zero, counting the elements pulled; 
+	 * throws {@code FAILURE} instead of returning {@code failAt}.
+	 */
+	private static final class CountingSource implements Iterator<Integer>, AutoCloseable {
+
+		private final int size;
+		private final int failAt;
+		private int next;
+
+		int pulled;
+		int closed;
+
+		CountingSource(int size, int failAt) {
+			this.size = size;
+			this.failAt = failAt;
+		}
+
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		public Integer next() {
+			if (next == failAt) {
+				throw FAILURE;
+			}
+			pulled++;
+			return next++;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public void close() {
+			closed++;
+		}
+	}
+
+	private Callable<Iterator<Integer>> mockSourceInitializer;
+
+	@BeforeMethod @SuppressWarnings("unchecked")
+	public void beforeTests() {
+		mockSourceInitializer = EasyMock.createMock(Callable.class);
+	}
+
+	private CountingSource expectSource(int size) throws Exception {
+		return expectSource(size, -1);
+	}
+
+	private CountingSource expectSource(int size, int failAt) throws Exception {
+		CountingSource source = new CountingSource(size, failAt);
+
+		expect(mockSourceInitializer.call()).andReturn(source).times(1);
+		replay(mockSourceInitializer);
+
+		return source;
+	}
+
+	@Test
+	public void testElementsArePulledOnlyAsFarAsAccessed() throws Exception {
+
+		replay(mockSourceInitializer);
+
+		List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+		verify(mockSourceInitializer);
+
+		reset(mockSourceInitializer);
+		CountingSource source = expectSource(1000);
+
+		assertFalse(list.isEmpty());
+		assertEquals(source.pulled, 1);
+
+		assertEquals(list.get(9), Integer.valueOf(9));
+		assertEquals(source.pulled, 10);
+
+		Iterator<Integer> iterator = list.iterator();
+		for (int i = 0; i < 20; i++) {
+			assertEquals(iterator.next(), Integer.valueOf(i));
+		}
+		assertEquals(source.pulled, 20);
+
+		// already pulled elements are not pulled again
+		assertEquals(list.get(5), Integer.valueOf(5));
+		assertEquals(source.pulled, 20);
+		assertEquals(source.closed, 0);
+
+		verify(mockSourceInitializer);
+	}
+
+	@Test
+	public void testExhaustedSourceIsClosed() throws Exception {
+
+		CountingSource source = expectSource(50);
+		List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+
+		assertEquals(list.size(), 50);
+		assertEquals(source.closed, 1);
+
+		List<Integer> copy = new ArrayList<Integer>();
+		for (Integer element : list) {
+			copy.add(element);
+		}
+		assertEquals(copy.size(), 50);
+		assertEquals(source.pulled, 50);
+		assertEquals(source.closed, 1);
+
+		verify(mockSourceInitializer);
+	}
+
+	@Test
+	public void testStreamPullsIncrementally() throws Exception {
+
+		CountingSource source = expectSource(1000);
+		List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+
+		Integer firstAboveTwo = list.stream().filter(new Predicate<Integer>() {
+
+			public boolean test(Integer element) {
+				return element.intValue() > 2;
+			}
+		}).findFirst().get();
+
+		assertEquals(firstAboveTwo, Integer.valueOf(3));
+		assertEquals(source.pulled, 4);
+	}
+
+	@Test
+	public void testEmptySource() throws Exception {
+
+		expectSource(0);
+		List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+
+		assertTrue(list.isEmpty());
+		assertFalse(list.iterator().hasNext());
+		assertEquals(list.size(), 0);
+	}
+
+	@Test
+	public void testFailedSourceIsClosedAndNotPulledAgain() throws Exception {
+
+		CountingSource source = expectSource(100, 10);
+		List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+
+		try {
+			list.get(20);
+			fail("Should have thrown an exception");
+		} catch (IllegalStateException e) {
+			assertSame(e, FAILURE);
+		}
+		assertEquals(source.closed, 1);
+		assertEquals(source.pulled, 10);
+
+		// the elements pulled before the failure remain accessible
+		assertEquals(list.get(9), Integer.valueOf(9));
+
+		try {
+			list.get(10);
+			fail("Should have thrown an exception");
+		} catch (LazyInitializerException e) {
+			assertSame(e.getCause(), FAILURE);
+		}
+		assertEquals(source.closed, 1);
+		assertTrue(list.toString().contains("failed"));
+
+		verify(mockSourceInitializer);
+	}
+
+	@Test(expectedExceptions=IndexOutOfBoundsException.class)
+	public void testIndexBeyondSourceIsRejected() throws Exception {
+
+		expectSource(10);
+		Lazy.streamingList(mockSourceInitializer).get(10);
+	}
+
+	@Test(expectedExceptions=UnsupportedOperationException.class)
+	public void testListIsUnmodifiable() throws Exception {
+
+		expectSource(10);
+		Lazy.streamingList(mockSourceInitializer).add(1);
+	}
+
+	@Test(timeOut=10000)
+	public void testConcurrentReadersSeeConsistentPrefix() throws Exception {
+
+		CountingSource source = expectSource(100000);
+		final List<Integer> list = Lazy.streamingList(mockSourceInitializer);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+
+					public Boolean call() throws Exception {
+						int expected = 0;
+						for (Integer element : list) {
+							if (element.intValue() != expected++) {
+								return false;
+							}
+						}
+						return expected == 100000;
+					}
+				}));
+			}
+
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+			assertEquals(source.pulled, 100000);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(mockSourceInitializer);
+	}
+}
@@ -0,0 +1,348 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.easymock.EasyMock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyValueTest {
+
+	private Callable<List<String>> mockListCallable;
+
+	@BeforeMethod @SuppressWarnings("unchecked")
+	public void beforeTests() {
+		mockListCallable = EasyMock.createMock(Callable.class);
+	}
+
+	private void expectList() throws Exception {
+		expect(mockListCallable.call()).andReturn(
+				new ArrayList<String>(Arrays.asList("a", "b", "c"))).times(1);
+	}
+
+	@Test
+	public void testLazyCollectionIsInspectedWithoutInitialization() throws Exception {
+
+		replay(mockListCallable);
+
+		List<String> list = Lazy.list(mockListCallable, 1000);
+		@SuppressWarnings("unchecked")
+		LazyValue<List<String>> lazyValue = (LazyValue<List<String>>) list;
+
+		assertFalse(lazyValue.isInitialized());
+		assertNull(lazyValue.getIfInitialized());
+		assertEquals(lazyValue.getSizeHint(), 1000);
+		assertEquals(list.toString(), "LazyList (not initialized, size hint: 1000)");
+		verify(mockListCallable);
+
+		reset(mockListCallable);
+		expectList();
+		replay(mockListCallable);
+
+		assertEquals(list.size(), 3);
+
+		assertTrue(lazyValue.isInitialized());
+		assertEquals(lazyValue.getIfInitialized(), Arrays.asList("a", "b", "c"));
+		assertEquals(lazyValue.getSizeHint(), 3);
+		assertEquals(list.toString(), "[a, b, c]");
+		verify(mockListCallable);
+	}
+
+	@Test
+	public void testSizeHintIsUnknownByDefault() {
+
+		LazyValue<?> lazyValue = (LazyValue<?>) Lazy.map(new Callable<Map<String, String>>() {
+
+			public Map<String, String> call() throws Exception {
+				return new HashMap<String, String>();
+			}
+		});
+
+		assertEquals(lazyValue.getSizeHint(), -1);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testNegativeSizeHintIsRejected() {
+		Lazy.set(null, -1);
+	}
+
+	@Test
+	public void testInitializerIsInspectedWithoutInitialization() throws Exception {
+
+		replay(mockListCallable);
+
+		Lazy.Initializer<List<String>> initializer = Lazy.initializer(mockListCallable);
+
+		assertFalse(initializer.isInitialized());
+		assertEquals(initializer.getSizeHint(), -1);
+		verify(mockListCallable);
+
+		reset(mockListCallable);
+		expect(mockListCallable.call()).andReturn(null).times(1);
+		replay(mockListCallable);
+
+		assertNull(initializer.get());
+
+		// a null value is initialized too
+		assertTrue(initializer.isInitialized());
+		assertNull(initializer.getIfInitialized());
+		verify(mockListCallable);
+	}
+
+	@Test
+	public void testExpiredValueIsNotInitialized() throws Exception {
+
+		expectList();
+		replay(mockListCallable);
+
+		Lazy.Initializer<List<String>> initializer = 
+				Lazy.expiring(mockListCallable, Duration.ofMillis(20));
+
+		initializer.get();
+		assertTrue(initializer.isInitialized());
+
+		Thread.sleep(50);
+
+		assertFalse(initializer.isInitialized());
+		assertNull(initializer.getIfInitialized());
+		verify(mockListCallable);
+	}
+
+	@Test
+	public void testAsyncInitializerIsInspectedWithoutInitialization() throws Exception {
+
+		replay(mockListCallable);
+
+		Lazy.AsyncInitializer<List<String>> initializer = 
+				Lazy.asyncInitializer(mockListCallable, new Executor() {
+
+			public void execute(Runnable command) {
+				command.run();
+			}
+		});
+
+		assertFalse(initializer.isInitialized());
+		assertNull(initializer.getIfInitialized());
+		verify(mockListCallable);
+
+		reset(mockListCallable);
+		expectList();
+		replay(mockListCallable);
+
+		initializer.get();
+
+		assertTrue(initializer.isInitialized());
+		assertEquals(initializer.getSizeHint(), 3);
+		verify(mockListCallable);
+	}
+
+	@Test
+	public void testPrimitiveValueIsInspectedWithoutInitialization() {
+
+		IntSupplier intSupplier = EasyMock.createMock(IntSupplier.class);
+		replay(intSupplier);
+
+		LazyInt lazyInt = Lazy.lazyInt(intSupplier);
+
+		assertNull(lazyInt.getIfInitialized());
+		verify(intSupplier);
+
+		reset(intSupplier);
+		expect(intSupplier.getAsInt()).andReturn(1).times(1);
+		replay(intSupplier);
+
+		lazyInt.getAsInt();
+		assertEquals(lazyInt.getIfInitialized(), Integer.valueOf(1));
+		verify(intSupplier);
+	}
+
+	@Test
+	public void testPerThreadInstanceIsInspectedWithoutCreation() throws Exception {
+
+		replay(mockListCallable);
+
+		final LazyPerThread<List<String>> perThread = Lazy.perThread(mockListCallable);
+
+		assertFalse(perThread.isInitialized());
+		assertNull(perThread.getIfInitialized());
+		assertEquals(perThread.getSizeHint(), -1);
+		verify(mockListCallable);
+
+		reset(mockListCallable);
+		expectList();
+		replay(mockListCallable);
+
+		List<String> instance = perThread.get();
+
+		assertTrue(perThread.isInitialized());
+		assertSame(perThread.getIfInitialized(), instance);
+		assertEquals(perThread.getSizeHint(), 3);
+		verify(mockListCallable);
+
+		// another thread has no instance yet
+		final boolean[] initializedInOtherThread = { true };
+		Thread otherThread = new Thread() {
+
+			@Override
+			public void run() {
+				initializedInOtherThread[0] = perThread.isInitialized();
+			}
+		};
+		otherThread.start();
+		otherThread.join();
+		assertFalse(initializedInOtherThread[0]);
+
+		perThread.remove();
+		assertFalse(perThread.isInitialized());
+	}
+
+	@Test
+	public void testNullPerThreadInstanceIsInitialized() throws Exception {
+
+		expect(mockListCallable.call()).andReturn(null).times(1);
+		replay(mockListCallable);
+
+		LazyPerThread<List<String>> perThread = Lazy.perThread(mockListCallable);
+
+		assertNull(perThread.get());
+		assertNull(perThread.get());
+
+		assertTrue(perThread.isInitialized());
+		assertNull(perThread.getIfInitialized());
+		verify(mockListCallable);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCacheIsInspectedWithoutLoading() {
+
+		Function<Integer, String> loader = EasyMock.createMock(Function.class);
+		replay(loader);
+
+		LazyCache<Integer, String> cache = Lazy.keyed(loader);
+
+		assertFalse(cache.isInitialized());
+		assertNull(cache.getIfInitialized());
+		assertEquals(cache.getSizeHint(), 0);
+		verify(loader);
+
+		reset(loader);
+		expect(loader.apply(1)).andReturn("a");
+		expect(loader.apply(2)).andReturn("b");
+		replay(loader);
+
+		cache.get(1);
+		cache.get(2);
+
+		assertTrue(cache.isInitialized());
+		Map<Integer, String> expected = new HashMap<Integer, String>();
+		expected.put(1, "a");
+		expected.put(2, "b");
+		assertEquals(cache.getIfInitialized(), expected);
+		assertEquals(cache.getSizeHint(), 2);
+		verify(loader);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPagedListIsInspectedWithoutLoading() {
+
+		IntFunction<List<Integer>> pageLoader = EasyMock.createMock(IntFunction.class);
+		LongSupplier sizeSupplier = EasyMock.createMock(LongSupplier.class);
+		replay(pageLoader, sizeSupplier);
+
+		List<Integer> list = Lazy.pagedList(pageLoader, 10, sizeSupplier);
+		LazyValue<?> lazyValue = (LazyValue<?>) list;
+
+		assertFalse(lazyValue.isInitialized());
+		assertNull(lazyValue.getIfInitialized());
+		assertEquals(lazyValue.getSizeHint(), -1);
+		assertEquals(list.toString(), "PagedLazyList (size not determined, resident pages: 0)");
+		verify(pageLoader, sizeSupplier);
+
+		reset(pageLoader, sizeSupplier);
+		expect(sizeSupplier.getAsLong()).andReturn(100L);
+		expect(pageLoader.apply(0)).andReturn(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+		replay(pageLoader, sizeSupplier);
+
+		assertEquals(list.get(3), Integer.valueOf(3));
+
+		assertTrue(lazyValue.isInitialized());
+		assertSame(lazyValue.getIfInitialized(), list);
+		assertEquals(lazyValue.getSizeHint(), 100);
+		assertEquals(list.toString(), "PagedLazyList (size: 100, resident pages: 1)");
+		verify(pageLoader, sizeSupplier);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamingListIsInspectedWithoutPulling() throws Exception {
+
+		Callable<Iterator<String>> sourceInitializer = EasyMock.createMock(Callable.class);
+		replay(sourceInitializer);
+
+		List<String> list = Lazy.streamingList(sourceInitializer);
+		LazyValue<?> lazyValue = (LazyValue<?>) list;
+
+		assertFalse(lazyValue.isInitialized());
+		assertEquals(lazyValue.getSizeHint(), -1);
+		assertEquals(list.toString(), "StreamingLazyList (pulled: 0)");
+		verify(sourceInitializer);
+
+		reset(sourceInitializer);
+		expect(sourceInitializer.call()).andReturn(Arrays.asList("a", "b", "c").iterator());
+		replay(sourceInitializer);
+
+		assertEquals(list.get(0), "a");
+		assertEquals(list.toString(), "StreamingLazyList (pulled: 1)");
+		assertNull(lazyValue.getIfInitialized());
+
+		assertEquals(list.size(), 3);
+		assertTrue(lazyValue.isInitialized());
+		assertSame(lazyValue.getIfInitialized(), list);
+		assertEquals(lazyValue.getSizeHint(), 3);
+		assertEquals(list.toString(), "[a, b, c]");
+		verify(sourceInitializer);
+	}
+}
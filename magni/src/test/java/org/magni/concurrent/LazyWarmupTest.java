@@ -0,0 +1,232 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class LazyWarmupTest {
+
+	private static final Executor CALLER_RUNS = new Executor() {
+
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	private static Callable<String> recordingCallable(final List<String> initialized, 
+			final String value) {
+		return new Callable<String>() {
+
+			public String call() throws Exception {
+				initialized.add(value);
+				return value;
+			}
+		};
+	}
+
+	@Test
+	public void testValuesAreWarmedUpInPriorityOrderOnceStarted() {
+
+		List<String> initialized = Collections.synchronizedList(new ArrayList<String>());
+
+		LazyWarmup warmup = LazyWarmup.create(CALLER_RUNS, 1);
+		Lazy.Initializer<String> low = Lazy.initializer(recordingCallable(initialized, "low"));
+		warmup.register(low, 1);
+		warmup.register(Lazy.initializer(recordingCallable(initialized, "high")), 10);
+		warmup.register(Lazy.initializer(recordingCallable(initialized, "medium")), 5);
+
+		assertEquals(warmup.getColdCount(), 3);
+		assertFalse(warmup.getCompletion().isDone());
+		assertTrue(initialized.isEmpty());
+
+		warmup.start();
+
+		assertEquals(initialized, Arrays.asList("high", "medium", "low"));
+		assertEquals(warmup.getColdCount(), 0);
+		assertTrue(warmup.getCompletion().isDone());
+
+		// the value is not initialized again
+		assertEquals(low.get(), "low");
+		assertEquals(initialized.size(), 3);
+	}
+
+	@Test
+	public void testPausedWarmupDoesNotStartNewInitializations() {
+
+		List<String> initialized = Collections.synchronizedList(new ArrayList<String>());
+
+		LazyWarmup warmup = LazyWarmup.create(CALLER_RUNS, 1);
+		warmup.start();
+		warmup.pause();
+
+		warmup.register(Lazy.initializer(recordingCallable(initialized, "a")), 0);
+		assertTrue(initialized.isEmpty());
+		assertEquals(warmup.getColdCount(), 1);
+
+		warmup.start();
+		assertEquals(initialized.size(), 1);
+		assertEquals(warmup.getColdCount(), 0);
+	}
+
+	@Test
+	public void testFailedWarmupIsReported() {
+
+		LazyWarmup warmup = LazyWarmup.create(CALLER_RUNS, 2);
+		warmup.register(Lazy.initializer(new Callable<String>() {
+
+			public String call() throws Exception {
+				throw new IllegalStateException("initialization failed");
+			}
+		}), 0);
+		warmup.start();
+
+		assertTrue(warmup.getCompletion().isDone());
+		assertEquals(warmup.getColdCount(), 1);
+		assertEquals(warmup.getFailedCount(), 1);
+	}
+
+	@Test
+	public void testProxyIsWarmedUp() {
+
+		final AtomicInteger invocations = new AtomicInteger();
+		Runnable proxy = Lazy.lazyInitializerProxy(Runnable.class, new Callable<Runnable>() {
+
+			public Runnable call() throws Exception {
+				invocations.incrementAndGet();
+				return new Runnable() {
+
+					public void run() {
+						// nothing to do
+					}
+				};
+			}
+		});
+
+		LazyWarmup warmup = LazyWarmup.create(CALLER_RUNS, 1);
+		warmup.registerProxy(proxy, 0);
+		assertEquals(invocations.get(), 0);
+
+		warmup.start();
+		assertEquals(invocations.get(), 1);
+
+		proxy.run();
+		assertEquals(invocations.get(), 1);
+	}
+
+	@Test(timeOut=10000)
+	public void testParallelismIsBounded() throws Exception {
+
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maximumRunning = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(10);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			LazyWarmup warmup = LazyWarmup.create(executor, 2);
+			for (int i = 0; i < 10; i++) {
+				warmup.register(new Runnable() {
+
+					public void run() {
+						int current = running.incrementAndGet();
+						while (true) {
+							int maximum = maximumRunning.get();
+							if (current <= maximum || maximumRunning.compareAndSet(maximum, current)) {
+								break;
+							}
+						}
+						try {
+							Thread.sleep(20);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						running.decrementAndGet();
+						done.countDown();
+					}
+				}, i);
+			}
+
+			warmup.start();
+			warmup.getCompletion().get(5, TimeUnit.SECONDS);
+
+			assertTrue(done.await(0, TimeUnit.SECONDS));
+			assertEquals(warmup.getColdCount(), 0);
+			assertTrue(maximumRunning.get() <= 2, "Running at the same time: " + maximumRunning);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeOut=30000)
+	public void testManyValuesAreWarmedUpOnCallingThread() throws Exception {
+
+		final AtomicInteger warmedUp = new AtomicInteger();
+		final LazyWarmup warmup = LazyWarmup.create(CALLER_RUNS, 1);
+		for (int i = 0; i < 100000; i++) {
+			warmup.register(new Runnable() {
+
+				public void run() {
+					warmedUp.incrementAndGet();
+				}
+			}, 0);
+		}
+
+		// a small stack: the values must not be started recursively
+		final Throwable[] failure = new Throwable[1];
+		Thread starter = new Thread(null, new Runnable() {
+
+			public void run() {
+				try {
+					warmup.start();
+				} catch (Throwable t) {
+					failure[0] = t;
+				}
+			}
+		}, "warmup-starter", 256 * 1024);
+		starter.start();
+		starter.join();
+
+		assertNull(failure[0]);
+		assertEquals(warmedUp.get(), 100000);
+		assertEquals(warmup.getColdCount(), 0);
+		assertTrue(warmup.getCompletion().isDone());
+	}
+
+	@Test
+	public void testEmptyWarmupIsComplete() {
+		assertTrue(LazyWarmup.create(CALLER_RUNS, 1).getCompletion().isDone());
+	}
+}
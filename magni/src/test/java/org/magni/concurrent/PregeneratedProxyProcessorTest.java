@@ -0,0 +1,181 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ *
+ */
+public class PregeneratedProxyProcessorTest {
+
+	private File outputDirectory;
+
+	@BeforeMethod
+	public void beforeTests() throws Exception {
+		outputDirectory = Files.createTempDirectory("magni-processor").toFile();
+	}
+
+	@Test
+	public void testInterfaceWithParameterizedSupertype() throws Exception {
+
+		ClassLoader classLoader = compile(source("test.Repository",
+				"package test;\n" +
+				"@org.magni.concurrent.LazyProxy\n" +
+				"public interface Repository extends java.util.function.Supplier<String> {\n" +
+				"	java.util.List<String> find(String... names);\n" +
+				"}\n"));
+
+		Class<?> proxyClass = classLoader.loadClass(
+				"test.Repository" + PregeneratedProxies.CLASS_NAME_SUFFIX);
+
+		assertEquals(findMethod(proxyClass, "get").getReturnType(), String.class);
+		assertTrue(proxyClass.getDeclaredMethod("find", String[].class).isVarArgs());
+	}
+
+	@Test
+	public void testClassWithParameterizedSuperclass() throws Exception {
+
+		ClassLoader classLoader = compile(source("test.Base",
+				"package test;\n" +
+				"public class Base<T extends Comparable<T>> {\n" +
+				"	public T first(java.util.List<? extends T> values) { return values.get(0); }\n" +
+				"	@SuppressWarnings(\"unchecked\")\n" +
+				"	public void log(String format, T... values) { }\n" +
+				"	public <R> R convert(Class<R> type, T value) { return type.cast(value); }\n" +
+				"}\n"), source("test.Named",
+				"package test;\n" +
+				"@org.magni.concurrent.ThreadConfined\n" +
+				"public class Named extends Base<String> {\n" +
+				"}\n"), source("test.Box",
+				"package test;\n" +
+				"@org.magni.concurrent.LazyProxy\n" +
+				"public class Box<E> extends Base<String> {\n" +
+				"	public E unbox(E value) { return value; }\n" +
+				"}\n"));
+
+		Class<?> proxyClass = classLoader.loadClass(
+				"test.Named" + PregeneratedProxies.CLASS_NAME_SUFFIX);
+
+		assertEquals(findMethod(proxyClass, "first").getReturnType(), String.class);
+		assertTrue(findMethod(proxyClass, "log").isVarArgs());
+		assertEquals(findMethod(proxyClass, "convert").getReturnType(), Object.class);
+
+		classLoader.loadClass("test.Box" + PregeneratedProxies.CLASS_NAME_SUFFIX);
+	}
+
+	@Test
+	public void testClassWithParameterizedConstructorOnly() throws Exception {
+
+		ClassLoader classLoader = compile(source("test.Connection",
+				"package test;\n" +
+				"@org.magni.concurrent.LazyProxy\n" +
+				"public class Connection {\n" +
+				"	public Connection(String url, int timeout, long idle, double ratio, short port) throws java.io.IOException { }\n" +
+				"	public String url() { return null; }\n" +
+				"}\n"));
+
+		Class<?> proxyClass = classLoader.loadClass(
+				"test.Connection" + PregeneratedProxies.CLASS_NAME_SUFFIX);
+
+		// invoked the way ProxyInstantiator does without Unsafe
+		Object proxy = proxyClass.getDeclaredConstructor().newInstance();
+		assertTrue(proxy instanceof DelegatingProxy);
+	}
+
+	/**
+	 * Returns the method declared by the class itself, ignoring bridge methods.
+	 */
+	private static Method findMethod(Class<?> type, String name) throws NoSuchMethodException {
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.getName().equals(name) && !method.isBridge()) {
+				return method;
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private ClassLoader compile(JavaFileObject... sources) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new SkipException("No system Java compiler available");
+		}
+
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+		try {
+			List<String> options = Arrays.asList("-Xlint:all", "-Werror",
+					"-classpath", System.getProperty("java.class.path"),
+					"-d", outputDirectory.getPath(), "-s", outputDirectory.getPath());
+
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, 
+					diagnostics, options, null, Arrays.asList(sources));
+			task.setProcessors(Collections.singletonList(new PregeneratedProxyProcessor()));
+
+			boolean success = task.call();
+
+			List<String> problems = new ArrayList<String>();
+			for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+				if (diagnostic.getKind() != Diagnostic.Kind.NOTE) {
+					problems.add(diagnostic.toString());
+				}
+			}
+			assertTrue(success && problems.isEmpty(), problems.toString());
+		} finally {
+			fileManager.close();
+		}
+
+		return new URLClassLoader(new URL[] { outputDirectory.toURI().toURL() }, 
+				getClass().getClassLoader());
+	}
+
+	private static JavaFileObject source(String className, final String code) {
+		URI uri = URI.create("string:///" + className.replace('.', '/') + ".java");
+
+		return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+}
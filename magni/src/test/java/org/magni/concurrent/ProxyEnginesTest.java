@@ -0,0 +1,166 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ *
+ */
+public class ProxyEnginesTest {
+
+	public interface Greeting {
+
+		String greet(String name);
+	}
+
+	public static class Greeter implements Greeting {
+
+		public String greet(String name) {
+			return "Hello " + name;
+		}
+
+		int packagePrivateGreetingLength(String name) {
+			return greet(name).length();
+		}
+	}
+
+	private static final Callable<Greeter> GREETER_CALLABLE = new Callable<Greeter>() {
+
+		public Greeter call() throws Exception {
+			return new Greeter();
+		}
+	};
+
+	@DataProvider
+	public Object[][] engines() {
+		return new Object[][] {
+				{ ProxyEngines.hiddenClass() },
+				{ ProxyEngines.javassist() },
+				{ ProxyEngines.jdkProxy() } };
+	}
+
+	@Test(dataProvider = "engines")
+	public void testInterfaceProxy(ProxyEngine engine) {
+		skipIfUnsupported(engine, Greeting.class);
+
+		Greeting greeting = Lazy.lazyInitializerProxy(Greeting.class, 
+				Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER, new Callable<Greeting>() {
+
+			public Greeting call() throws Exception {
+				return new Greeter();
+			}
+		}, engine);
+
+		assertTrue(greeting instanceof DelegatingProxy);
+		assertEquals(greeting.greet("World"), "Hello World");
+	}
+
+	@Test(dataProvider = "engines")
+	public void testClassProxy(ProxyEngine engine) {
+		skipIfUnsupported(engine, Greeter.class);
+
+		Greeter greeter = Lazy.lazyInitializerProxy(Greeter.class, 
+				Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER, GREETER_CALLABLE, engine);
+
+		assertEquals(greeter.greet("World"), "Hello World");
+		assertEquals(greeter.packagePrivateGreetingLength("World"), 11);
+	}
+
+	@Test
+	public void testJdkProxyEngineCannotProxyClasses() {
+		assertFalse(ProxyEngines.jdkProxy().canProxy(Greeter.class));
+		assertTrue(ProxyEngines.jdkProxy().canProxy(Greeting.class));
+	}
+
+	@Test(expectedExceptions = ProxyCreationFailedException.class)
+	public void testProxyCreationFailsForUnsupportedTarget() {
+		Lazy.lazyInitializerProxy(Greeter.class, 
+				Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER, GREETER_CALLABLE, 
+				ProxyEngines.jdkProxy());
+	}
+
+	@Test
+	public void testFirstCapableEngineIsSelected() {
+		for (Class<?> targetClass : new Class<?>[] { Greeting.class, Greeter.class, Runnable.class }) {
+			ProxyEngine expected = null;
+			for (ProxyEngine engine : ProxyEngines.getEngines()) {
+				if (engine.canProxy(targetClass)) {
+					expected = engine;
+					break;
+				}
+			}
+
+			assertSame(ProxyEngines.forTarget(targetClass), expected);
+		}
+	}
+
+	@Test
+	public void testHiddenClassEngineIsPreferredWhereSupported() {
+		if (!HiddenClasses.isSupported()) {
+			throw new SkipException("Hidden classes are not supported");
+		}
+
+		assertSame(ProxyEngines.forTarget(Greeter.class), ProxyEngines.hiddenClass());
+		// bootstrap classes cannot be proxied with hidden classes: Javassist
+		// can proxy them only if java.lang is open to it
+		assertSame(ProxyEngines.forTarget(Runnable.class), 
+				ProxyEngines.javassist().canProxy(Runnable.class) ? 
+						ProxyEngines.javassist() : ProxyEngines.jdkProxy());
+	}
+
+	@Test
+	public void testPregeneratedProxyIsPreferredForDefaultMethodFilter() {
+		Class<LazyInitializerProxyTest.PregeneratedGreeter> targetClass = 
+				LazyInitializerProxyTest.PregeneratedGreeter.class;
+
+		ProxyEngine engine = ProxyEngines.forTarget(targetClass, 
+				Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER);
+
+		assertTrue(engine instanceof PregeneratedProxyEngine);
+		assertSame(ProxyEngines.forTarget(targetClass, Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER), 
+				engine);
+		assertSame(ProxyEngines.forTarget(Greeter.class, Lazy.IGNORE_FINALIZE_PROXYMETHODFILTER), 
+				ProxyEngines.forTarget(Greeter.class));
+
+		ProxyMethodFilter allMethods = new ProxyMethodFilter() {
+
+			public boolean isHandled(Method m) {
+				return true;
+			}
+		};
+		assertSame(ProxyEngines.forTarget(targetClass, allMethods), 
+				ProxyEngines.forTarget(targetClass));
+		assertFalse(ProxyEngines.getEngines().contains(engine));
+	}
+
+	private static void skipIfUnsupported(ProxyEngine engine, Class<?> targetClass) {
+		if (!engine.canProxy(targetClass)) {
+			throw new SkipException(engine + " cannot proxy " + targetClass);
+		}
+	}
+}
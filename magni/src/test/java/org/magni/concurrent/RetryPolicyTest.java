@@ -0,0 +1,97 @@
+/*
+ *   Copyright 2013-2016 Peter G. Horvath
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.magni.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Peter G. Horvath
+ * 
+ */
+public class RetryPolicyTest {
+
+	@Test
+	public void testFixedDelay() {
+		RetryPolicy policy = RetryPolicy.fixedDelay(5, TimeUnit.MILLISECONDS);
+
+		assertEquals(policy.getDelayNanos(1), TimeUnit.MILLISECONDS.toNanos(5));
+		assertEquals(policy.getDelayNanos(100), TimeUnit.MILLISECONDS.toNanos(5));
+	}
+
+	@Test
+	public void testZeroFixedDelayDoesNotCacheFailures() {
+		assertEquals(RetryPolicy.fixedDelay(0, TimeUnit.SECONDS).getDelayNanos(1), 0);
+	}
+
+	@Test
+	public void testExponentialBackoffIsCapped() {
+		RetryPolicy policy = RetryPolicy.exponentialBackoff(100, 1000, TimeUnit.NANOSECONDS);
+
+		assertEquals(policy.getDelayNanos(1), 100);
+		assertEquals(policy.getDelayNanos(2), 200);
+		assertEquals(policy.getDelayNanos(3), 400);
+		assertEquals(policy.getDelayNanos(4), 800);
+		assertEquals(policy.getDelayNanos(5), 1000);
+		assertEquals(policy.getDelayNanos(1000), 1000);
+	}
+
+	@Test
+	public void testMultiplier() {
+		RetryPolicy policy = RetryPolicy.exponentialBackoff(100, 10000, TimeUnit.NANOSECONDS)
+				.withMultiplier(3);
+
+		assertEquals(policy.getDelayNanos(3), 900);
+	}
+
+	@Test
+	public void testJitterReducesDelay() {
+		RetryPolicy policy = RetryPolicy.fixedDelay(1000, TimeUnit.NANOSECONDS).withJitter(0.5);
+
+		for (int i = 0; i < 1000; i++) {
+			long delay = policy.getDelayNanos(1);
+			assertTrue(delay >= 500 && delay <= 1000, "delay: " + delay);
+		}
+	}
+
+	@Test
+	public void testMaxAttempts() {
+		RetryPolicy policy = RetryPolicy.fixedDelay(0, TimeUnit.SECONDS).withMaxAttempts(3);
+
+		assertEquals(policy.getDelayNanos(1), 1);
+		assertEquals(policy.getDelayNanos(2), 1);
+		assertEquals(policy.getDelayNanos(3), RetryPolicy.NO_MORE_ATTEMPTS);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testMaxDelayLessThanInitialDelayIsRejected() {
+		RetryPolicy.exponentialBackoff(2, 1, TimeUnit.SECONDS);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testInvalidJitterIsRejected() {
+		RetryPolicy.fixedDelay(1, TimeUnit.SECONDS).withJitter(1.5);
+	}
+
+	@Test(expectedExceptions=IllegalArgumentException.class)
+	public void testInvalidMaxAttemptsIsRejected() {
+		RetryPolicy.fixedDelay(1, TimeUnit.SECONDS).withMaxAttempts(0);
+	}
+}